@@ -0,0 +1,132 @@
+package edu.uga.cs.project5;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
+import com.google.android.gms.tasks.Tasks;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * Op's chaining rules. Ops are main-thread only, so they are built (and their
+ * sources completed) on the main thread and awaited from the test thread.
+ */
+@RunWith(AndroidJUnit4.class)
+public class OpTest {
+
+    private interface Build<T> {
+        T get() throws Exception;
+    }
+
+    @Test
+    public void thenAndMapRunInOrder() throws Exception {
+        Op<Integer> op = onMain(() -> Op.value(2).then(v -> Op.value(v * 3)).map(v -> v + 1));
+        assertEquals(Integer.valueOf(7), await(op));
+    }
+
+    @Test
+    public void failureSkipsStepsUpToTheFallback() throws Exception {
+        AtomicBoolean ran = new AtomicBoolean(false);
+        Op<String> op = onMain(() -> Op.<String>error(new IllegalStateException("boom"))
+                .then(v -> {
+                    ran.set(true);
+                    return Op.value(v);
+                })
+                .fallback(e -> Op.value("recovered " + e.getMessage())));
+        assertEquals("recovered boom", await(op));
+        assertFalse(ran.get());
+    }
+
+    @Test
+    public void zipWaitsForBothInAnyOrder() throws Exception {
+        TaskCompletionSource<String> a = new TaskCompletionSource<>();
+        TaskCompletionSource<Integer> b = new TaskCompletionSource<>();
+        Op<String> op = onMain(() -> Op.zip(Op.of(a.getTask()), Op.of(b.getTask()), (x, y) -> x + y));
+        onMain(() -> b.trySetResult(1));
+        assertFalse(op.task().isComplete());
+        onMain(() -> a.trySetResult("a"));
+        assertEquals("a1", await(op));
+    }
+
+    @Test
+    public void zipFailsAsSoonAsEitherFails() throws Exception {
+        TaskCompletionSource<String> never = new TaskCompletionSource<>();
+        Op<String> op = onMain(() -> Op.zip(Op.of(never.getTask()),
+                Op.<Integer>error(new IllegalStateException("b failed")), (x, y) -> x + y));
+        Exception e = failure(op);
+        assertTrue(e instanceof IllegalStateException);
+        assertEquals("b failed", e.getMessage());
+    }
+
+    @Test
+    public void timeoutFailsASlowOp() throws Exception {
+        TaskCompletionSource<String> never = new TaskCompletionSource<>();
+        Op<String> op = onMain(() -> Op.of(never.getTask()).timeout(50));
+        assertTrue(failure(op) instanceof TimeoutException);
+    }
+
+    @Test
+    public void timeoutPassesAFastResultThrough() throws Exception {
+        Op<String> op = onMain(() -> Op.value("fast").timeout(5_000));
+        assertEquals("fast", await(op));
+    }
+
+    @Test
+    public void cancelStopsLaterSteps() throws Exception {
+        TaskCompletionSource<String> first = new TaskCompletionSource<>();
+        AtomicBoolean ran = new AtomicBoolean(false);
+        Op<String> op = onMain(() -> Op.of(first.getTask()).then(v -> {
+            ran.set(true);
+            return Op.value(v);
+        }));
+        onMain(() -> {
+            op.cancel();
+            return first.trySetResult("late");
+        });
+        assertTrue(failure(op) instanceof CancellationException);
+        assertFalse(ran.get());
+    }
+
+    private static <T> T onMain(Build<T> build) {
+        AtomicReference<T> out = new AtomicReference<>();
+        AtomicReference<Exception> error = new AtomicReference<>();
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> {
+            try {
+                out.set(build.get());
+            } catch (Exception e) {
+                error.set(e);
+            }
+        });
+        if (error.get() != null) throw new AssertionError(error.get());
+        return out.get();
+    }
+
+    private static <T> T await(Op<T> op) throws Exception {
+        return Tasks.await(op.task(), 5, TimeUnit.SECONDS);
+    }
+
+    private static Exception failure(Op<?> op) throws Exception {
+        Task<?> t = op.task();
+        try {
+            Tasks.await(t, 5, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            return (Exception) e.getCause();
+        } catch (CancellationException e) {
+            return e;
+        }
+        fail("expected the op to fail");
+        return null;
+    }
+}
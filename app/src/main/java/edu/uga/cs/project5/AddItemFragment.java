@@ -16,9 +16,9 @@ import android.widget.Toast;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
+import androidx.lifecycle.ViewModelProvider;
 
 import com.google.firebase.auth.FirebaseAuth;
-import com.google.firebase.database.DataSnapshot;
 import com.google.firebase.database.DatabaseReference;
 import com.google.firebase.database.FirebaseDatabase;
 import com.google.firebase.database.ServerValue;
@@ -42,6 +42,10 @@ public class AddItemFragment extends Fragment {
     private List<String> catIds = new ArrayList<>();
     private List<String> catNames = new ArrayList<>();
     private int selectedCatIndex = -1; // -1 = none selected
+    private boolean categoriesShown = false;
+    @Nullable private String pendingSelectId; // created here, not in the list yet
+
+    private CategoriesViewModel categoriesViewModel;
 
     // If fragment opened with a preselected category
     private String initialCategoryId = null;
@@ -98,7 +102,14 @@ public class AddItemFragment extends Fragment {
         btnSelectCats.setOnClickListener(x -> showCategorySingleSelect());
         btnAddCategory.setOnClickListener(x -> showAddCategoryDialog());
         btnPost.setOnClickListener(x -> submitItem());
-        loadCategories();
+
+        categoriesViewModel = new ViewModelProvider(this).get(CategoriesViewModel.class);
+        categoriesViewModel.getData().observe(getViewLifecycleOwner(), this::showCategories);
+        categoriesViewModel.getError().observe(getViewLifecycleOwner(), e -> {
+            if (e == null) return;
+            Toast.makeText(requireContext(), "Failed to load categories", Toast.LENGTH_SHORT).show();
+            categoriesViewModel.errorShown();
+        });
     }
 
     private void setLoading(boolean l) {
@@ -106,59 +117,64 @@ public class AddItemFragment extends Fragment {
         btnPost.setEnabled(!l);
     }
 
-    private void loadCategories() {
-        DatabaseReference categoriesRef = FirebaseDatabase.getInstance().getReference("categories");
-        categoriesRef.get().addOnCompleteListener(task -> {
-            catIds.clear();
-            catNames.clear();
-            if (!task.isSuccessful()) {
-                Toast.makeText(requireContext(), "Failed to load categories", Toast.LENGTH_SHORT).show();
-                selectedCatIndex = -1;
-                updateSelectedCatsText();
-                return;
-            }
-            DataSnapshot snap = task.getResult();
-            for (DataSnapshot c : snap.getChildren()) {
-                String id = c.getKey();
-                String name = c.child("name").getValue(String.class);
-                if (id != null && name != null) {
-                    catIds.add(id);
-                    catNames.add(name);
-                }
+    // shares the browse tab's /categories listener, so nothing is re-downloaded here
+    private void showCategories(@Nullable List<CategoryRow> rows) {
+        if (rows == null) return;
+        String selectedId = (selectedCatIndex >= 0 && selectedCatIndex < catIds.size())
+                ? catIds.get(selectedCatIndex) : null;
+        catIds.clear();
+        catNames.clear();
+        for (CategoryRow r : rows) {
+            if (r.category.id != null && r.category.name != null) {
+                catIds.add(r.category.id);
+                catNames.add(r.category.name);
             }
+        }
+        // a category just created here shows up once the listener has it
+        if (pendingSelectId != null && catIds.contains(pendingSelectId)) {
+            selectedId = pendingSelectId;
+            pendingSelectId = null;
+        }
+        if (categoriesShown) {
+            selectedCatIndex = selectedId != null ? catIds.indexOf(selectedId) : -1;
+            updateSelectedCatsText();
+            return;
+        }
+        categoriesShown = true;
 
-            // If the fragment was opened with an initialCategoryId, select it automatically (if found)
-            if (initialCategoryId != null) {
-                int idx = catIds.indexOf(initialCategoryId);
-                if (idx >= 0) {
-                    selectedCatIndex = idx;
+        // If the fragment was opened with an initialCategoryId, select it automatically (if found)
+        if (initialCategoryId != null) {
+            int idx = catIds.indexOf(initialCategoryId);
+            if (idx >= 0) {
+                selectedCatIndex = idx;
+            } else {
+                // fallback: if category name was provided, try to match by name
+                if (initialCategoryName != null) {
+                    int idxByName = catNames.indexOf(initialCategoryName);
+                    selectedCatIndex = idxByName >= 0 ? idxByName : -1;
                 } else {
-                    // fallback: if category name was provided, try to match by name
-                    if (initialCategoryName != null) {
-                        int idxByName = catNames.indexOf(initialCategoryName);
-                        selectedCatIndex = idxByName >= 0 ? idxByName : -1;
-                    } else {
-                        selectedCatIndex = -1;
-                    }
+                    selectedCatIndex = -1;
                 }
-            } else {
-                // default behavior: no preselection
-                selectedCatIndex = -1;
             }
+        } else if (selectedId != null) {
+            selectedCatIndex = catIds.indexOf(selectedId);
+        } else {
+            // default behavior: no preselection
+            selectedCatIndex = -1;
+        }
 
-            // Update visible UI
-            updateSelectedCatsText();
+        // Update visible UI
+        updateSelectedCatsText();
 
-            // If we had an initial category, hide the select button so user isn't prompted again.
-            // If you'd prefer the user be allowed to change it, comment out the next lines.
-            if (initialCategoryId != null) {
-                btnSelectCats.setVisibility(View.GONE);
-                // optionally disable add-category if you don't want them to create new categories here:
-                // btnAddCategory.setVisibility(View.GONE);
-            } else {
-                btnSelectCats.setVisibility(View.VISIBLE);
-            }
-        });
+        // If we had an initial category, hide the select button so user isn't prompted again.
+        // If you'd prefer the user be allowed to change it, comment out the next lines.
+        if (initialCategoryId != null) {
+            btnSelectCats.setVisibility(View.GONE);
+            // optionally disable add-category if you don't want them to create new categories here:
+            // btnAddCategory.setVisibility(View.GONE);
+        } else {
+            btnSelectCats.setVisibility(View.VISIBLE);
+        }
     }
 
     private void showCategorySingleSelect() {
@@ -199,46 +215,50 @@ public class AddItemFragment extends Fragment {
                         Toast.makeText(requireContext(), "Name required", Toast.LENGTH_SHORT).show();
                         return;
                     }
-                    DatabaseReference categoriesRef = FirebaseDatabase.getInstance().getReference("categories");
-                    String newId = categoriesRef.push().getKey();
-                    if (newId == null) {
-                        Toast.makeText(requireContext(), "Failed to create category id", Toast.LENGTH_SHORT).show();
+                    // the loaded list also covers categories created before /category-names;
+                    // the claim in CategoryNames.create is the authoritative check
+                    String wanted = CategoryNames.normalize(raw);
+                    for (String existing : catNames) {
+                        if (CategoryNames.normalize(existing).equals(wanted)) {
+                            Toast.makeText(requireContext(), "Category already exists", Toast.LENGTH_SHORT).show();
+                            return;
+                        }
+                    }
+                    String uid = FirebaseAuth.getInstance().getUid();
+                    if (uid == null) {
+                        Toast.makeText(requireContext(), "You must be signed in to create a category", Toast.LENGTH_SHORT).show();
                         return;
                     }
-                    Map<String, Object> cat = new HashMap<>();
-                    cat.put("name", raw);
-                    cat.put("createdBy", FirebaseAuth.getInstance().getUid());
-                    cat.put("createdAt", ServerValue.TIMESTAMP);
-                    categoriesRef.child(newId).setValue(cat).addOnCompleteListener(task -> {
-                        if (task.isSuccessful()) {
+                    String displayName = FirebaseAuth.getInstance().getCurrentUser() != null
+                            ? FirebaseAuth.getInstance().getCurrentUser().getDisplayName() : null;
+                    CategoryNames.create(raw, uid, displayName, new CategoryNames.Callback() {
+                        @Override
+                        public void onSuccess(@NonNull String newId) {
+                            if (gone()) return; // the category exists either way
                             Toast.makeText(requireContext(), "Category created", Toast.LENGTH_SHORT).show();
-                            // reload categories and automatically select the new one
-                            categoriesRef.get().addOnCompleteListener(g -> {
-                                if (g.isSuccessful()) {
-                                    catIds.clear();
-                                    catNames.clear();
-                                    DataSnapshot snap = g.getResult();
-                                    for (DataSnapshot c : snap.getChildren()) {
-                                        String id = c.getKey();
-                                        String name = c.child("name").getValue(String.class);
-                                        if (id != null && name != null) {
-                                            catIds.add(id);
-                                            catNames.add(name);
-                                        }
-                                    }
-                                    int idx = catIds.indexOf(newId);
-                                    selectedCatIndex = idx >= 0 ? idx : -1;
-                                    // since user just added a category, clear any initialCategoryId
-                                    initialCategoryId = null;
-                                    initialCategoryName = null;
-                                    btnSelectCats.setVisibility(View.VISIBLE);
-                                    updateSelectedCatsText();
-                                } else {
-                                    loadCategories();
-                                }
-                            });
-
-                        } else {
+                            // since user just added a category, clear any initialCategoryId
+                            initialCategoryId = null;
+                            initialCategoryName = null;
+                            btnSelectCats.setVisibility(View.VISIBLE);
+                            // select it as soon as the shared category list has it
+                            int idx = catIds.indexOf(newId);
+                            if (idx >= 0) {
+                                selectedCatIndex = idx;
+                                updateSelectedCatsText();
+                            } else {
+                                pendingSelectId = newId;
+                            }
+                        }
+
+                        @Override
+                        public void onDuplicate() {
+                            if (gone()) return;
+                            Toast.makeText(requireContext(), "Category already exists", Toast.LENGTH_SHORT).show();
+                        }
+
+                        @Override
+                        public void onError(@NonNull String message) {
+                            if (gone()) return;
                             Toast.makeText(requireContext(), "Failed to create category", Toast.LENGTH_SHORT).show();
                         }
                     });
@@ -247,6 +267,11 @@ public class AddItemFragment extends Fragment {
                 .show();
     }
 
+    // the claim can finish after the user has left this screen
+    private boolean gone() {
+        return !ListenerRegistry.of(this).isActive();
+    }
+
     private void submitItem() {
         final String title = etTitle.getText() != null ? etTitle.getText().toString().trim() : "";
         final String description = etDescription.getText() != null ? etDescription.getText().toString().trim() : "";
@@ -291,20 +316,10 @@ public class AddItemFragment extends Fragment {
 
         setLoading(true);
 
-        DatabaseReference userRef = FirebaseDatabase.getInstance().getReference("users").child(uid);
+        // cached after the first lookup (and kept warm by MainActivity), so this is usually synchronous
         long finalPriceCents = priceCents;
-        userRef.get().addOnCompleteListener(userTask -> {
-            String displayName = null;
-            if (userTask.isSuccessful()) {
-                DataSnapshot userSnap = userTask.getResult();
-                if (userSnap != null && userSnap.exists()) {
-                    displayName = userSnap.child("displayName").getValue(String.class);
-                    if (displayName == null) {
-                        displayName = userSnap.child("username").getValue(String.class);
-                    }
-                    if (displayName != null) displayName = displayName.trim();
-                }
-            }
+        ProfileCache.get(requireContext()).getDisplayName(uid, displayName -> {
+            if (!ListenerRegistry.of(this).isActive()) return; // left the screen meanwhile
 
             DatabaseReference root = FirebaseDatabase.getInstance().getReference();
             String itemId = root.child("items").push().getKey();
@@ -327,9 +342,13 @@ public class AddItemFragment extends Fragment {
 
             Map<String, Object> updates = new HashMap<>();
             updates.put("/items/" + itemId, item);
-            updates.put("/category-items/" + selectedCatId + "/" + itemId, true);
+            updates.put("/category-items/" + selectedCatId + "/" + itemId,
+                    ItemSummary.toMap(title, description, isFree, finalPriceCents,
+                            ServerValue.TIMESTAMP, displayName, uid));
+            updates.put("/user-items/" + uid + "/" + itemId, true);
+            ItemSummary.putCountDelta(updates, selectedCatId, 1);
 
-            root.updateChildren(updates).addOnCompleteListener(task -> {
+            ListenerRegistry.of(this).deliver(DbMetrics.update(root, updates), task -> {
                 setLoading(false);
                 if (task.isSuccessful()) {
                     Toast.makeText(requireContext(), "Item posted", Toast.LENGTH_SHORT).show();
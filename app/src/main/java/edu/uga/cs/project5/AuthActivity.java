@@ -146,7 +146,8 @@ public class AuthActivity extends AppCompatActivity {
                         profile.put("displayName", displayName);
                         profile.put("email", email);
                         profile.put("createdAt", ServerValue.TIMESTAMP);
-                        db.child("users").child(uid).setValue(profile)
+                        ProfileCache.get(this).put(uid, displayName);
+                        DbMetrics.set(db.child("users").child(uid), profile)
                                 .addOnCompleteListener(profileTask -> {
                                     if (profileTask.isSuccessful()) {
                                         openMainActivity();
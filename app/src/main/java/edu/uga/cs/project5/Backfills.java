@@ -0,0 +1,181 @@
+package edu.uga.cs.project5;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.Query;
+import com.google.firebase.database.Transaction;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * One-off repairs for data written before an index or counter existed. Each runs
+ * once per install (and per user where it matters); it is only marked done in
+ * SharedPreferences once it has succeeded, so a failed run is retried on a later
+ * start.
+ *
+ * Main thread only.
+ */
+public final class Backfills {
+
+    private static final String TAG = "Backfills";
+    private static final String PREFS = "backfills";
+
+    // flags with a run in flight, so two screens starting at once don't both run it
+    private static final Set<String> running = new HashSet<>();
+
+    private Backfills() { }
+
+    /**
+     * Adds the user's listings posted before /user-items existed to their index, so
+     * My Items can edit and delete them. One orderByChild("authorId") read of /items
+     * (needs ".indexOn": "authorId" there), then every id found is set in the index
+     * in one update; IndexedFeed picks them up like new entries.
+     */
+    public static void userItems(@NonNull Context context, @NonNull String uid) {
+        String flag = "user-items/" + uid;
+        SharedPreferences prefs = prefs(context);
+        if (prefs.getBoolean(flag, false) || !running.add(flag)) return;
+
+        DatabaseReference root = FirebaseDatabase.getInstance().getReference();
+        Query mine = root.child("items").orderByChild("authorId").equalTo(uid);
+        Op.of(DbMetrics.get(mine)).then(items -> {
+            Map<String, Object> index = new HashMap<>();
+            for (DataSnapshot item : items.getChildren()) {
+                if (item.getKey() != null) index.put(item.getKey(), true);
+            }
+            if (index.isEmpty()) return Op.<Void>value(null);
+            return Op.of(DbMetrics.update(root.child("user-items").child(uid), index));
+        }).task().addOnCompleteListener(task -> {
+            running.remove(flag);
+            if (task.isSuccessful()) {
+                prefs.edit().putBoolean(flag, true).apply();
+            } else {
+                Exception e = task.getException();
+                Log.w(TAG, "user-items backfill failed: " + (e != null ? e.getMessage() : ""));
+            }
+        });
+    }
+
+    /**
+     * Recounts categories created before /categories/{catId}/itemCount existed, so
+     * the count can be trusted (see {@link ItemSummary#listedCount}). For each one not
+     * marked exact: the counter as read with /categories, then all of its
+     * /category-items entries, then a transaction that sets itemCount to the entry
+     * count and marks it exact only if the counter hasn't moved in between. A listing
+     * or sale in that gap moves it, which fails the run until a later start.
+     */
+    public static void categoryCounts(@NonNull Context context) {
+        String flag = "category-counts";
+        SharedPreferences prefs = prefs(context);
+        if (prefs.getBoolean(flag, false) || !running.add(flag)) return;
+
+        DatabaseReference root = FirebaseDatabase.getInstance().getReference();
+        Op.of(DbMetrics.get(root.child("categories"))).then(cats -> {
+            Op<Void> all = Op.value(null);
+            for (DataSnapshot c : cats.getChildren()) {
+                String catId = c.getKey();
+                if (catId == null || ItemSummary.listedCount(c) != null) continue;
+                Long seen = SnapshotMappers.asLong(c.child("itemCount").getValue());
+                all = all.then(v -> recount(root, catId, seen));
+            }
+            return all;
+        }).task().addOnCompleteListener(task -> {
+            running.remove(flag);
+            if (task.isSuccessful()) {
+                prefs.edit().putBoolean(flag, true).apply();
+            } else {
+                Exception e = task.getException();
+                Log.w(TAG, "category count backfill failed: " + (e != null ? e.getMessage() : ""));
+            }
+        });
+    }
+
+    // one category at a time, so a big catalog doesn't read every mapping at once
+    private static Op<Void> recount(DatabaseReference root, String catId, @Nullable Long seen) {
+        DatabaseReference catRef = root.child("categories").child(catId);
+        return Op.of(DbMetrics.get(root.child("category-items").child(catId))).then(entries -> {
+            long listed = entries.getChildrenCount();
+            return Op.transaction(catRef, current -> {
+                // null is often just "not cached yet"; committing it makes the server
+                // rerun this with the real value, and leaves a deleted category deleted
+                if (current.getValue() == null) return Transaction.success(current);
+                if (Boolean.TRUE.equals(current.child(ItemSummary.COUNT_EXACT).getValue())) {
+                    return Transaction.success(current);
+                }
+                Long now = SnapshotMappers.asLong(current.child("itemCount").getValue());
+                if (!Objects.equals(now, seen)) return Transaction.abort();
+                current.child("itemCount").setValue(listed);
+                current.child(ItemSummary.COUNT_EXACT).setValue(true);
+                return Transaction.success(current);
+            }).map(done -> null);
+        });
+    }
+
+    /**
+     * Writes summaries into /category-items entries from before summaries existed
+     * (just itemId => true), so "All items" can show those listings and category
+     * lists stop reading each of them from /items. Per category, one query for
+     * the entries without createdAt (only legacy ones lack it), then each listed
+     * item is read and written with {@link ItemSummary#rewrite}. Entries of items
+     * that are gone or sold are left as they are; no list shows them.
+     */
+    public static void listingSummaries(@NonNull Context context) {
+        String flag = "listing-summaries";
+        SharedPreferences prefs = prefs(context);
+        if (prefs.getBoolean(flag, false) || !running.add(flag)) return;
+
+        DatabaseReference root = FirebaseDatabase.getInstance().getReference();
+        Op.of(DbMetrics.get(root.child("categories"))).then(cats -> {
+            Op<Void> all = Op.value(null);
+            for (DataSnapshot c : cats.getChildren()) {
+                String catId = c.getKey();
+                if (catId != null) all = all.then(v -> summarize(root, catId));
+            }
+            return all;
+        }).task().addOnCompleteListener(task -> {
+            running.remove(flag);
+            if (task.isSuccessful()) {
+                prefs.edit().putBoolean(flag, true).apply();
+            } else {
+                Exception e = task.getException();
+                Log.w(TAG, "listing summary backfill failed: " + (e != null ? e.getMessage() : ""));
+            }
+        });
+    }
+
+    // one item at a time; legacy entries have no createdAt, which sorts them first as null
+    private static Op<Void> summarize(DatabaseReference root, String catId) {
+        Query legacy = root.child("category-items").child(catId)
+                .orderByChild("createdAt").endAt((String) null);
+        return Op.of(DbMetrics.get(legacy)).then(entries -> {
+            Op<Void> all = Op.value(null);
+            for (DataSnapshot entry : entries.getChildren()) {
+                String itemId = entry.getKey();
+                if (itemId == null || ItemSummary.hasSummary(entry)) continue;
+                all = all.then(v -> Op.of(DbMetrics.get(root.child("items").child(itemId))).then(snap -> {
+                    Item it = SnapshotMappers.item(itemId, snap.getValue());
+                    if (it == null || Boolean.FALSE.equals(it.available)) return Op.<Void>value(null);
+                    it.categoryId = catId;
+                    return ItemSummary.rewrite(it).map(done -> null);
+                }));
+            }
+            return all;
+        });
+    }
+
+    private static SharedPreferences prefs(Context context) {
+        return context.getApplicationContext().getSharedPreferences(PREFS, Context.MODE_PRIVATE);
+    }
+}
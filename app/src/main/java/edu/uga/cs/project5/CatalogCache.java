@@ -0,0 +1,131 @@
+package edu.uga.cs.project5;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * On-device copy of the last list each feed published (categories, a category's
+ * newest item summaries, the user's items and transactions). Rows are stored as the
+ * JSON of the same raw value tree Firebase delivers, so they go back through
+ * SnapshotMappers when read.
+ *
+ * Only called from the DataPipeline thread.
+ */
+public final class CatalogCache extends SQLiteOpenHelper {
+
+    private static final String TAG = "CatalogCache";
+    private static final String DB_NAME = "catalog-cache.db";
+    private static final int DB_VERSION = 1;
+
+    /** Converts a feed's rows to and from the stored value tree. */
+    public interface Codec<T> {
+        @Nullable String key(@NonNull T row);
+        @NonNull Map<String, Object> encode(@NonNull T row);
+        @Nullable T decode(@NonNull String key, @NonNull Map<String, Object> raw);
+    }
+
+    public static final class Entry {
+        public final String key;
+        public final Map<String, Object> value;
+
+        Entry(String key, Map<String, Object> value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    private static CatalogCache instance;
+
+    public static synchronized CatalogCache get(@NonNull Context context) {
+        if (instance == null) instance = new CatalogCache(context.getApplicationContext());
+        return instance;
+    }
+
+    private CatalogCache(Context context) {
+        super(context, DB_NAME, null, DB_VERSION);
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE rows ("
+                + "feed TEXT NOT NULL, "
+                + "k TEXT NOT NULL, "
+                + "json TEXT NOT NULL, "
+                + "PRIMARY KEY (feed, k))");
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        // it's only a cache
+        db.execSQL("DROP TABLE IF EXISTS rows");
+        onCreate(db);
+    }
+
+    @NonNull
+    public List<Entry> read(@NonNull String feed) {
+        List<Entry> out = new ArrayList<>();
+        try (Cursor c = getReadableDatabase().rawQuery(
+                "SELECT k, json FROM rows WHERE feed = ?", new String[]{feed})) {
+            while (c.moveToNext()) {
+                try {
+                    out.add(new Entry(c.getString(0), toMap(new JSONObject(c.getString(1)))));
+                } catch (JSONException e) {
+                    Log.w(TAG, "Skipping bad cache row in " + feed, e);
+                }
+            }
+        } catch (RuntimeException e) {
+            Log.w(TAG, "Cache read failed for " + feed, e);
+        }
+        return out;
+    }
+
+    /** Replaces everything stored for the feed with the given rows. */
+    public void write(@NonNull String feed, @NonNull List<Entry> entries) {
+        try {
+            SQLiteDatabase db = getWritableDatabase();
+            db.beginTransaction();
+            try {
+                db.delete("rows", "feed = ?", new String[]{feed});
+                for (Entry e : entries) {
+                    ContentValues v = new ContentValues();
+                    v.put("feed", feed);
+                    v.put("k", e.key);
+                    v.put("json", new JSONObject(e.value).toString());
+                    db.insertWithOnConflict("rows", null, v, SQLiteDatabase.CONFLICT_REPLACE);
+                }
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+        } catch (RuntimeException e) {
+            Log.w(TAG, "Cache write failed for " + feed, e);
+        }
+    }
+
+    private static Map<String, Object> toMap(JSONObject o) {
+        Map<String, Object> m = new HashMap<>();
+        Iterator<String> keys = o.keys();
+        while (keys.hasNext()) {
+            String k = keys.next();
+            Object v = o.opt(k);
+            if (v != null && v != JSONObject.NULL) m.put(k, v);
+        }
+        return m;
+    }
+}
@@ -0,0 +1,47 @@
+package edu.uga.cs.project5;
+
+import android.app.Application;
+
+import androidx.annotation.NonNull;
+
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.FirebaseDatabase;
+
+import java.util.List;
+
+/**
+ * All categories, alphabetical (case-insensitive). The browse tab and the add-item
+ * screen share one listener on /categories.
+ */
+public class CategoriesViewModel extends FeedViewModel<List<CategoryRow>> {
+
+    private static final int CACHE_LIMIT = 500;
+
+    public CategoriesViewModel(@NonNull Application app) {
+        super(app);
+        share("categories", sink -> {
+            LiveList<CategoryRow> categories = new LiveList<>(
+                    "categories",
+                    FirebaseDatabase.getInstance().getReference("categories"),
+                    // coerces createdAt whether it arrives as Long or Double
+                    s -> CategoryRow.of(SnapshotParser.CATEGORY.parse(s)),
+                    CategoryRow.BY_NAME,
+                    new PipelineFeed.Listener<CategoryRow>() {
+                        @Override public void onChanged(@NonNull List<CategoryRow> list) {
+                            sink.onChanged(list);
+                        }
+
+                        @Override public void onError(@NonNull DatabaseError e) {
+                            sink.onError(e);
+                        }
+                    });
+            // last list from disk first, then reconciled against the live data
+            categories.setCache(CatalogCache.get(app), "categories", RowCodecs.CATEGORIES, CACHE_LIMIT);
+            return categories;
+        });
+        // categories created before the item counter, and mapping entries from before
+        // summaries; once per install
+        Backfills.categoryCounts(app);
+        Backfills.listingSummaries(app);
+    }
+}
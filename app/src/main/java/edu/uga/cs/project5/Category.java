@@ -7,6 +7,7 @@ public class Category {
 
     public String createdByName;
     public long createdAt; // server timestamp saved as long
+    public Long itemCount; // listed items; null until the counter is known to be exact
 
     public Category() { } // required for Firebase
 
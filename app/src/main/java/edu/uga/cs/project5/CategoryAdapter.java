@@ -6,17 +6,27 @@ import android.view.ViewGroup;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
-import java.text.DateFormat;
-import java.text.SimpleDateFormat;
-import java.util.ArrayList;
-import java.util.Date;
 import java.util.List;
+import java.util.Objects;
 
-public class CategoryAdapter extends RecyclerView.Adapter<CategoryAdapter.Holder> {
+public class CategoryAdapter extends ListAdapter<CategoryRow, CategoryAdapter.Holder> {
+
+    private static final DiffUtil.ItemCallback<CategoryRow> DIFF = new DiffUtil.ItemCallback<CategoryRow>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull CategoryRow a, @NonNull CategoryRow b) {
+            return Objects.equals(a.category.id, b.category.id);
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull CategoryRow a, @NonNull CategoryRow b) {
+            return a.sameContentAs(b);
+        }
+    };
 
-    private final List<Category> items = new ArrayList<>();
     private OnItemClickListener clickListener;
     private OnItemSettingsClickListener settingsListener;
 
@@ -28,13 +38,17 @@ public class CategoryAdapter extends RecyclerView.Adapter<CategoryAdapter.Holder
         void onItemSettingsClick(Category category, View anchorView);
     }
 
+    public CategoryAdapter() {
+        super(DIFF);
+    }
+
     public void setOnItemClickListener(OnItemClickListener l) { this.clickListener = l; }
     public void setOnItemSettingsClickListener(OnItemSettingsClickListener l) { this.settingsListener = l; }
 
-    public void setItems(List<Category> categories) {
-        items.clear();
-        if (categories != null) items.addAll(categories);
-        notifyDataSetChanged();
+    // Diffed against the current list off the main thread; only changed rows are rebound.
+    // Pass a new list each time (ListAdapter ignores the same instance).
+    public void setItems(List<CategoryRow> rows) {
+        submitList(rows);
     }
 
     @NonNull
@@ -42,47 +56,47 @@ public class CategoryAdapter extends RecyclerView.Adapter<CategoryAdapter.Holder
     public Holder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
         View v = LayoutInflater.from(parent.getContext())
                 .inflate(R.layout.category_item, parent, false);
-        return new Holder(v);
-    }
-
-    @Override
-    public void onBindViewHolder(@NonNull Holder holder, int position) {
-
-        //sets the name
-        Category cat = items.get(position);
-        holder.name.setText(cat.name != null ? cat.name : "—");
-
-        //Sets the date and time
-        long tempTime = cat.createdAt;
-        String date = null;
-        date =  new SimpleDateFormat("MMM d, yyyy HH:mm").format(new Date(tempTime));
-        holder.meta.setText(date);
-
-        holder.itemView.setOnClickListener(v -> {
-            if (clickListener != null) clickListener.onItemClick(cat);
+        Holder holder = new Holder(v);
+
+        // listeners are created once per holder, not on every bind
+        holder.itemView.setOnClickListener(x -> {
+            int pos = holder.getBindingAdapterPosition();
+            if (pos != RecyclerView.NO_POSITION && clickListener != null) {
+                clickListener.onItemClick(getItem(pos).category);
+            }
         });
-
-        holder.btnSettings.setOnClickListener(v -> {
-            if (settingsListener != null) settingsListener.onItemSettingsClick(cat, v);
+        holder.btnSettings.setOnClickListener(x -> {
+            int pos = holder.getBindingAdapterPosition();
+            if (pos != RecyclerView.NO_POSITION && settingsListener != null) {
+                settingsListener.onItemSettingsClick(getItem(pos).category, x);
+            }
         });
+        return holder;
     }
 
     @Override
-    public int getItemCount() { return items.size(); }
+    public void onBindViewHolder(@NonNull Holder holder, int position) {
+        // text is precomputed in CategoryRow
+        CategoryRow row = getItem(position);
+        holder.name.setText(row.name);
+        holder.meta.setText(row.meta);
+        if (row.count != null) {
+            holder.count.setText(row.count);
+            holder.count.setVisibility(View.VISIBLE);
+        } else {
+            holder.count.setVisibility(View.GONE);
+        }
+    }
 
     static class Holder extends RecyclerView.ViewHolder {
-        TextView name, meta, seller;
+        TextView name, meta, count;
         View btnSettings;
         Holder(@NonNull View itemView) {
             super(itemView);
             name = itemView.findViewById(R.id.tvCategoryName);
             meta = itemView.findViewById(R.id.tvCategoryMeta);
+            count = itemView.findViewById(R.id.tvCategoryCount);
             btnSettings = itemView.findViewById(R.id.btnSettings);
         }
     }
-
-    private String shortUid(String uid) {
-        if (uid == null) return "";
-        return uid.length() > 8 ? uid.substring(0,8) : uid;
-    }
 }
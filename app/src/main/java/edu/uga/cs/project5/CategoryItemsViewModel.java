@@ -0,0 +1,227 @@
+package edu.uga.cs.project5;
+
+import android.app.Application;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One category's listings through /category-items/{catId}, paged newest first, or
+ * (with {@link #startAll}) the newest listings across all categories.
+ *
+ * Sort and price filters ({@link #setFilter}) apply to the loaded rows through an
+ * ItemColumns index built on the DataPipeline thread, so changing them never
+ * re-reads anything or re-sorts Item objects. Since they only see what is loaded,
+ * a filter that leaves less than a page reads further pages by itself (up to
+ * MAX_AUTO_PAGES per change, as a short list can't be scrolled to load more), and
+ * {@link #getLoadedOnly} tells the screen that older listings are still unread.
+ */
+public class CategoryItemsViewModel extends FeedViewModel<List<ItemRow>> {
+
+    private static final int PAGE_SIZE = 25;
+    private static final int MAX_AUTO_PAGES = 8;
+
+    private final MutableLiveData<Boolean> loading = new MutableLiveData<>(false);
+    private final MutableLiveData<Long> staleAge = new MutableLiveData<>(0L);
+    private final MutableLiveData<Boolean> loadedOnly = new MutableLiveData<>(false);
+    @Nullable private PagedFeed<ItemRow> mappingList;
+    @Nullable private MergedItemsFeed allItems;
+
+    // main thread
+    private ItemFilter filter = ItemFilter.NONE;
+    @Nullable private List<ItemRow> latest;
+    private final AtomicInteger viewSeq = new AtomicInteger();
+    private int shown = 0;      // rows in the last filtered view
+    private int autoPages = 0;  // pages read to fill it since the filter changed
+
+    // pipeline thread
+    @Nullable private ItemColumns columns;
+    @Nullable private List<ItemRow> columnsOf;
+
+    public CategoryItemsViewModel(@NonNull Application app) {
+        super(app);
+    }
+
+    /** Starts the feed for the category; later calls (e.g. after rotation) are no-ops. */
+    public void start(@NonNull String categoryId) {
+        if (isRunning()) return;
+        DatabaseReference mappingRef = FirebaseDatabase.getInstance().getReference("category-items").child(categoryId);
+        DatabaseReference itemsRef = FirebaseDatabase.getInstance().getReference("items");
+        String uid = FirebaseAuth.getInstance().getUid();
+
+        loading.setValue(true);
+        // newest page first; older pages are read as the list is scrolled
+        PagedFeed<ItemRow> feed = new PagedFeed<>(
+                "category-items",
+                mappingRef,
+                "createdAt",
+                PAGE_SIZE,
+                // runs on the pipeline thread
+                s -> {
+                    if (ItemSummary.hasSummary(s)) return ItemRow.of(ItemSummary.fromSnapshot(s, categoryId), uid);
+                    // entries written before summaries existed are just itemId => true;
+                    // Reads is main-thread only
+                    String itemId = s.getKey();
+                    DataPipeline.postToMain(() -> fetchLegacyItem(itemsRef, itemId));
+                    return null;
+                },
+                ItemRow.NEWEST_FIRST,
+                new PipelineFeed.Listener<ItemRow>() {
+                    @Override public void onChanged(@NonNull List<ItemRow> rows) {
+                        showRows(rows);
+                    }
+
+                    @Override public void onError(@NonNull DatabaseError e) {
+                        loading.setValue(false);
+                        postError(e);
+                    }
+                });
+        feed.setPageListener(hasMore -> onPageLoaded());
+        // only the head page is cached; that's what opening the category shows first
+        feed.setCache(CatalogCache.get(getApplication()),
+                "category-items/" + categoryId, RowCodecs.items(uid), PAGE_SIZE);
+        mappingList = feed;
+        run(feed);
+    }
+
+    /** Starts the "All items" feed: every category merged newest first; no-op if running. */
+    public void startAll() {
+        if (isRunning()) return;
+        loading.setValue(true);
+        String uid = FirebaseAuth.getInstance().getUid();
+        MergedItemsFeed feed = new MergedItemsFeed(FirebaseDatabase.getInstance().getReference(),
+                PAGE_SIZE, uid, new PipelineFeed.Listener<ItemRow>() {
+                    @Override public void onChanged(@NonNull List<ItemRow> rows) {
+                        showRows(rows);
+                    }
+
+                    @Override public void onError(@NonNull DatabaseError e) {
+                        loading.setValue(false);
+                        postError(e);
+                    }
+                });
+        feed.setPageListener(hasMore -> onPageLoaded());
+        feed.setStaleListener(staleAge::setValue);
+        feed.setCache(CatalogCache.get(getApplication()), "all-items", RowCodecs.items(uid), PAGE_SIZE);
+        allItems = feed;
+        run(feed);
+    }
+
+    @NonNull
+    public ItemFilter getFilter() {
+        return filter;
+    }
+
+    /** Re-renders the loaded rows sorted and filtered; no network. */
+    public void setFilter(@NonNull ItemFilter f) {
+        filter = f;
+        autoPages = 0;
+        updateLoadedOnly();
+        if (latest != null) showRows(latest);
+    }
+
+    // main thread: rows from the feed, newest first
+    private void showRows(@NonNull List<ItemRow> rows) {
+        latest = rows;
+        int seq = viewSeq.incrementAndGet();
+        ItemFilter f = filter;
+        if (f == ItemFilter.NONE) {
+            // already in feed order
+            data.setValue(rows);
+            return;
+        }
+        DataPipeline.execute(() -> {
+            if (seq != viewSeq.get()) return;
+            if (columnsOf != rows) {
+                columns = ItemColumns.of(rows);
+                columnsOf = rows;
+            }
+            List<ItemRow> view = columns.select(f);
+            DataPipeline.postToMain(() -> {
+                if (seq != viewSeq.get()) return;
+                data.setValue(view);
+                shown = view.size();
+                fillFilteredView();
+            });
+        });
+    }
+
+    public LiveData<Boolean> getLoading() {
+        return loading;
+    }
+
+    /** Age in ms of the oldest saved copy among the rows shown (All items only), 0 if all is live. */
+    public LiveData<Long> getStaleAge() {
+        return staleAge;
+    }
+
+    /**
+     * True while a sort or filter is applied and older listings haven't been loaded,
+     * so the list may be missing matches.
+     */
+    public LiveData<Boolean> getLoadedOnly() {
+        return loadedOnly;
+    }
+
+    /** Main thread: reads the next older page, unless one is loading or there are no more. */
+    public void loadMore() {
+        readNextPage();
+    }
+
+    // main thread: false if nothing was started
+    private boolean readNextPage() {
+        if (allItems != null) {
+            if (!allItems.hasMore() || allItems.isLoading()) return false;
+            loading.setValue(true);
+            allItems.loadMore();
+            return true;
+        }
+        if (mappingList == null || !mappingList.hasMore() || mappingList.isLoading()) return false;
+        loading.setValue(true);
+        mappingList.loadMore();
+        return true;
+    }
+
+    // main thread
+    private void onPageLoaded() {
+        loading.setValue(false);
+        updateLoadedOnly();
+        // the page may have added no matches, so no new view would ask again
+        fillFilteredView();
+    }
+
+    // main thread: a narrow filter can leave too few rows to scroll, so nothing
+    // else would load the older pages that might match
+    private void fillFilteredView() {
+        if (!filter.filters() || shown >= PAGE_SIZE || autoPages >= MAX_AUTO_PAGES) return;
+        if (readNextPage()) autoPages++;
+    }
+
+    private void updateLoadedOnly() {
+        boolean more = allItems != null ? allItems.hasMore() : mappingList != null && mappingList.hasMore();
+        loadedOnly.setValue(filter != ItemFilter.NONE && more);
+    }
+
+    // main thread
+    private void fetchLegacyItem(DatabaseReference itemsRef, String itemId) {
+        if (itemId == null) return;
+        Reads.get(itemsRef.child(itemId), Reads.BACKGROUND).task().addOnCompleteListener(task -> {
+            if (!task.isSuccessful() || mappingList == null) return;
+            DataSnapshot ds = task.getResult().snapshot;
+            if (ds == null || !ds.exists()) return;
+            // a full item has children, so the parser takes the summary path for it
+            mappingList.putSnapshot(itemId, ds);
+        });
+    }
+}
@@ -15,32 +15,28 @@ import android.widget.Toast;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
+import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
 import com.google.firebase.database.DataSnapshot;
-import com.google.firebase.database.DatabaseError;
 import com.google.firebase.database.DatabaseReference;
 import com.google.firebase.database.FirebaseDatabase;
-import com.google.firebase.database.ValueEventListener;
+import com.google.firebase.database.Query;
 import com.google.firebase.database.ServerValue;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.concurrent.TimeoutException;
 
 public class CategoryListFragment extends Fragment {
 
     private RecyclerView rv;
     private CategoryAdapter adapter;
-    private DatabaseReference categoriesRef;
-    private ValueEventListener valueListener;
+    private CategoriesViewModel viewModel;
 
     @Nullable @Override
     public View onCreateView(@NonNull LayoutInflater inflater,
@@ -76,15 +72,28 @@ public class CategoryListFragment extends Fragment {
         });
 
 
-        categoriesRef = FirebaseDatabase.getInstance().getReference("categories");
-
         root.findViewById(R.id.fabAddCategory).setOnClickListener(v -> showAddDialog());
+        root.findViewById(R.id.tvAllItems).setOnClickListener(v ->
+                requireActivity().getSupportFragmentManager()
+                        .beginTransaction()
+                        .hide(this)
+                        .add(R.id.fragment_container, ItemsListFragment.create(null, null))
+                        .addToBackStack(null)
+                        .commit());
+        root.findViewById(R.id.fabSearch).setOnClickListener(v ->
+                requireActivity().getSupportFragmentManager()
+                        .beginTransaction()
+                        .hide(this)
+                        .add(R.id.fragment_container, new SearchFragment())
+                        .addToBackStack(null)
+                        .commit());
 
         adapter.setOnItemClickListener(category -> {
             ItemsListFragment f = ItemsListFragment.create(category.id, category.name);
             requireActivity().getSupportFragmentManager()
                     .beginTransaction()
-                    .replace(R.id.fragment_container, f)
+                    .hide(this)
+                    .add(R.id.fragment_container, f)
                     .addToBackStack(null)
                     .commit();
         });
@@ -94,39 +103,16 @@ public class CategoryListFragment extends Fragment {
     }
 
     private void attachListener() {
-        // single ValueEventListener to load snapshot and sort alphabetically
-        valueListener = new ValueEventListener() {
-            @Override public void onDataChange(@NonNull DataSnapshot snapshot) {
-                List<Category> list = new ArrayList<>();
-                for (DataSnapshot cSnap : snapshot.getChildren()) {
-                    Category c = cSnap.getValue(Category.class);
-                    if (c == null) continue;
-                    c.id = cSnap.getKey();
-                    // createdAt may come as Long or Double depending on server; try to coerce
-                    Object t = cSnap.child("createdAt").getValue();
-                    if (t instanceof Long) c.createdAt = (Long) t;
-                    else if (t instanceof Double) c.createdAt = ((Double) t).longValue();
-                    list.add(c);
-                }
-                // sort alphabetically by name (case-insensitive)
-                list.sort(Comparator.comparing(cat -> cat.name == null ? "" : cat.name.toLowerCase(Locale.ROOT)));
-                adapter.setItems(list);
-            }
-
-            @Override public void onCancelled(@NonNull DatabaseError error) {
-                Toast.makeText(requireContext(), "Failed to load categories: " + error.getMessage(), Toast.LENGTH_SHORT).show();
-            }
-        };
-        categoriesRef.addValueEventListener(valueListener);
-    }
-
-    private void detachListener() {
-        if (valueListener != null) categoriesRef.removeEventListener(valueListener);
-    }
-
-    @Override public void onDestroyView() {
-        super.onDestroyView();
-        detachListener();
+        // the feed lives in the ViewModel; a new view just re-renders its last list
+        viewModel = new ViewModelProvider(this).get(CategoriesViewModel.class);
+        viewModel.getData().observe(getViewLifecycleOwner(), list -> {
+            if (list != null) adapter.setItems(list);
+        });
+        viewModel.getError().observe(getViewLifecycleOwner(), error -> {
+            if (error == null) return;
+            Toast.makeText(requireContext(), "Failed to load categories: " + error.getMessage(), Toast.LENGTH_SHORT).show();
+            viewModel.errorShown();
+        });
     }
 
     private void showAddDialog() {
@@ -162,6 +148,10 @@ public class CategoryListFragment extends Fragment {
                         Toast.makeText(requireContext(), "Name cannot be empty", Toast.LENGTH_SHORT).show();
                         return;
                     }
+                    if (nameTaken(raw, category.id)) {
+                        Toast.makeText(requireContext(), "Category already exists", Toast.LENGTH_SHORT).show();
+                        return;
+                    }
                     // Calls your existing method that checks emptiness and updates
                     updateCategoryIfEmpty(category.id, raw);
                 })
@@ -170,29 +160,43 @@ public class CategoryListFragment extends Fragment {
     }
 
 
-    // --- Empty check interface ---
-    private interface EmptyCheckCallback {
-        void onResult(boolean isEmpty);
-    }
-
-    // --- Check if category is empty ---
-    private void isCategoryEmpty(String catId, EmptyCheckCallback cb) {
-        DatabaseReference mappingRef = FirebaseDatabase.getInstance()
-                .getReference("category-items")
-                .child(catId);
+    // --- Owner + empty check ---
+    private static final class CategoryCheck {
+        final DataSnapshot snap;
+        final boolean empty;
 
-        mappingRef.get().addOnCompleteListener(task -> {
-            if (!task.isSuccessful()) {
-                Log.d("CategoryCheck", "Failed to get category-items mapping");
-                // conservative: treat as not empty
-                cb.onResult(false);
-                return;
-            }
+        CategoryCheck(DataSnapshot snap, boolean empty) {
+            this.snap = snap;
+            this.empty = empty;
+        }
+    }
 
-            DataSnapshot snap = task.getResult();
-            boolean empty = snap == null || !snap.exists() || !snap.hasChildren();
-            Log.d("CategoryCheck", "Category " + catId + " empty: " + empty);
-            cb.onResult(empty);
+    // Reads the category node; its exact itemCount says whether listed items exist.
+    // Categories not recounted since the counter was added may hold uncounted
+    // entries, so only for those is the first /category-items entry read too.
+    // Null if the category is gone or isn't the current user's.
+    private Op<CategoryCheck> checkOwnedCategory(String catId, DatabaseReference catRef) {
+        return Reads.get(catRef, Reads.CHECK).then(cat -> {
+            DataSnapshot snap = cat.snapshot;
+            if (snap == null || !snap.exists()) return Op.value(null);
+            String owner = snap.child("createdBy").getValue(String.class);
+            if (!FirebaseAuth.getInstance().getUid().equals(owner)) return Op.value(null);
+
+            Long count = ItemSummary.listedCount(snap);
+            if (count != null) return Op.value(new CategoryCheck(snap, count <= 0));
+
+            Query firstEntry = FirebaseDatabase.getInstance()
+                    .getReference("category-items")
+                    .child(catId)
+                    .limitToFirst(1);
+            return Reads.get(firstEntry, catId + " first entry", Reads.CHECK)
+                    .map(r -> new CategoryCheck(snap,
+                            r.snapshot == null || !r.snapshot.exists() || !r.snapshot.hasChildren()))
+                    .fallback(e -> {
+                        Log.d("CategoryCheck", "Failed to get category-items mapping");
+                        // conservative: treat as not empty
+                        return Op.value(new CategoryCheck(snap, false));
+                    });
         });
     }
 
@@ -201,31 +205,38 @@ public class CategoryListFragment extends Fragment {
         DatabaseReference catRef = FirebaseDatabase.getInstance()
                 .getReference("categories").child(catId);
 
-        catRef.get().addOnCompleteListener(task -> {
-            if (!task.isSuccessful()) return;
-            DataSnapshot snap = task.getResult();
-            if (snap == null || !snap.exists()) return;
+        ListenerRegistry.of(this).deliver(checkOwnedCategory(catId, catRef).task(), task -> {
+            if (!task.isSuccessful()) {
+                showCheckFailed(task.getException());
+                return;
+            }
+            CategoryCheck check = task.getResult();
+            if (check == null) return;
+            if (!check.empty) {
+                Toast.makeText(requireContext(), "Category not empty — cannot rename.", Toast.LENGTH_SHORT).show();
+                return;
+            }
 
-            String owner = snap.child("createdBy").getValue(String.class);
-            if (!FirebaseAuth.getInstance().getUid().equals(owner)) return;
+            Map<String, Object> updates = new HashMap<>();
+            updates.put("name", newName);
+            updates.put("createdAt", ServerValue.TIMESTAMP);
 
-            isCategoryEmpty(catId, isEmpty -> {
-                if (!isEmpty) {
-                    Toast.makeText(requireContext(), "Category not empty — cannot rename.", Toast.LENGTH_SHORT).show();
-                    return;
+            String oldName = check.snap.child("name").getValue(String.class);
+            CategoryNames.rename(catId, oldName, newName, updates, new CategoryNames.Callback() {
+                @Override public void onSuccess(@NonNull String id) {
+                    if (gone()) return;
+                    Toast.makeText(requireContext(), "Category updated", Toast.LENGTH_SHORT).show();
                 }
 
-                Map<String, Object> updates = new HashMap<>();
-                updates.put("name", newName);
-                updates.put("createdAt", ServerValue.TIMESTAMP);
+                @Override public void onDuplicate() {
+                    if (gone()) return;
+                    Toast.makeText(requireContext(), "Category already exists", Toast.LENGTH_SHORT).show();
+                }
 
-                catRef.updateChildren(updates).addOnCompleteListener(uTask -> {
-                    if (uTask.isSuccessful()) {
-                        Toast.makeText(requireContext(), "Category updated", Toast.LENGTH_SHORT).show();
-                    } else {
-                        Toast.makeText(requireContext(), "Failed to update category", Toast.LENGTH_SHORT).show();
-                    }
-                });
+                @Override public void onError(@NonNull String message) {
+                    if (gone()) return;
+                    Toast.makeText(requireContext(), message, Toast.LENGTH_SHORT).show();
+                }
             });
         });
     }
@@ -233,37 +244,44 @@ public class CategoryListFragment extends Fragment {
     private void deleteCategoryIfEmpty(String catId) {
         DatabaseReference catRef = FirebaseDatabase.getInstance()
                 .getReference("categories").child(catId);
-
-        catRef.get().addOnCompleteListener(task -> {
-            if (!task.isSuccessful()) return;
-            DataSnapshot snap = task.getResult();
-            if (snap == null || !snap.exists()) return;
-
-            String owner = snap.child("createdBy").getValue(String.class);
-            if (!FirebaseAuth.getInstance().getUid().equals(owner)) return;
-
-            isCategoryEmpty(catId, isEmpty -> {
-                if (!isEmpty) {
-                    Toast.makeText(requireContext(), "Category must be empty to delete", Toast.LENGTH_SHORT).show();
-                    Log.d("CategoryDelete", "Current user UID: " + FirebaseAuth.getInstance().getUid());
-
-                    return;
+        DatabaseReference mappingRef = FirebaseDatabase.getInstance()
+                .getReference("category-items").child(catId);
+
+        // The delete and its follow-ups (freeing the name, removing the empty mapping)
+        // are one chain, so they finish even if this screen is gone by then; only the
+        // messages go through the registry.
+        Op<CategoryCheck> check = checkOwnedCategory(catId, catRef);
+        Op<CategoryCheck> delete = check.then(c -> {
+            if (c == null || !c.empty) return Op.value(c);
+            String name = c.snap.child("name").getValue(String.class);
+            return Op.of(DbMetrics.set(catRef, null)).then(removed -> Op.zip(
+                    name != null ? CategoryNames.release(name, catId) : Op.<DataSnapshot>value(null),
+                    Op.of(DbMetrics.set(mappingRef, null)),
+                    (released, cleared) -> c)
+                    .fallback(e -> {
+                        // the category is gone either way; a claim left behind is taken
+                        // over by the next create of that name (CategoryNames)
+                        Log.w("CategoryDelete", "Cleanup after delete failed: " + e.getMessage());
+                        return Op.value(c);
+                    }));
+        });
+        ListenerRegistry.of(this).deliver(delete.task(), task -> {
+            if (!task.isSuccessful()) {
+                if (check.task().isSuccessful()) {
+                    Toast.makeText(requireContext(), "Failed to delete category", Toast.LENGTH_SHORT).show();
+                } else {
+                    showCheckFailed(task.getException());
                 }
-
-                // Remove category
-                catRef.removeValue().addOnCompleteListener(rTask -> {
-                    if (rTask.isSuccessful()) {
-                        Toast.makeText(requireContext(), "Category deleted", Toast.LENGTH_SHORT).show();
-
-                        // Optionally, remove empty mapping in /category-items
-                        DatabaseReference mappingRef = FirebaseDatabase.getInstance()
-                                .getReference("category-items").child(catId);
-                        mappingRef.removeValue();
-                    } else {
-                        Toast.makeText(requireContext(), "Failed to delete category", Toast.LENGTH_SHORT).show();
-                    }
-                });
-            });
+                return;
+            }
+            CategoryCheck c = task.getResult();
+            if (c == null) return;
+            if (!c.empty) {
+                Toast.makeText(requireContext(), "Category must be empty to delete", Toast.LENGTH_SHORT).show();
+                Log.d("CategoryDelete", "Current user UID: " + FirebaseAuth.getInstance().getUid());
+                return;
+            }
+            Toast.makeText(requireContext(), "Category deleted", Toast.LENGTH_SHORT).show();
         });
     }
 
@@ -276,95 +294,84 @@ public class CategoryListFragment extends Fragment {
             return;
         }
 
-        if (categoriesRef == null) {
-            categoriesRef = FirebaseDatabase.getInstance().getReference("categories");
+        // 1) Check duplicates (case-insensitive). The loaded list also covers categories
+        //    created before /category-names existed; the claim in CategoryNames.create
+        //    is the authoritative check.
+        if (nameTaken(trimmed, null)) {
+            Toast.makeText(requireContext(), "Category already exists", Toast.LENGTH_SHORT).show();
+            return;
         }
 
-        // 1) Check duplicates (case-insensitive)
-        categoriesRef.get().addOnCompleteListener(checkTask -> {
-            if (!checkTask.isSuccessful()) {
-                Toast.makeText(requireContext(), "Error checking existing categories", Toast.LENGTH_SHORT).show();
-                return;
-            }
+        // 2) Resolve current user info (uid + friendly name)
+        final String uid = FirebaseAuth.getInstance().getUid();
+        if (uid == null) {
+            Toast.makeText(requireContext(), "You must be signed in to create a category", Toast.LENGTH_SHORT).show();
+            return;
+        }
 
-            DataSnapshot snap = checkTask.getResult();
-            boolean exists = false;
-            if (snap != null) {
-                for (DataSnapshot cSnap : snap.getChildren()) {
-                    String existing = cSnap.child("name").getValue(String.class);
-                    if (existing != null && existing.equalsIgnoreCase(trimmed)) {
-                        exists = true;
-                        break;
-                    }
-                }
-            }
+        // Try FirebaseAuth profile first (fast, no extra DB read)
+        String profileName = null;
+        if (FirebaseAuth.getInstance().getCurrentUser() != null
+                && FirebaseAuth.getInstance().getCurrentUser().getDisplayName() != null) {
+            profileName = FirebaseAuth.getInstance().getCurrentUser().getDisplayName().trim();
+        }
 
-            if (exists) {
-                Toast.makeText(requireContext(), "Category already exists", Toast.LENGTH_SHORT).show();
-                return;
-            }
+        if (profileName != null && !profileName.isEmpty()) {
+            // we have display name already — write category now
+            writeNewCategory(trimmed, uid, profileName);
+        } else {
+            // fallback: displayName or username from /users/{uid} (cached, usually no read)
+            ProfileCache.get(requireContext()).getDisplayName(uid, displayName -> {
+                if (gone()) return;
+                // final fallback to short uid if still null
+                String createdByName = displayName != null ? displayName
+                        : (uid.length() > 8 ? uid.substring(0, 8) : uid);
+                writeNewCategory(trimmed, uid, createdByName);
+            });
+        }
+    }
 
-            // 2) Resolve current user info (uid + friendly name)
-            final String uid = FirebaseAuth.getInstance().getUid();
-            if (uid == null) {
-                Toast.makeText(requireContext(), "You must be signed in to create a category", Toast.LENGTH_SHORT).show();
-                return;
+    private void writeNewCategory(String name, String uid, String displayName) {
+        CategoryNames.create(name, uid, displayName, new CategoryNames.Callback() {
+            @Override public void onSuccess(@NonNull String catId) {
+                if (gone()) return;
+                Toast.makeText(requireContext(), "Category added", Toast.LENGTH_SHORT).show();
             }
 
-            // Try FirebaseAuth profile first (fast, no extra DB read)
-            String profileName = null;
-            if (FirebaseAuth.getInstance().getCurrentUser() != null
-                    && FirebaseAuth.getInstance().getCurrentUser().getDisplayName() != null) {
-                profileName = FirebaseAuth.getInstance().getCurrentUser().getDisplayName().trim();
+            @Override public void onDuplicate() {
+                if (gone()) return;
+                Toast.makeText(requireContext(), "Category already exists", Toast.LENGTH_SHORT).show();
             }
 
-            if (profileName != null && !profileName.isEmpty()) {
-                // we have display name already — write category now
-                writeNewCategory(trimmed, uid, profileName);
-            } else {
-                // fallback: read /users/{uid} for displayName or username
-                DatabaseReference userRef = FirebaseDatabase.getInstance().getReference("users").child(uid);
-                userRef.get().addOnCompleteListener(userTask -> {
-                    String displayName = null;
-                    if (userTask.isSuccessful()) {
-                        DataSnapshot userSnap = userTask.getResult();
-                        if (userSnap != null && userSnap.exists()) {
-                            displayName = userSnap.child("displayName").getValue(String.class);
-                            if (displayName == null) {
-                                displayName = userSnap.child("username").getValue(String.class);
-                            }
-                            if (displayName != null) displayName = displayName.trim();
-                        }
-                    }
-                    // final fallback to short uid if still null
-                    if (displayName == null || displayName.isEmpty()) {
-                        displayName = uid.length() > 8 ? uid.substring(0, 8) : uid;
-                    }
-                    writeNewCategory(trimmed, uid, displayName);
-                });
+            @Override public void onError(@NonNull String message) {
+                if (gone()) return;
+                Toast.makeText(requireContext(), message, Toast.LENGTH_SHORT).show();
             }
         });
     }
 
-    private void writeNewCategory(String name, String uid, String displayName) {
-        String catId = categoriesRef.push().getKey();
-        if (catId == null) {
-            Toast.makeText(requireContext(), "Failed to create category id", Toast.LENGTH_SHORT).show();
-            return;
-        }
-        Map<String, Object> cat = new HashMap<>();
-        cat.put("name", name);
-        cat.put("createdBy", uid);               // keep uid for ownership checks
-        cat.put("createdByName", displayName);   // human friendly
-        cat.put("createdAt", ServerValue.TIMESTAMP);
-
-        categoriesRef.child(catId).setValue(cat).addOnCompleteListener(setTask -> {
-            if (setTask.isSuccessful()) {
-                Toast.makeText(requireContext(), "Category added", Toast.LENGTH_SHORT).show();
-            } else {
-                Toast.makeText(requireContext(), "Failed to add category", Toast.LENGTH_SHORT).show();
-            }
-        });
+    // the checks give up after Reads.CHECK's deadline rather than leave the tap unanswered
+    private void showCheckFailed(@Nullable Exception e) {
+        String why = e instanceof TimeoutException ? "the network is too slow right now"
+                : e != null && e.getMessage() != null ? e.getMessage() : "unknown error";
+        Toast.makeText(requireContext(), "Couldn't check the category: " + why, Toast.LENGTH_SHORT).show();
     }
 
+    // CategoryNames and ProfileCache results can arrive after this fragment is destroyed
+    private boolean gone() {
+        return !ListenerRegistry.of(this).isActive();
+    }
+
+    // true if another loaded category already has this name (case/spacing-insensitive)
+    private boolean nameTaken(String name, @Nullable String exceptId) {
+        List<CategoryRow> rows = viewModel != null ? viewModel.getData().getValue() : null;
+        if (rows == null) return false;
+        String wanted = CategoryNames.normalize(name);
+        for (CategoryRow row : rows) {
+            Category c = row.category;
+            if (c.name == null || (exceptId != null && exceptId.equals(c.id))) continue;
+            if (CategoryNames.normalize(c.name).equals(wanted)) return true;
+        }
+        return false;
+    }
 }
@@ -0,0 +1,226 @@
+package edu.uga.cs.project5;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.ServerValue;
+import com.google.firebase.database.Transaction;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Unique category names. /category-names/{normalized name} holds the id of the
+ * category that owns the name ({catId, claimedAt}; older claims are just the id)
+ * and is claimed with a transaction before a category is created or renamed, so a
+ * duplicate check is one key no matter how many categories exist, and two users
+ * can't create the same name at once.
+ *
+ * Claiming and writing the category aren't atomic, so a crash or a failed release
+ * can leave a claim behind with no category using the name. A claim that aborts on
+ * such an orphan (its category is gone, or now has another name, and the claim is
+ * older than CLAIM_GRACE_MS) takes it over instead of reporting a duplicate.
+ *
+ * Used by both CategoryListFragment and AddItemFragment.
+ */
+public final class CategoryNames {
+
+    public interface Callback {
+        /** catId is the created (or renamed) category. */
+        void onSuccess(@NonNull String catId);
+        void onDuplicate();
+        void onError(@NonNull String message);
+    }
+
+    // long enough for a claim's category write to land, even from a slow client
+    static final long CLAIM_GRACE_MS = 10 * 60_000L;
+
+    private static final String PUSH_CHARS =
+            "-0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ_abcdefghijklmnopqrstuvwxyz";
+
+    private CategoryNames() { }
+
+    /** Trimmed, inner whitespace collapsed, lower-cased. "  Text  Books" and "text books" match. */
+    @NonNull
+    public static String normalize(@NonNull String name) {
+        return name.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    /** normalize(name) made safe as a database key ('.', '#', '$', '[', ']', '/' are not allowed). */
+    @NonNull
+    public static String key(@NonNull String name) {
+        String n = normalize(name);
+        StringBuilder sb = new StringBuilder(n.length());
+        for (int i = 0; i < n.length(); i++) {
+            char c = n.charAt(i);
+            if (c == '.' || c == '#' || c == '$' || c == '[' || c == ']' || c == '/' || c == '%' || c < 0x20) {
+                sb.append(String.format(Locale.ROOT, "%%%02X", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    /** Claims the name, then writes the new category. The name stays free if the write fails. */
+    public static void create(@NonNull String name, @NonNull String uid, @Nullable String displayName,
+                              @NonNull Callback cb) {
+        DatabaseReference categoriesRef = FirebaseDatabase.getInstance().getReference("categories");
+        String catId = categoriesRef.push().getKey();
+        if (catId == null) {
+            cb.onError("Failed to create category id");
+            return;
+        }
+        Map<String, Object> cat = new HashMap<>();
+        cat.put("name", name);
+        cat.put("createdBy", uid);               // keep uid for ownership checks
+        if (displayName != null) cat.put("createdByName", displayName);
+        cat.put("createdAt", ServerValue.TIMESTAMP);
+        cat.put("itemCount", 0);                 // kept by ItemSummary.putCountDelta
+        cat.put(ItemSummary.COUNT_EXACT, true);  // counted from the start
+
+        Op<Void> write = claim(name, catId)
+                .then(claimed -> Op.of(DbMetrics.set(categoriesRef.child(catId), cat)).fallback(e -> {
+                    release(name, catId);
+                    return Op.error(new Exception("Failed to add category"));
+                }));
+        finish(write, catId, cb);
+    }
+
+    /**
+     * Claims newName for the category, applies the given updates to /categories/{catId}
+     * (which should set "name") and then frees oldName. A change of case or spacing only
+     * keeps the same claim.
+     */
+    public static void rename(@NonNull String catId, @Nullable String oldName, @NonNull String newName,
+                              @NonNull Map<String, Object> catUpdates, @NonNull Callback cb) {
+        DatabaseReference catRef = FirebaseDatabase.getInstance().getReference("categories").child(catId);
+        boolean sameKey = oldName != null && key(oldName).equals(key(newName));
+
+        Op<Void> write = claim(newName, catId)
+                .then(claimed -> Op.of(DbMetrics.update(catRef, catUpdates)).fallback(e -> {
+                    if (!sameKey) release(newName, catId);
+                    return Op.error(new Exception("Failed to update category"));
+                }))
+                .map(done -> {
+                    if (oldName != null && !sameKey) release(oldName, catId);
+                    return done;
+                });
+        finish(write, catId, cb);
+    }
+
+    /** Frees the name if (and only if) it is still held by catId. */
+    @NonNull
+    public static Op<DataSnapshot> release(@NonNull String name, @NonNull String catId) {
+        return Op.transaction(ref(name), current -> {
+            // null is often just "not cached yet"; committing it makes the server
+            // rerun this with the real value
+            if (current.getValue() == null) return Transaction.success(current);
+            if (!catId.equals(ownerOf(current.getValue()))) return Transaction.abort();
+            current.setValue(null);
+            return Transaction.success(current);
+        });
+    }
+
+    // aborts (with Op.Aborted) if another category holds the name, unless that claim
+    // is an orphan, which is taken over
+    private static Op<DataSnapshot> claim(String name, String catId) {
+        DatabaseReference ref = ref(name);
+        return take(ref, catId, null).fallback(e -> {
+            if (!(e instanceof Op.Aborted) || ((Op.Aborted) e).current == null) return Op.error(e);
+            Object held = ((Op.Aborted) e).current.getValue();
+            String holder = ownerOf(held);
+            if (holder == null) return Op.error(e);
+            return isOrphan(key(name), holder, held)
+                    .then(orphan -> orphan ? take(ref, catId, holder) : Op.<DataSnapshot>error(e));
+        });
+    }
+
+    // sets the claim if the name is free, already ours (e.g. a rename that only
+    // changes case), or still held by the orphaned holder `stale`
+    private static Op<DataSnapshot> take(DatabaseReference ref, String catId, @Nullable String stale) {
+        return Op.transaction(ref, current -> {
+            String owner = ownerOf(current.getValue());
+            if (catId.equals(owner)) return Transaction.success(current);
+            if (owner != null && !owner.equals(stale)) return Transaction.abort();
+            Map<String, Object> claim = new HashMap<>();
+            claim.put("catId", catId);
+            claim.put("claimedAt", ServerValue.TIMESTAMP);
+            current.setValue(claim);
+            return Transaction.success(current);
+        });
+    }
+
+    // the holder's category is gone or no longer uses the name, and the claim is old
+    // enough that it isn't a create or rename still in flight; unknown counts as no
+    private static Op<Boolean> isOrphan(String nameKey, String holder, Object held) {
+        long age = System.currentTimeMillis() - claimedAt(held, holder);
+        if (age < CLAIM_GRACE_MS) return Op.value(false);
+        DatabaseReference catRef = FirebaseDatabase.getInstance().getReference("categories").child(holder);
+        return Reads.get(catRef, "name claim " + holder, Reads.CHECK)
+                .map(r -> {
+                    if (r.snapshot == null) return false;
+                    if (!r.snapshot.exists()) return true;
+                    String current = r.snapshot.child("name").getValue(String.class);
+                    return current == null || !key(current).equals(nameKey);
+                })
+                .fallback(err -> Op.value(false));
+    }
+
+    /** The category id a claim value names: the value itself (older claims) or its catId. */
+    @Nullable
+    static String ownerOf(@Nullable Object claim) {
+        if (claim instanceof String) return (String) claim;
+        if (claim instanceof Map) {
+            Object id = ((Map<?, ?>) claim).get("catId");
+            return id instanceof String ? (String) id : null;
+        }
+        return null;
+    }
+
+    /**
+     * When a claim was made: its claimedAt, or for older claims (just the id) when
+     * the holder's push id was generated, which is when the category was created.
+     * 0 if neither is known.
+     */
+    static long claimedAt(@Nullable Object claim, @NonNull String holder) {
+        if (claim instanceof Map) {
+            Long at = SnapshotMappers.asLong(((Map<?, ?>) claim).get("claimedAt"));
+            if (at != null) return at;
+        }
+        return pushIdTime(holder);
+    }
+
+    /** The millisecond timestamp in the first 8 characters of a push id, or 0 if it isn't one. */
+    static long pushIdTime(@NonNull String id) {
+        if (id.length() < 20) return 0;
+        long t = 0;
+        for (int i = 0; i < 8; i++) {
+            int c = PUSH_CHARS.indexOf(id.charAt(i));
+            if (c < 0) return 0;
+            t = t * 64 + c;
+        }
+        return t;
+    }
+
+    private static void finish(Op<Void> write, String catId, Callback cb) {
+        write.task().addOnCompleteListener(task -> {
+            Exception e = task.getException();
+            if (task.isSuccessful()) {
+                cb.onSuccess(catId);
+            } else if (e instanceof Op.Aborted) {
+                cb.onDuplicate();
+            } else {
+                cb.onError(e != null && e.getMessage() != null ? e.getMessage() : "");
+            }
+        });
+    }
+
+    private static DatabaseReference ref(String name) {
+        return FirebaseDatabase.getInstance().getReference("category-names").child(key(name));
+    }
+}
@@ -0,0 +1,46 @@
+package edu.uga.cs.project5;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Display-ready text for one category row, built on the DataPipeline thread.
+ */
+public final class CategoryRow {
+
+    // alphabetical, case-insensitive
+    public static final Comparator<CategoryRow> BY_NAME = (a, b) -> a.sortKey.compareTo(b.sortKey);
+
+    public final Category category;
+    public final String name;
+    public final String meta;
+    @Nullable public final String count;   // "N items"; null hides the badge
+    private final String sortKey;
+
+    private CategoryRow(Category category, String name, String meta, @Nullable String count,
+                        String sortKey) {
+        this.category = category;
+        this.name = name;
+        this.meta = meta;
+        this.count = count;
+        this.sortKey = sortKey;
+    }
+
+    @Nullable
+    public static CategoryRow of(@Nullable Category c) {
+        if (c == null) return null;
+        return new CategoryRow(c,
+                c.name != null ? c.name : "—",
+                RowFormats.dateTime(c.createdAt),
+                c.itemCount != null ? RowFormats.itemCount(c.itemCount) : null,
+                c.name == null ? "" : c.name.toLowerCase(Locale.ROOT));
+    }
+
+    public boolean sameContentAs(@NonNull CategoryRow o) {
+        return name.equals(o.name) && meta.equals(o.meta) && Objects.equals(count, o.count);
+    }
+}
@@ -9,25 +9,18 @@ import android.widget.Toast;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
+import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.google.firebase.auth.FirebaseAuth;
-import com.google.firebase.database.DataSnapshot;
-import com.google.firebase.database.DatabaseError;
-import com.google.firebase.database.DatabaseReference;
-import com.google.firebase.database.FirebaseDatabase;
-import com.google.firebase.database.ValueEventListener;
 
 import java.util.ArrayList;
-import java.util.List;
 
 public class CompletedTransactionsFragment extends Fragment {
 
     private RecyclerView rv;
     private TransactionAdapter adapter;
-    private DatabaseReference txRef;
-    private ValueEventListener valueListener;
 
     public CompletedTransactionsFragment() { }
 
@@ -44,79 +37,38 @@ public class CompletedTransactionsFragment extends Fragment {
         rv.setLayoutManager(new LinearLayoutManager(requireContext()));
         rv.setAdapter(adapter);
 
-        txRef = FirebaseDatabase.getInstance().getReference("transactions");
         attachListener("completed");
 
         return root;
     }
 
     /**
-     * Show ONLY this user's completed transactions,
-     * sorted from most recent to oldest.
+     * Follow ONLY this user's transactions through /user-transactions/{uid}
+     * and show the ones with the given status, most recent first. The feed is
+     * shared with the other transactions tab through the activity's ViewModel.
      */
     private void attachListener(String status) {
-        if (valueListener != null && txRef != null) {
-            txRef.removeEventListener(valueListener);
-        }
-
-        valueListener = new ValueEventListener() {
-            @Override
-            public void onDataChange(@NonNull DataSnapshot snapshot) {
-                String currentUid = FirebaseAuth.getInstance().getUid();
-                if (currentUid == null) {
-                    if (getContext() != null) {
-                        Toast.makeText(getContext(), "Sign in to view your completed transactions", Toast.LENGTH_SHORT).show();
-                    }
-                    adapter.setItems(new ArrayList<>());
-                    return;
-                }
-
-                List<Transaction> mine = new ArrayList<>();
-                for (DataSnapshot s : snapshot.getChildren()) {
-                    Transaction t = s.getValue(Transaction.class);
-                    if (t == null) continue;
-                    t.id = s.getKey();
-
-                    boolean statusMatch =
-                            t.status != null && t.status.equalsIgnoreCase(status);
-
-                    boolean isMine =
-                            (t.buyerId != null && t.buyerId.equals(currentUid)) ||
-                                    (t.sellerId != null && t.sellerId.equals(currentUid));
-
-                    if (statusMatch && isMine) {
-                        mine.add(t);
-                    }
-                }
-
-                // Sort by createdAt desc (most recent first)
-                mine.sort((a, b) -> {
-                    long ca = (a.createdAt != null) ? a.createdAt : 0L;
-                    long cb = (b.createdAt != null) ? b.createdAt : 0L;
-                    return Long.compare(cb, ca);
-                });
-
-                adapter.setCurrentUserId(currentUid);
-                adapter.setItems(mine);
+        String currentUid = FirebaseAuth.getInstance().getUid();
+        if (currentUid == null) {
+            if (getContext() != null) {
+                Toast.makeText(getContext(), "Sign in to view your completed transactions", Toast.LENGTH_SHORT).show();
             }
+            adapter.setItems(new ArrayList<>());
+            return;
+        }
 
-            @Override
-            public void onCancelled(@NonNull DatabaseError error) {
-                if (getContext() != null) {
-                    Toast.makeText(getContext(),
-                            "Failed to load transactions: " + error.getMessage(),
-                            Toast.LENGTH_SHORT).show();
-                }
+        TransactionsViewModel viewModel = new ViewModelProvider(requireActivity()).get(TransactionsViewModel.class);
+        viewModel.getData().observe(getViewLifecycleOwner(), byStatus -> {
+            if (byStatus != null) adapter.setItems(TransactionFeed.withStatus(byStatus, status));
+        });
+        viewModel.getError().observe(getViewLifecycleOwner(), error -> {
+            if (error == null) return;
+            if (getContext() != null) {
+                Toast.makeText(getContext(),
+                        "Failed to load transactions: " + error.getMessage(),
+                        Toast.LENGTH_SHORT).show();
             }
-        };
-        txRef.addValueEventListener(valueListener);
-    }
-
-    @Override
-    public void onDestroyView() {
-        super.onDestroyView();
-        if (valueListener != null && txRef != null) {
-            txRef.removeEventListener(valueListener);
-        }
+            viewModel.errorShown();
+        });
     }
 }
@@ -0,0 +1,99 @@
+package edu.uga.cs.project5;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Dedicated background stage for list data. Firebase delivers callbacks on the
+ * main thread; feeds hand the raw DataSnapshots over here so that mapping,
+ * filtering and sorting all run on one worker thread, and only a finished,
+ * immutable list is posted back to the main thread.
+ *
+ * Per-feed stage timings (parse, model, handoff) are recorded for diagnostics.
+ */
+public final class DataPipeline {
+
+    private static final String TAG = "DataPipeline";
+
+    public static final String STAGE_PARSE = "parse";
+    public static final String STAGE_MODEL = "model";
+    public static final String STAGE_HANDOFF = "handoff";
+
+    private static final ExecutorService WORKER = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(() -> {
+            Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+            r.run();
+        }, "data-pipeline");
+        t.setDaemon(true);
+        return t;
+    });
+    private static final Handler MAIN = new Handler(Looper.getMainLooper());
+
+    // "feed/stage" -> stats, guarded by itself
+    private static final Map<String, StageStats> STATS = new LinkedHashMap<>();
+
+    private DataPipeline() { }
+
+    /** Runs on the pipeline thread. Tasks run one at a time in submission order. */
+    public static void execute(@NonNull Runnable task) {
+        WORKER.execute(task);
+    }
+
+    public static void postToMain(@NonNull Runnable task) {
+        MAIN.post(task);
+    }
+
+    public static void record(@NonNull String feed, @NonNull String stage, long nanos) {
+        synchronized (STATS) {
+            String key = feed + "/" + stage;
+            StageStats s = STATS.get(key);
+            if (s == null) {
+                s = new StageStats();
+                STATS.put(key, s);
+            }
+            s.count++;
+            s.totalNanos += nanos;
+            if (nanos > s.maxNanos) s.maxNanos = nanos;
+        }
+    }
+
+    /**
+     * Logs one line for a publish: how many events it folded in and what each stage
+     * cost. Debug builds only; feeds publish often enough for the formatting to show.
+     */
+    static void logPublish(String feed, int events, int rows, long parseNanos, long modelNanos) {
+        if (!BuildConfig.DEBUG) return;
+        Log.d(TAG, String.format(Locale.ROOT, "%s: %d events -> %d rows, parse %.2f ms, model %.2f ms",
+                feed, events, rows, parseNanos / 1e6, modelNanos / 1e6));
+    }
+
+    /** One line per feed/stage: samples, average and worst time in ms. */
+    @NonNull
+    public static String report() {
+        StringBuilder sb = new StringBuilder();
+        synchronized (STATS) {
+            for (Map.Entry<String, StageStats> e : STATS.entrySet()) {
+                StageStats s = e.getValue();
+                sb.append(String.format(Locale.ROOT, "%-32s n=%-6d avg=%.2fms max=%.2fms%n",
+                        e.getKey(), s.count, s.totalNanos / 1e6 / s.count, s.maxNanos / 1e6));
+            }
+        }
+        return sb.toString();
+    }
+
+    private static final class StageStats {
+        long count;
+        long totalNanos;
+        long maxNanos;
+    }
+}
@@ -0,0 +1,536 @@
+package edu.uga.cs.project5;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.database.ChildEventListener;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.MutableData;
+import com.google.firebase.database.Query;
+import com.google.firebase.database.Transaction;
+import com.google.firebase.database.ValueEventListener;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Measures every database read, write and listener the app makes. Call sites go
+ * through these wrappers instead of calling the Query/DatabaseReference method
+ * directly; in release builds the wrappers just delegate.
+ *
+ * Stats are kept per screen, operation and path, with ids folded out of the path
+ * ("/items/{id}"), so a whole-node read ("listen /transactions") stands apart
+ * from per-item ones. For each: latency histogram (request to completion, or
+ * attach to first data for listeners), snapshot child counts, approximate JSON
+ * bytes, and listener attach/detach counts.
+ *
+ * Everything is recorded on the main thread except snapshot sizes, which walk the
+ * value tree on the DataPipeline thread.
+ */
+public final class DbMetrics {
+
+    private static final String TAG = "DbMetrics";
+    public static final boolean ENABLED = BuildConfig.DEBUG;
+
+    public static final String OP_GET = "get";
+    public static final String OP_LISTEN = "listen";
+    public static final String OP_CHILDREN = "children";
+    public static final String OP_ONCE = "once";
+    public static final String OP_UPDATE = "update";
+    public static final String OP_SET = "set";
+    public static final String OP_TRANSACTION = "txn";
+
+    // histogram bucket upper bounds in ms; the last bucket is open-ended
+    private static final long[] BUCKETS_MS = {1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000};
+
+    // how many id levels follow each top-level node; deeper segments are field names
+    private static final Map<String, Integer> ID_LEVELS = new HashMap<>();
+    static {
+        ID_LEVELS.put("items", 1);
+        ID_LEVELS.put("transactions", 1);
+        ID_LEVELS.put("categories", 1);
+        ID_LEVELS.put("category-names", 1);
+        ID_LEVELS.put("users", 1);
+        ID_LEVELS.put("category-items", 2);
+        ID_LEVELS.put("user-items", 2);
+        ID_LEVELS.put("user-transactions", 2);
+    }
+
+    // "screen op path" -> stats, guarded by itself
+    private static final Map<String, PathStats> STATS = new HashMap<>();
+    private static volatile String screen = "-";
+
+    private DbMetrics() { }
+
+    /** The screen later operations are attributed to; MainActivity keeps it current. */
+    public static void setScreen(@NonNull String name) {
+        screen = name;
+    }
+
+    // ---- reads ----
+
+    @NonNull
+    public static Task<DataSnapshot> get(@NonNull Query q) {
+        Task<DataSnapshot> task = q.get();
+        if (!ENABLED) return task;
+        PathStats s = stats(OP_GET, path(q));
+        long t0 = System.nanoTime();
+        task.addOnCompleteListener(t -> {
+            if (t.isSuccessful()) s.delivered(System.nanoTime() - t0, t.getResult());
+            else s.failed(System.nanoTime() - t0);
+        });
+        return task;
+    }
+
+    /** addListenerForSingleValueEvent. */
+    public static void once(@NonNull Query q, @NonNull ValueEventListener l) {
+        if (!ENABLED) {
+            q.addListenerForSingleValueEvent(l);
+            return;
+        }
+        PathStats s = stats(OP_ONCE, path(q));
+        long t0 = System.nanoTime();
+        q.addListenerForSingleValueEvent(new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                s.delivered(System.nanoTime() - t0, snapshot);
+                l.onDataChange(snapshot);
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                s.failed(System.nanoTime() - t0);
+                l.onCancelled(error);
+            }
+        });
+    }
+
+    /**
+     * addValueEventListener. Returns the listener actually attached; pass that one
+     * to {@link #stop(Query, ValueEventListener)}.
+     */
+    @NonNull
+    public static ValueEventListener listen(@NonNull Query q, @NonNull ValueEventListener l) {
+        if (!ENABLED) {
+            q.addValueEventListener(l);
+            return l;
+        }
+        TimedValueListener w = new TimedValueListener(stats(OP_LISTEN, path(q)), l);
+        q.addValueEventListener(w);
+        return w;
+    }
+
+    /** addChildEventListener; same contract as {@link #listen(Query, ValueEventListener)}. */
+    @NonNull
+    public static ChildEventListener listen(@NonNull Query q, @NonNull ChildEventListener l) {
+        if (!ENABLED) {
+            q.addChildEventListener(l);
+            return l;
+        }
+        TimedChildListener w = new TimedChildListener(stats(OP_CHILDREN, path(q)), l);
+        q.addChildEventListener(w);
+        return w;
+    }
+
+    public static void stop(@NonNull Query q, @NonNull ValueEventListener attached) {
+        q.removeEventListener(attached);
+        if (attached instanceof TimedValueListener) ((TimedValueListener) attached).detach();
+    }
+
+    public static void stop(@NonNull Query q, @NonNull ChildEventListener attached) {
+        q.removeEventListener(attached);
+        if (attached instanceof TimedChildListener) ((TimedChildListener) attached).detach();
+    }
+
+    // ---- writes ----
+
+    /** updateChildren; recorded under the set of (folded) paths it touches. */
+    @NonNull
+    public static Task<Void> update(@NonNull DatabaseReference ref, @NonNull Map<String, Object> updates) {
+        Task<Void> task = ref.updateChildren(updates);
+        if (!ENABLED) return task;
+        String base = path(ref);
+        TreeSet<String> paths = new TreeSet<>();
+        for (String k : updates.keySet()) paths.add(fold(join(base, k)));
+        return timedWrite(task, stats(OP_UPDATE, String.join(" ", paths)), updates);
+    }
+
+    /** setValue (and removeValue, as a null value). */
+    @NonNull
+    public static Task<Void> set(@NonNull DatabaseReference ref, @Nullable Object value) {
+        Task<Void> task = value != null ? ref.setValue(value) : ref.removeValue();
+        if (!ENABLED) return task;
+        return timedWrite(task, stats(OP_SET, path(ref)), value);
+    }
+
+    public static void runTransaction(@NonNull DatabaseReference ref, @NonNull Transaction.Handler h) {
+        if (!ENABLED) {
+            ref.runTransaction(h);
+            return;
+        }
+        PathStats s = stats(OP_TRANSACTION, path(ref));
+        long t0 = System.nanoTime();
+        ref.runTransaction(new Transaction.Handler() {
+            @NonNull
+            @Override
+            public Transaction.Result doTransaction(@NonNull MutableData current) {
+                return h.doTransaction(current);
+            }
+
+            @Override
+            public void onComplete(@Nullable DatabaseError error, boolean committed,
+                                   @Nullable DataSnapshot snapshot) {
+                long nanos = System.nanoTime() - t0;
+                // onComplete may run off the main thread; PathStats is synchronized
+                if (error != null) s.failed(nanos);
+                else s.delivered(nanos, snapshot);
+                h.onComplete(error, committed, snapshot);
+            }
+        });
+    }
+
+    private static Task<Void> timedWrite(Task<Void> task, PathStats s, @Nullable Object payload) {
+        long t0 = System.nanoTime();
+        long bytes = approxBytes(payload);
+        task.addOnCompleteListener(t -> {
+            if (t.isSuccessful()) s.sample(System.nanoTime() - t0, -1, bytes);
+            else s.failed(System.nanoTime() - t0);
+        });
+        return task;
+    }
+
+    // ---- report ----
+
+    /** One line per screen/op/path, heaviest (total bytes) first. */
+    @NonNull
+    public static String report() {
+        return format(Integer.MAX_VALUE);
+    }
+
+    /** The heaviest few lines, for the debug overlay. */
+    @NonNull
+    public static String summary(int lines) {
+        return format(lines);
+    }
+
+    public static void reset() {
+        synchronized (STATS) {
+            STATS.clear();
+        }
+    }
+
+    public static void logReport() {
+        for (String line : report().split("\n")) Log.i(TAG, line);
+    }
+
+    private static String format(int limit) {
+        List<Map.Entry<String, PathStats>> rows;
+        synchronized (STATS) {
+            rows = new ArrayList<>(STATS.entrySet());
+        }
+        Collections.sort(rows, (a, b) -> Long.compare(b.getValue().totalBytes(), a.getValue().totalBytes()));
+        StringBuilder sb = new StringBuilder();
+        int n = 0;
+        for (Map.Entry<String, PathStats> e : rows) {
+            if (n++ == limit) break;
+            sb.append(e.getKey()).append('\n').append("    ").append(e.getValue().describe()).append('\n');
+        }
+        return sb.length() == 0 ? "no database operations yet\n" : sb.toString();
+    }
+
+    // ---- internals ----
+
+    private static PathStats stats(String op, String path) {
+        String key = screen + " " + op + " " + path;
+        synchronized (STATS) {
+            PathStats s = STATS.get(key);
+            if (s == null) {
+                s = new PathStats();
+                STATS.put(key, s);
+            }
+            return s;
+        }
+    }
+
+    /** Folded path of a query's location, e.g. "/category-items/{id}". */
+    @NonNull
+    static String path(@NonNull Query q) {
+        return fold(rawPath(q));
+    }
+
+    /** The query's location as is, e.g. "/category-items/-Nx3...". */
+    @NonNull
+    static String rawPath(@NonNull Query q) {
+        DatabaseReference ref = q.getRef();
+        String url = ref.toString();
+        String root = ref.getRoot().toString();
+        String raw = url.length() > root.length() ? url.substring(root.length()) : "/";
+        try {
+            return URLDecoder.decode(raw, "UTF-8");
+        } catch (UnsupportedEncodingException | IllegalArgumentException ignored) {
+            return raw; // keep it encoded
+        }
+    }
+
+    private static String join(String base, String key) {
+        if (key.startsWith("/")) key = key.substring(1);
+        return "/".equals(base) ? "/" + key : base + "/" + key;
+    }
+
+    /** Replaces id segments with {id} using the schema's layout. */
+    @NonNull
+    static String fold(@NonNull String path) {
+        String[] segs = path.split("/");
+        StringBuilder sb = new StringBuilder();
+        int idLevels = 0;
+        int depth = 0;
+        for (String seg : segs) {
+            if (seg.isEmpty()) continue;
+            if (depth == 0) {
+                Integer levels = ID_LEVELS.get(seg);
+                idLevels = levels != null ? levels : 0;
+                sb.append('/').append(seg);
+            } else {
+                sb.append('/').append(depth <= idLevels ? "{id}" : seg);
+            }
+            depth++;
+        }
+        return sb.length() == 0 ? "/" : sb.toString();
+    }
+
+    /** Rough JSON size of a value tree (what goes over the wire, give or take). */
+    static long approxBytes(@Nullable Object v) {
+        if (v == null) return 4;
+        if (v instanceof String) return ((String) v).length() + 2;
+        if (v instanceof Boolean) return 5;
+        if (v instanceof Number) return 8;
+        long n = 2;
+        if (v instanceof Map) {
+            for (Map.Entry<?, ?> e : ((Map<?, ?>) v).entrySet()) {
+                n += String.valueOf(e.getKey()).length() + 4 + approxBytes(e.getValue());
+            }
+        } else if (v instanceof List) {
+            for (Object o : (List<?>) v) n += 1 + approxBytes(o);
+        } else {
+            n += String.valueOf(v).length();
+        }
+        return n;
+    }
+
+    private static final class PathStats {
+        long count;
+        long failures;
+        final long[] histogram = new long[BUCKETS_MS.length + 1];
+        long maxNanos;
+        long events;        // snapshots delivered (listeners deliver many)
+        long childrenTotal;
+        long childrenMax;
+        long bytesTotal;
+        long bytesMax;
+        int attached;
+        int detached;
+
+        /** A completed request (or a listener's first data), with its snapshot. */
+        void delivered(long nanos, @Nullable DataSnapshot snapshot) {
+            sample(nanos, snapshot != null ? snapshot.getChildrenCount() : 0, -1);
+            if (snapshot != null) measure(snapshot);
+        }
+
+        synchronized void sample(long nanos, long children, long bytes) {
+            count++;
+            long ms = nanos / 1_000_000;
+            int b = 0;
+            while (b < BUCKETS_MS.length && ms >= BUCKETS_MS[b]) b++;
+            histogram[b]++;
+            if (nanos > maxNanos) maxNanos = nanos;
+            if (children >= 0) addChildren(children);
+            if (bytes >= 0) addBytes(bytes);
+        }
+
+        synchronized void failed(long nanos) {
+            failures++;
+            if (nanos > maxNanos) maxNanos = nanos;
+        }
+
+        /** A later snapshot from a listener; counted for size but not latency. */
+        void event(@NonNull DataSnapshot snapshot) {
+            synchronized (this) {
+                addChildren(snapshot.getChildrenCount());
+            }
+            measure(snapshot);
+        }
+
+        private void addChildren(long children) {
+            events++;
+            childrenTotal += children;
+            if (children > childrenMax) childrenMax = children;
+        }
+
+        private void addBytes(long bytes) {
+            bytesTotal += bytes;
+            if (bytes > bytesMax) bytesMax = bytes;
+        }
+
+        // walking the value tree can take a while for a big node, so it runs off the main thread
+        private void measure(DataSnapshot snapshot) {
+            DataPipeline.execute(() -> {
+                long bytes = approxBytes(snapshot.getValue());
+                synchronized (this) {
+                    addBytes(bytes);
+                }
+            });
+        }
+
+        synchronized void attach() {
+            attached++;
+        }
+
+        synchronized void detach() {
+            detached++;
+        }
+
+        synchronized long totalBytes() {
+            return bytesTotal;
+        }
+
+        synchronized String describe() {
+            StringBuilder sb = new StringBuilder(String.format(Locale.ROOT,
+                    "n=%d fail=%d p50=%s p95=%s max=%.0fms", count, failures,
+                    percentile(0.50), percentile(0.95), maxNanos / 1e6));
+            if (events > 0) {
+                sb.append(String.format(Locale.ROOT, " | %d snapshots, children avg=%.0f max=%d",
+                        events, (double) childrenTotal / events, childrenMax));
+            }
+            if (bytesTotal > 0) {
+                sb.append(String.format(Locale.ROOT, " | %.1fKB total, max=%.1fKB",
+                        bytesTotal / 1024.0, bytesMax / 1024.0));
+            }
+            if (attached > 0) {
+                sb.append(String.format(Locale.ROOT, " | listeners +%d -%d active=%d",
+                        attached, detached, attached - detached));
+            }
+            return sb.toString();
+        }
+
+        // the bucket's upper bound, e.g. "<20ms"
+        private String percentile(double p) {
+            if (count == 0) return "-";
+            long rank = (long) Math.ceil(p * count);
+            long seen = 0;
+            for (int b = 0; b < histogram.length; b++) {
+                seen += histogram[b];
+                if (seen >= rank) {
+                    return b < BUCKETS_MS.length ? "<" + BUCKETS_MS[b] + "ms" : ">=" + BUCKETS_MS[b - 1] + "ms";
+                }
+            }
+            return "-";
+        }
+    }
+
+    private static final class TimedValueListener implements ValueEventListener {
+        final PathStats stats;
+        final ValueEventListener delegate;
+        final long attachedAt = System.nanoTime();
+        boolean first = true;
+        boolean detached = false;
+
+        TimedValueListener(PathStats stats, ValueEventListener delegate) {
+            this.stats = stats;
+            this.delegate = delegate;
+            stats.attach();
+        }
+
+        @Override
+        public void onDataChange(@NonNull DataSnapshot snapshot) {
+            if (first) {
+                first = false;
+                stats.delivered(System.nanoTime() - attachedAt, snapshot);
+            } else {
+                stats.event(snapshot);
+            }
+            delegate.onDataChange(snapshot);
+        }
+
+        @Override
+        public void onCancelled(@NonNull DatabaseError error) {
+            stats.failed(System.nanoTime() - attachedAt);
+            delegate.onCancelled(error);
+        }
+
+        void detach() {
+            if (detached) return;
+            detached = true;
+            stats.detach();
+        }
+    }
+
+    private static final class TimedChildListener implements ChildEventListener {
+        final PathStats stats;
+        final ChildEventListener delegate;
+        final long attachedAt = System.nanoTime();
+        boolean first = true;
+        boolean detached = false;
+
+        TimedChildListener(PathStats stats, ChildEventListener delegate) {
+            this.stats = stats;
+            this.delegate = delegate;
+            stats.attach();
+        }
+
+        // latency is attach to first child; every child counts as a snapshot
+        private void seen(DataSnapshot snapshot) {
+            if (first) {
+                first = false;
+                stats.delivered(System.nanoTime() - attachedAt, snapshot);
+            } else {
+                stats.event(snapshot);
+            }
+        }
+
+        @Override
+        public void onChildAdded(@NonNull DataSnapshot snapshot, @Nullable String previousChildName) {
+            seen(snapshot);
+            delegate.onChildAdded(snapshot, previousChildName);
+        }
+
+        @Override
+        public void onChildChanged(@NonNull DataSnapshot snapshot, @Nullable String previousChildName) {
+            seen(snapshot);
+            delegate.onChildChanged(snapshot, previousChildName);
+        }
+
+        @Override
+        public void onChildRemoved(@NonNull DataSnapshot snapshot) {
+            delegate.onChildRemoved(snapshot);
+        }
+
+        @Override
+        public void onChildMoved(@NonNull DataSnapshot snapshot, @Nullable String previousChildName) {
+            delegate.onChildMoved(snapshot, previousChildName);
+        }
+
+        @Override
+        public void onCancelled(@NonNull DatabaseError error) {
+            stats.failed(System.nanoTime() - attachedAt);
+            delegate.onCancelled(error);
+        }
+
+        void detach() {
+            if (detached) return;
+            detached = true;
+            stats.detach();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package edu.uga.cs.project5;
+
+import android.app.Application;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.lifecycle.AndroidViewModel;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import com.google.firebase.database.DatabaseError;
+
+/**
+ * Holds a feed and its latest result for a screen. The feed is started once and
+ * only stopped when the ViewModel is cleared, so tab switches, view re-creation
+ * and configuration changes re-render the last result without re-reading or
+ * re-parsing anything. Feeds started with {@link #share} are also shared with
+ * other ViewModels asking for the same key (see SharedFeeds).
+ */
+public abstract class FeedViewModel<V> extends AndroidViewModel {
+
+    protected final MutableLiveData<V> data = new MutableLiveData<>();
+    private final MutableLiveData<DatabaseError> error = new MutableLiveData<>();
+    @Nullable private PipelineFeed<?> feed;
+    @Nullable private SharedFeeds.Subscription subscription;
+
+    protected FeedViewModel(@NonNull Application app) {
+        super(app);
+    }
+
+    public LiveData<V> getData() {
+        return data;
+    }
+
+    /** The last load error, until {@link #errorShown} is called. */
+    public LiveData<DatabaseError> getError() {
+        return error;
+    }
+
+    public void errorShown() {
+        error.setValue(null);
+    }
+
+    protected final boolean isRunning() {
+        return feed != null || subscription != null;
+    }
+
+    protected final void run(@NonNull PipelineFeed<?> f) {
+        if (feed != null) feed.stop();
+        feed = f;
+        f.start();
+    }
+
+    /** Like run(), but joins the feed already running under key if there is one. */
+    protected final void share(@NonNull String key, @NonNull SharedFeeds.Factory<V> factory) {
+        if (subscription != null) subscription.close();
+        subscription = SharedFeeds.subscribe(key, factory, new SharedFeeds.Observer<V>() {
+            @Override public void onChanged(@NonNull V value) {
+                data.setValue(value);
+            }
+
+            @Override public void onError(@NonNull DatabaseError e) {
+                postError(e);
+            }
+        });
+    }
+
+    // main thread (feed listeners are only called there)
+    protected final void postError(@NonNull DatabaseError e) {
+        error.setValue(e);
+    }
+
+    @Override
+    protected void onCleared() {
+        if (feed != null) {
+            feed.stop();
+            feed = null;
+        }
+        if (subscription != null) {
+            subscription.close();
+            subscription = null;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package edu.uga.cs.project5;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.google.firebase.database.ChildEventListener;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.ValueEventListener;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Follows an index node (e.g. /user-items/{uid}, children are ids => true) and keeps
+ * one listener per referenced node under a data node (e.g. /items/{id}).
+ * Only the indexed nodes are downloaded, so the payload scales with the index
+ * instead of the whole data node. Parsing and sorting run on the DataPipeline thread.
+ */
+public class IndexedFeed<T> extends PipelineFeed<T> {
+
+    private final DatabaseReference indexRef;
+    private final DatabaseReference dataRef;
+    private final SnapshotParser<T> parser;
+
+    // main thread
+    private final Map<String, ValueEventListener> nodeListeners = new HashMap<>();
+    private ChildEventListener indexListener;
+
+    /**
+     * @param listener receives the sorted list on the main thread; may be null for
+     *                 subclasses that override {@link #publish} and deliver results themselves
+     */
+    public IndexedFeed(@NonNull String name,
+                       @NonNull DatabaseReference indexRef,
+                       @NonNull DatabaseReference dataRef,
+                       @NonNull SnapshotParser<T> parser,
+                       @NonNull Comparator<T> order,
+                       @Nullable Listener<T> listener) {
+        super(name, order, listener);
+        this.indexRef = indexRef;
+        this.dataRef = dataRef;
+        this.parser = parser;
+    }
+
+    @Override
+    protected void onStart() {
+        indexListener = new ChildEventListener() {
+            @Override
+            public void onChildAdded(@NonNull DataSnapshot snapshot, @Nullable String previousChildName) {
+                watch(snapshot.getKey());
+            }
+
+            @Override
+            public void onChildChanged(@NonNull DataSnapshot snapshot, @Nullable String previousChildName) { }
+
+            @Override
+            public void onChildRemoved(@NonNull DataSnapshot snapshot) {
+                String id = snapshot.getKey();
+                if (id == null) return;
+                unwatch(id);
+                onPipeline(() -> removeKey(id));
+            }
+
+            @Override
+            public void onChildMoved(@NonNull DataSnapshot snapshot, @Nullable String previousChildName) { }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                onError(error);
+            }
+        };
+        indexListener = listeners.listen(indexRef, indexListener);
+
+        // child events for the initial data arrive before this fires, so an empty
+        // index still produces one (empty) result instead of an endless spinner.
+        // Cached seeds no longer in the index are dropped; the rest stay until
+        // their node loads.
+        DbMetrics.once(indexRef, new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                Set<String> ids = new HashSet<>();
+                for (DataSnapshot child : snapshot.getChildren()) ids.add(child.getKey());
+                onPipeline(() -> settleSeeds(ids));
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) { }
+        });
+    }
+
+    @Override
+    protected void onStop() {
+        if (indexListener != null) {
+            listeners.stop(indexRef, indexListener);
+            indexListener = null;
+        }
+        for (Map.Entry<String, ValueEventListener> e : nodeListeners.entrySet()) {
+            listeners.stop(dataRef.child(e.getKey()), e.getValue());
+        }
+        nodeListeners.clear();
+    }
+
+    private void watch(String id) {
+        if (id == null || nodeListeners.containsKey(id)) return;
+        ValueEventListener l = new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                onPipeline(() -> applySnapshot(id, snapshot, parser));
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                onError(error);
+            }
+        };
+        nodeListeners.put(id, listeners.listen(dataRef.child(id), l));
+    }
+
+    private void unwatch(String id) {
+        ValueEventListener l = nodeListeners.remove(id);
+        if (l != null) listeners.stop(dataRef.child(id), l);
+    }
+}
@@ -11,6 +11,8 @@ public class Item {
     public String authorId;
     public Boolean available = true;
     public String categoryId; // if you store mapping
+    public String transactionId;        // last purchase of this item
+    public String pendingTransactionId; // set while that purchase is pending (Purchases.buy)
 
     public String createdByName;
     public String category;   // filled when loading items with category name
@@ -6,30 +6,35 @@ import android.view.ViewGroup;
 import android.widget.Button;
 import android.widget.TextView;
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
-import com.google.firebase.auth.FirebaseAuth;
-
-import java.text.SimpleDateFormat;
-import java.util.ArrayList;
-import java.util.Date;
 import java.util.List;
-import java.util.Locale;
+import java.util.Objects;
+
+public class ItemAdapter extends ListAdapter<ItemRow, ItemAdapter.Holder> {
 
-public class ItemAdapter extends RecyclerView.Adapter<ItemAdapter.Holder> {
+    private static final DiffUtil.ItemCallback<ItemRow> DIFF = new DiffUtil.ItemCallback<ItemRow>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull ItemRow a, @NonNull ItemRow b) {
+            return Objects.equals(a.item.id, b.item.id);
+        }
 
-    private final List<Item> items = new ArrayList<>();
+        @Override
+        public boolean areContentsTheSame(@NonNull ItemRow a, @NonNull ItemRow b) {
+            return a.sameContentAs(b);
+        }
+    };
 
-    public void setItems(List<Item> list) {
-        items.clear();
-        if (list != null) items.addAll(list);
-        notifyDataSetChanged();
+    public ItemAdapter() {
+        super(DIFF);
     }
 
-    @NonNull @Override
-    public Holder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
-        View v = LayoutInflater.from(parent.getContext()).inflate(R.layout.item_card, parent, false);
-        return new Holder(v);
+    // Diffed against the current list off the main thread; only changed rows are rebound.
+    // Pass a new list each time (ListAdapter ignores the same instance).
+    public void setItems(List<ItemRow> rows) {
+        submitList(rows);
     }
 
     public interface OnItemActionListener {
@@ -51,82 +56,50 @@ public class ItemAdapter extends RecyclerView.Adapter<ItemAdapter.Holder> {
         this.buyListener = l;
     }
 
-    @Override
-    public void onBindViewHolder(@NonNull Holder holder, int position) {
-
-        Item item = items.get(position);
-
-        // Title
-        holder.title.setText(item.title != null ? item.title : "—");
-
-        // Description (read-only)
-        if (item.description != null && !item.description.trim().isEmpty()) {
-            holder.description.setText(item.description.trim());
-        } else {
-            holder.description.setText(""); // or "No description"
-        }
-
-        // Buy button visibility
-        String currentUid = FirebaseAuth.getInstance().getUid();
-        boolean isOwner = currentUid != null && currentUid.equals(item.authorId);
-        boolean isAvailable = item.available == null ? true : item.available;
-
-        // Price
-        String price;
-        if (item.isFree != null && item.isFree) {
-            price = "FREE";
-        } else if (item.priceCents != null) {
-            price = String.format(Locale.getDefault(), "$%.2f", item.priceCents / 100.0);
-        } else {
-            price = "—";
-        }
+    @NonNull @Override
+    public Holder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View v = LayoutInflater.from(parent.getContext()).inflate(R.layout.item_card, parent, false);
+        Holder holder = new Holder(v);
 
-        // Date/time
-        long tempTime = item.createdAt != null ? item.createdAt : 0L;
-        String date = new SimpleDateFormat("MMM d, yyyy HH:mm", Locale.getDefault())
-                .format(new Date(tempTime));
-        String meta = price + " • " + date;
-        holder.meta.setText(meta);
-
-        // Seller username
-        String seller = item.createdByName != null ? item.createdByName : "Unknown";
-        holder.seller.setText("Sold by: " + seller);
-
-        // Category
-        if (item.category != null) {
-            holder.category.setText("Category: " + item.category);
-        } else {
-            holder.category.setText("Category: —");
+        // listeners are created once per holder, not on every bind
+        holder.itemView.setOnClickListener(x -> {
+            int pos = holder.getBindingAdapterPosition();
+            if (pos != RecyclerView.NO_POSITION && actionListener != null) {
+                actionListener.onItemClicked(getItem(pos).item);
+            }
+        });
+        if (holder.btnBuy != null) {
+            holder.btnBuy.setOnClickListener(x -> {
+                int pos = holder.getBindingAdapterPosition();
+                if (pos != RecyclerView.NO_POSITION && buyListener != null && getItem(pos).showBuy) {
+                    buyListener.onBuyClicked(getItem(pos).item);
+                }
+            });
         }
+        return holder;
+    }
 
-        // Item click
-        holder.itemView.setOnClickListener(v -> {
-            if (actionListener != null) actionListener.onItemClicked(item);
-        });
+    @Override
+    public void onBindViewHolder(@NonNull Holder holder, int position) {
+        // all text is precomputed in ItemRow on the pipeline thread
+        ItemRow row = getItem(position);
+        holder.title.setText(row.title);
+        holder.description.setText(row.description);
+        holder.meta.setText(row.meta);
+        holder.seller.setText(row.seller);
+        holder.category.setText(row.category);
 
         // Buy / Accept button
         if (holder.btnBuy != null) {
-            if (!isOwner && isAvailable) {
+            if (row.showBuy) {
                 holder.btnBuy.setVisibility(View.VISIBLE);
-
-                if (item.isFree != null && item.isFree)
-                    holder.btnBuy.setText("Accept");
-                else
-                    holder.btnBuy.setText("Buy");
-
-                holder.btnBuy.setOnClickListener(v -> {
-                    if (buyListener != null) buyListener.onBuyClicked(item);
-                });
-
+                holder.btnBuy.setText(row.buyLabel);
             } else {
                 holder.btnBuy.setVisibility(View.GONE);
-                holder.btnBuy.setOnClickListener(null);
             }
         }
     }
 
-    @Override public int getItemCount() { return items.size(); }
-
     static class Holder extends RecyclerView.ViewHolder {
         TextView title, description, meta, seller, category;
         Button btnBuy;
@@ -0,0 +1,125 @@
+package edu.uga.cs.project5;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Columnar copy of a loaded item list for filtering and sorting: price and
+ * createdAt in primitive arrays plus sorted permutations (price up, price down,
+ * createdAt). Built once per data change; after that any {@link ItemFilter}
+ * is a single pass over a permutation with primitive comparisons, with no
+ * sorting and no unboxing of Item fields.
+ *
+ * Not thread-safe; built and queried on the DataPipeline thread.
+ */
+public final class ItemColumns {
+
+    private final List<ItemRow> rows;
+    private final long[] price;      // cents; free (or unpriced) = 0
+    private final long[] created;
+    private final boolean[] free;
+    private final boolean[] priced;  // free, or has a price
+    private final int[] byPrice;     // ascending, ties newest first
+    private final int[] byPriceDesc; // descending, ties newest first too
+    private final int[] byCreated;   // ascending
+
+    private ItemColumns(List<ItemRow> rows) {
+        this.rows = rows;
+        int n = rows.size();
+        price = new long[n];
+        created = new long[n];
+        free = new boolean[n];
+        priced = new boolean[n];
+        for (int i = 0; i < n; i++) {
+            Item it = rows.get(i).item;
+            free[i] = it.isFree != null && it.isFree;
+            priced[i] = free[i] || it.priceCents != null;
+            price[i] = (!free[i] && it.priceCents != null) ? it.priceCents : 0L;
+            created[i] = it.createdAt != null ? it.createdAt : 0L;
+        }
+        byCreated = sortedBy(created, false, null);
+        byPrice = sortedBy(price, false, created);
+        // not byPrice reversed: that would put equal prices oldest first
+        byPriceDesc = sortedBy(price, true, created);
+    }
+
+    @NonNull
+    public static ItemColumns of(@NonNull List<ItemRow> rows) {
+        return new ItemColumns(rows);
+    }
+
+    public int size() {
+        return rows.size();
+    }
+
+    /**
+     * The rows passing the filter, in its sort order. Items that aren't free but have
+     * no price never pass a price range, and sort after the priced ones by price.
+     */
+    @NonNull
+    public List<ItemRow> select(@NonNull ItemFilter f) {
+        int n = rows.size();
+        boolean byPriceSort = f.sort == ItemFilter.Sort.PRICE_LOW || f.sort == ItemFilter.Sort.PRICE_HIGH;
+        // only the date order is walked backwards
+        boolean descending = f.sort == ItemFilter.Sort.NEWEST;
+        int[] perm = f.sort == ItemFilter.Sort.PRICE_HIGH ? byPriceDesc
+                : f.sort == ItemFilter.Sort.PRICE_LOW ? byPrice : byCreated;
+        boolean range = f.minCents != null || f.maxCents != null;
+        long min = f.minCents != null ? f.minCents : Long.MIN_VALUE;
+        long max = f.maxCents != null ? f.maxCents : Long.MAX_VALUE;
+
+        List<ItemRow> out = new ArrayList<>(f.filters() ? Math.min(n, 64) : n);
+        int unpriced = 0;
+        for (int k = 0; k < n; k++) {
+            int i = perm[descending ? n - 1 - k : k];
+            if (f.freeOnly && !free[i]) continue;
+            if (!priced[i]) {
+                if (range) continue;
+                if (byPriceSort) {
+                    unpriced++; // added at the end
+                    continue;
+                }
+            }
+            if (price[i] < min || price[i] > max) continue;
+            out.add(rows.get(i));
+        }
+        for (int k = 0; unpriced > 0 && k < n; k++) {
+            int i = perm[descending ? n - 1 - k : k];
+            if (priced[i]) continue;
+            out.add(rows.get(i));
+            unpriced--;
+        }
+        return Collections.unmodifiableList(out);
+    }
+
+    // stable merge sort of row indexes by key (then tieKey, larger first), all on primitives
+    private static int[] sortedBy(long[] key, boolean keyDescending, long[] tieKey) {
+        int n = key.length;
+        int[] a = new int[n];
+        for (int i = 0; i < n; i++) a[i] = i;
+        int[] tmp = new int[n];
+        for (int width = 1; width < n; width *= 2) {
+            for (int lo = 0; lo < n - width; lo += 2 * width) {
+                int mid = lo + width;
+                int hi = Math.min(lo + 2 * width, n);
+                int i = lo, j = mid, k = lo;
+                while (i < mid && j < hi) {
+                    tmp[k++] = inOrder(key, keyDescending, tieKey, a[i], a[j]) ? a[i++] : a[j++];
+                }
+                while (i < mid) tmp[k++] = a[i++];
+                while (j < hi) tmp[k++] = a[j++];
+                System.arraycopy(tmp, lo, a, lo, hi - lo);
+            }
+        }
+        return a;
+    }
+
+    private static boolean inOrder(long[] key, boolean keyDescending, long[] tieKey, int x, int y) {
+        if (key[x] != key[y]) return keyDescending ? key[x] > key[y] : key[x] < key[y];
+        // equal prices: newer first either way
+        return tieKey == null || tieKey[x] >= tieKey[y];
+    }
+}
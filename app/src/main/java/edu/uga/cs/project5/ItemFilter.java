@@ -0,0 +1,30 @@
+package edu.uga.cs.project5;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/** Sort order and price filters for an item list. Immutable. */
+public final class ItemFilter {
+
+    public enum Sort { NEWEST, OLDEST, PRICE_LOW, PRICE_HIGH }
+
+    public static final ItemFilter NONE = new ItemFilter(Sort.NEWEST, null, null, false);
+
+    @NonNull public final Sort sort;
+    @Nullable public final Long minCents;   // inclusive; free items count as 0, unpriced never match
+    @Nullable public final Long maxCents;   // inclusive
+    public final boolean freeOnly;
+
+    public ItemFilter(@NonNull Sort sort, @Nullable Long minCents, @Nullable Long maxCents,
+                      boolean freeOnly) {
+        this.sort = sort;
+        this.minCents = minCents;
+        this.maxCents = maxCents;
+        this.freeOnly = freeOnly;
+    }
+
+    /** True if anything is hidden, i.e. not just a sort. */
+    public boolean filters() {
+        return freeOnly || minCents != null || maxCents != null;
+    }
+}
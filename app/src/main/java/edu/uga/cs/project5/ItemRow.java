@@ -0,0 +1,71 @@
+package edu.uga.cs.project5;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Comparator;
+import java.util.Objects;
+
+/**
+ * Display-ready text for one item card. Built once per data change on the
+ * DataPipeline thread, so binding a row is only setText/setVisibility.
+ */
+public final class ItemRow {
+
+    public static final Comparator<ItemRow> NEWEST_FIRST = (a, b) -> Long.compare(
+            b.item.createdAt != null ? b.item.createdAt : 0L,
+            a.item.createdAt != null ? a.item.createdAt : 0L);
+
+    public final Item item;
+    public final String title;
+    public final String description;
+    public final String meta;     // price • date
+    public final String seller;
+    public final String category;
+    public final boolean showBuy;
+    public final String buyLabel;
+
+    private ItemRow(Item item, String title, String description, String meta, String seller,
+                    String category, boolean showBuy, String buyLabel) {
+        this.item = item;
+        this.title = title;
+        this.description = description;
+        this.meta = meta;
+        this.seller = seller;
+        this.category = category;
+        this.showBuy = showBuy;
+        this.buyLabel = buyLabel;
+    }
+
+    /** @param currentUid the signed-in user; owners don't get a Buy button on their own items */
+    @Nullable
+    public static ItemRow of(@Nullable Item item, @Nullable String currentUid) {
+        if (item == null) return null;
+        String title = item.title != null ? item.title : "—";
+        String description = item.description != null ? item.description.trim() : "";
+
+        long created = item.createdAt != null ? item.createdAt : 0L;
+        String meta = RowFormats.price(item.isFree, item.priceCents) + " • " + RowFormats.dateTime(created);
+
+        String seller = "Sold by: " + (item.createdByName != null ? item.createdByName : "Unknown");
+        String category = "Category: " + (item.category != null ? item.category : "—");
+
+        boolean isOwner = currentUid != null && currentUid.equals(item.authorId);
+        boolean isAvailable = item.available == null || item.available;
+        boolean isFree = item.isFree != null && item.isFree;
+
+        return new ItemRow(item, title, description, meta, seller, category,
+                !isOwner && isAvailable, isFree ? "Accept" : "Buy");
+    }
+
+    public boolean sameContentAs(@NonNull ItemRow o) {
+        return showBuy == o.showBuy
+                && title.equals(o.title)
+                && description.equals(o.description)
+                && meta.equals(o.meta)
+                && seller.equals(o.seller)
+                && category.equals(o.category)
+                && buyLabel.equals(o.buyLabel)
+                && Objects.equals(item.authorId, o.item.authorId);
+    }
+}
@@ -0,0 +1,105 @@
+package edu.uga.cs.project5;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.ServerValue;
+import com.google.firebase.database.Transaction;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The compact copy of an item kept under /category-items/{catId}/{itemId}, so a
+ * category screen renders from one read of the mapping instead of fetching every
+ * /items/{id} node. It is written in the same multi-path update as the item itself.
+ *
+ * /categories/{catId}/itemCount counts the entries; every update that adds or
+ * removes one must also apply {@link #putCountDelta}. The count is only exact on
+ * categories marked itemCountExact: ones created before the counter hold entries it
+ * never saw (increments on them start from 0, so it drifts and can go negative)
+ * until {@link Backfills#categoryCounts} recounts them. Read it with {@link #listedCount}.
+ */
+public final class ItemSummary {
+
+    /** Set on a category once its itemCount matches its entries. */
+    public static final String COUNT_EXACT = "itemCountExact";
+
+    private ItemSummary() { }
+
+    /**
+     * Fields stored in the summary. createdAt may be ServerValue.TIMESTAMP; it resolves
+     * to the same value as the item's own createdAt when written in one update.
+     */
+    @NonNull
+    public static Map<String, Object> toMap(String title, @Nullable String description,
+                                            boolean isFree, @Nullable Long priceCents,
+                                            Object createdAt, @Nullable String createdByName,
+                                            String authorId) {
+        Map<String, Object> m = new HashMap<>();
+        m.put("title", title);
+        if (description != null && !description.isEmpty()) m.put("description", description);
+        m.put("isFree", isFree);
+        if (!isFree && priceCents != null) m.put("priceCents", priceCents);
+        m.put("createdAt", createdAt);
+        if (createdByName != null) m.put("createdByName", createdByName);
+        m.put("authorId", authorId);
+        return m;
+    }
+
+    /**
+     * Brings the item's listing entry in step with an edit of the item, as one
+     * transaction on /category-items/{catId}/{id}. While the item is listed (a summary,
+     * or a legacy `true`) the whole summary is written from it; an entry that is gone
+     * (sold or deleted since the row loaded) stays gone. Needs the item's categoryId.
+     */
+    @NonNull
+    public static Op<DataSnapshot> rewrite(@NonNull Item it) {
+        DatabaseReference entry = FirebaseDatabase.getInstance().getReference("category-items")
+                .child(it.categoryId).child(it.id);
+        Map<String, Object> summary = toMap(it.title, it.description, Boolean.TRUE.equals(it.isFree),
+                it.priceCents, it.createdAt, it.createdByName, it.authorId);
+        return Op.transaction(entry, current -> {
+            // null is often just "not cached yet"; committing it makes the server rerun
+            // this with the real value, and leaves a removed entry removed
+            if (current.getValue() == null) return Transaction.success(current);
+            current.setValue(summary);
+            return Transaction.success(current);
+        });
+    }
+
+    /**
+     * Adds the counter change for a mapping entry being added (+1) or removed (-1)
+     * to a multi-path update. ServerValue.increment is applied atomically on the
+     * server, so concurrent listings and sales can't lose counts.
+     */
+    public static void putCountDelta(@NonNull Map<String, Object> updates,
+                                     @NonNull String categoryId, long delta) {
+        updates.put("/categories/" + categoryId + "/itemCount", ServerValue.increment(delta));
+    }
+
+    /** The category's listed-item count, or null if it isn't known to be exact. */
+    @Nullable
+    public static Long listedCount(@NonNull DataSnapshot category) {
+        if (!Boolean.TRUE.equals(category.child(COUNT_EXACT).getValue())) return null;
+        return SnapshotMappers.asLong(category.child("itemCount").getValue());
+    }
+
+    /** True if the mapping entry carries a summary (older entries are just `true`). */
+    public static boolean hasSummary(@NonNull DataSnapshot entry) {
+        return entry.hasChildren();
+    }
+
+    @Nullable
+    public static Item fromSnapshot(@NonNull DataSnapshot entry, String categoryId) {
+        Item it = SnapshotMappers.item(entry.getKey(), entry.getValue());
+        if (it == null) return null;
+        it.categoryId = categoryId;
+        // only listed (available) items have a mapping entry
+        it.available = true;
+        return it;
+    }
+}
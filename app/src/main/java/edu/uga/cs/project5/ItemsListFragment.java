@@ -2,45 +2,43 @@ package edu.uga.cs.project5;
 
 import android.app.AlertDialog;
 import android.os.Bundle;
-import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
+import android.widget.CheckBox;
+import android.widget.EditText;
+import android.widget.RadioGroup;
 import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
+import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
 import com.google.firebase.auth.FirebaseAuth;
-import com.google.firebase.database.DataSnapshot;
-import com.google.firebase.database.DatabaseError;
-import com.google.firebase.database.DatabaseReference;
-import com.google.firebase.database.FirebaseDatabase;
-import com.google.firebase.database.ServerValue;
-import com.google.firebase.database.ValueEventListener;
-
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+
+import java.util.Locale;
+
 
 public class ItemsListFragment extends Fragment {
 
     private static final String ARG_CAT_ID = "catId";
     private static final String ARG_CAT_NAME = "catName";
 
+    // start loading the next page this many rows before the end
+    private static final int PREFETCH_DISTANCE = 8;
+
     private String categoryId;
     private String categoryName;
 
     private RecyclerView rv;
     private ItemAdapter adapter;
-    private DatabaseReference mappingRef;
-    private ValueEventListener mappingListener;
+    private CategoryItemsViewModel viewModel;
+    private View progress;
 
     public static ItemsListFragment create(String catId, String catName) {
         ItemsListFragment f = new ItemsListFragment();
@@ -57,26 +55,27 @@ public class ItemsListFragment extends Fragment {
                              @Nullable Bundle savedInstanceState) {
         View root = inflater.inflate(R.layout.fragment_items_list, container, false);
         rv = root.findViewById(R.id.rvItems);
+        progress = root.findViewById(R.id.progress);
         adapter = new ItemAdapter();
-        rv.setLayoutManager(new LinearLayoutManager(requireContext()));
+        LinearLayoutManager lm = new LinearLayoutManager(requireContext());
+        rv.setLayoutManager(lm);
         rv.setAdapter(adapter);
+        rv.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                if (dy <= 0 || viewModel == null) return;
+                if (lm.findLastVisibleItemPosition() >= adapter.getItemCount() - PREFETCH_DISTANCE) {
+                    viewModel.loadMore();
+                }
+            }
+        });
 
         if (getArguments() != null) {
             categoryId = getArguments().getString(ARG_CAT_ID);
             categoryName = getArguments().getString(ARG_CAT_NAME);
         }
 
-        adapter.setOnItemBuyListener(item -> {
-            // confirm with user first (show price or "FREE - accept?"), then start transaction
-            String priceText = (item.isFree != null && item.isFree) ? "FREE" :
-                    (item.priceCents != null ? String.format("$%.2f", item.priceCents / 100.0) : "Unknown");
-            new AlertDialog.Builder(requireContext())
-                    .setTitle("Confirm purchase")
-                    .setMessage("Buy \"" + (item.title != null ? item.title : "item") + "\" for " + priceText + "?")
-                    .setPositiveButton("Yes", (d, w) -> startTransaction(item))
-                    .setNegativeButton("Cancel", null)
-                    .show();
-        });
+        adapter.setOnItemBuyListener(item -> confirmPurchase(this, item));
 
         FloatingActionButton fab = root.findViewById(R.id.fabAddItem);
 
@@ -92,226 +91,173 @@ public class ItemsListFragment extends Fragment {
 
             requireActivity().getSupportFragmentManager()
                     .beginTransaction()
-                    .replace(R.id.fragment_container, f)
+                    .hide(this)
+                    .add(R.id.fragment_container, f)
                     .addToBackStack(null)
                     .commit();
         });
 
 
+        root.findViewById(R.id.tvFilter).setOnClickListener(v -> showFilterDialog());
+
         TextView tvTitle = root.findViewById(R.id.tvItemsTitle);
         tvTitle.setText(categoryName != null ? categoryName : "Items");
 
+        // the feed lives in the ViewModel, so rotation re-renders the loaded pages
+        viewModel = new ViewModelProvider(this).get(CategoryItemsViewModel.class);
         if (categoryId != null) {
-            mappingRef = FirebaseDatabase.getInstance().getReference("category-items").child(categoryId);
-            attachMappingListener();
+            viewModel.start(categoryId);
         } else {
-            // fallback: don't crash if categoryId is null — show nothing or handle differently
-            adapter.setItems(new ArrayList<>());
+            // no category: "All items", every category merged newest first
+            tvTitle.setText(categoryName != null ? categoryName : "All items");
+            viewModel.startAll();
         }
+        viewModel.getData().observe(getViewLifecycleOwner(), rows -> {
+            if (rows != null) adapter.setItems(rows);
+        });
+        viewModel.getLoading().observe(getViewLifecycleOwner(), this::setLoading);
+        TextView tvStale = root.findViewById(R.id.tvStale);
+        viewModel.getStaleAge().observe(getViewLifecycleOwner(), age -> {
+            boolean stale = age != null && age > 0;
+            tvStale.setVisibility(stale ? View.VISIBLE : View.GONE);
+            if (stale) {
+                tvStale.setText("Slow connection: some listings are a saved copy from " + Reads.describeAge(age));
+            }
+        });
+        View tvFilterNote = root.findViewById(R.id.tvFilterNote);
+        viewModel.getLoadedOnly().observe(getViewLifecycleOwner(), loadedOnly ->
+                tvFilterNote.setVisibility(Boolean.TRUE.equals(loadedOnly) ? View.VISIBLE : View.GONE));
+        viewModel.getError().observe(getViewLifecycleOwner(), error -> {
+            if (error == null) return;
+            Toast.makeText(requireContext(), "Failed to load items: " + error.getMessage(), Toast.LENGTH_SHORT).show();
+            viewModel.errorShown();
+        });
 
         return root;
     }
 
-    private void startTransaction(Item item) {
+    // sort and price filters apply to the items loaded so far (see CategoryItemsViewModel.setFilter)
+    private void showFilterDialog() {
+        if (viewModel == null) return;
+        View form = LayoutInflater.from(requireContext()).inflate(R.layout.dialog_item_filter, null);
+        RadioGroup rgSort = form.findViewById(R.id.rgSort);
+        CheckBox cbFreeOnly = form.findViewById(R.id.cbFreeOnly);
+        EditText etMin = form.findViewById(R.id.etMinPrice);
+        EditText etMax = form.findViewById(R.id.etMaxPrice);
+
+        ItemFilter current = viewModel.getFilter();
+        rgSort.check(sortButton(current.sort));
+        cbFreeOnly.setChecked(current.freeOnly);
+        if (current.minCents != null) etMin.setText(String.format(Locale.US, "%.2f", current.minCents / 100.0));
+        if (current.maxCents != null) etMax.setText(String.format(Locale.US, "%.2f", current.maxCents / 100.0));
+
+        new AlertDialog.Builder(requireContext())
+                .setTitle("Sort & filter")
+                .setView(form)
+                .setPositiveButton("Apply", (d, w) -> {
+                    Long min, max;
+                    try {
+                        min = parseCents(etMin);
+                        max = parseCents(etMax);
+                    } catch (NumberFormatException e) {
+                        Toast.makeText(requireContext(), "Invalid price", Toast.LENGTH_SHORT).show();
+                        return;
+                    }
+                    ItemFilter.Sort sort = sortFor(rgSort.getCheckedRadioButtonId());
+                    boolean freeOnly = cbFreeOnly.isChecked();
+                    boolean plain = sort == ItemFilter.Sort.NEWEST && !freeOnly && min == null && max == null;
+                    viewModel.setFilter(plain ? ItemFilter.NONE : new ItemFilter(sort, min, max, freeOnly));
+                })
+                .setNeutralButton("Reset", (d, w) -> viewModel.setFilter(ItemFilter.NONE))
+                .setNegativeButton("Cancel", null)
+                .show();
+    }
+
+    @Nullable
+    private static Long parseCents(EditText et) {
+        String text = et.getText() != null ? et.getText().toString().trim() : "";
+        if (text.isEmpty()) return null;
+        double p = Double.parseDouble(text);
+        if (p < 0) throw new NumberFormatException("negative");
+        return Math.round(p * 100.0);
+    }
+
+    private static int sortButton(ItemFilter.Sort sort) {
+        switch (sort) {
+            case OLDEST: return R.id.rbOldest;
+            case PRICE_LOW: return R.id.rbPriceLow;
+            case PRICE_HIGH: return R.id.rbPriceHigh;
+            default: return R.id.rbNewest;
+        }
+    }
+
+    private static ItemFilter.Sort sortFor(int buttonId) {
+        if (buttonId == R.id.rbOldest) return ItemFilter.Sort.OLDEST;
+        if (buttonId == R.id.rbPriceLow) return ItemFilter.Sort.PRICE_LOW;
+        if (buttonId == R.id.rbPriceHigh) return ItemFilter.Sort.PRICE_HIGH;
+        return ItemFilter.Sort.NEWEST;
+    }
+
+    /** Confirms with the user first (price or "FREE"), then starts the transaction. Also used by search. */
+    static void confirmPurchase(@NonNull Fragment host, @NonNull Item item) {
+        String priceText = (item.isFree != null && item.isFree) ? "FREE" :
+                (item.priceCents != null ? String.format("$%.2f", item.priceCents / 100.0) : "Unknown");
+        new AlertDialog.Builder(host.requireContext())
+                .setTitle("Confirm purchase")
+                .setMessage("Buy \"" + (item.title != null ? item.title : "item") + "\" for " + priceText + "?")
+                .setPositiveButton("Yes", (d, w) -> startTransaction(host, item))
+                .setNegativeButton("Cancel", null)
+                .show();
+    }
+
+    private static void startTransaction(Fragment host, Item item) {
         final String uid = FirebaseAuth.getInstance().getUid();
         if (uid == null) {
-            Toast.makeText(requireContext(), "Sign in to buy items", Toast.LENGTH_SHORT).show();
+            Toast.makeText(host.requireContext(), "Sign in to buy items", Toast.LENGTH_SHORT).show();
             return;
         }
         if (item == null || item.id == null) {
-            Toast.makeText(requireContext(), "Invalid item", Toast.LENGTH_SHORT).show();
+            Toast.makeText(host.requireContext(), "Invalid item", Toast.LENGTH_SHORT).show();
             return;
         }
         // can't buy your own item
         if (uid.equals(item.authorId)) {
-            Toast.makeText(requireContext(), "You cannot buy your own item", Toast.LENGTH_SHORT).show();
+            Toast.makeText(host.requireContext(), "You cannot buy your own item", Toast.LENGTH_SHORT).show();
             return;
         }
 
-        DatabaseReference itemsRef = FirebaseDatabase.getInstance().getReference("items").child(item.id);
-        itemsRef.get().addOnCompleteListener(itemCheck -> {
-            if (!itemCheck.isSuccessful()) {
-                Exception ex = itemCheck.getException();
-                Log.e("ItemsListFragment", "Failed reading item: " + (ex != null ? ex.getMessage() : "unknown"), ex);
-                Toast.makeText(requireContext(), "Failed to check item", Toast.LENGTH_SHORT).show();
-                return;
-            }
-            DataSnapshot s = itemCheck.getResult();
-            if (s == null || !s.exists()) {
-                Toast.makeText(requireContext(), "Item no longer exists", Toast.LENGTH_SHORT).show();
-                return;
-            }
-
-            Boolean available = s.child("available").getValue(Boolean.class);
-            String authorId = s.child("authorId").getValue(String.class);
-            String categoryId = s.child("categoryId").getValue(String.class);
-
-            if (authorId != null && uid.equals(authorId)) {
-                Toast.makeText(requireContext(), "You cannot buy your own item", Toast.LENGTH_SHORT).show();
-                return;
-            }
-            if (available != null && !available) {
-                Toast.makeText(requireContext(), "Item is no longer available", Toast.LENGTH_SHORT).show();
-                return;
+        // one transactional claim on the item, then one write of the records
+        Purchases.buy(item.id, uid, new Purchases.Callback() {
+            @Override
+            public void onStarted(@NonNull String txId) {
+                if (host.getContext() == null) return;
+                Toast.makeText(host.getContext(), "Transaction started", Toast.LENGTH_SHORT).show();
             }
 
-            // check for existing pending transactions for this item (if any)
-            DatabaseReference txRef = FirebaseDatabase.getInstance().getReference("transactions");
-            txRef.orderByChild("itemId").equalTo(item.id).get().addOnCompleteListener(txCheck -> {
-                if (!txCheck.isSuccessful()) {
-                    // Log and fallback to reading all transactions (works fine when /transactions is absent or rules block orderBy)
-                    Exception ex = txCheck.getException();
-                    Log.w("ItemsListFragment", "orderBy query failed: " + (ex != null ? ex.getMessage() : "unknown"), ex);
-                    // fallback read
-                    txRef.get().addOnCompleteListener(fb -> {
-                        if (!fb.isSuccessful()) {
-                            Exception e2 = fb.getException();
-                            Log.e("ItemsListFragment", "Fallback tx read failed: " + (e2 != null ? e2.getMessage() : "unknown"), e2);
-                            Toast.makeText(requireContext(), "Failed to check transactions", Toast.LENGTH_LONG).show();
-                            return;
-                        }
-                        DataSnapshot snap = fb.getResult();
-                        boolean hasPending = false;
-                        if (snap != null) {
-                            for (DataSnapshot t : snap.getChildren()) {
-                                String itemIdOnTx = t.child("itemId").getValue(String.class);
-                                String status = t.child("status").getValue(String.class);
-                                if (itemIdOnTx != null && itemIdOnTx.equals(item.id)
-                                        && status != null && status.equalsIgnoreCase("pending")) {
-                                    hasPending = true;
-                                    break;
-                                }
-                            }
-                        }
-                        if (hasPending) {
-                            Toast.makeText(requireContext(), "Item already has a pending transaction", Toast.LENGTH_SHORT).show();
-                            return;
-                        }
-                        // No pending found -> create transaction
-                        createTransactionAtomic(item, authorId, uid, categoryId);
-                    });
-                    return;
-                }
-
-                // query succeeded — check results
-                DataSnapshot txSnap = txCheck.getResult();
-                boolean hasPending = false;
-                if (txSnap != null) {
-                    for (DataSnapshot t : txSnap.getChildren()) {
-                        String status = t.child("status").getValue(String.class);
-                        if (status != null && status.equalsIgnoreCase("pending")) {
-                            hasPending = true;
-                            break;
-                        }
-                    }
-                }
-                if (hasPending) {
-                    Toast.makeText(requireContext(), "Item already has a pending transaction", Toast.LENGTH_SHORT).show();
-                    return;
-                }
-                // create transaction
-                createTransactionAtomic(item, authorId, uid, categoryId);
-            });
-        });
-    }
-
-    private void createTransactionAtomic(Item item, String sellerId, String buyerId, String categoryId) {
-        DatabaseReference root = FirebaseDatabase.getInstance().getReference();
-        String txId = root.child("transactions").push().getKey();
-        if (txId == null) {
-            Toast.makeText(requireContext(), "Failed to create transaction id", Toast.LENGTH_SHORT).show();
-            return;
-        }
-
-        // amount (cents) — may be null for free items
-        Long amountCents = null;
-        if (item.priceCents != null) amountCents = item.priceCents.longValue();
-
-        Map<String, Object> tx = new HashMap<>();
-        tx.put("itemId", item.id);
-        tx.put("buyerId", buyerId);
-        tx.put("sellerId", sellerId);
-        tx.put("status", "pending");
-        if (amountCents != null) tx.put("amountCents", amountCents);
-        tx.put("createdAt", ServerValue.TIMESTAMP);
-        tx.put("itemTitle", item.title);
-
-        Map<String, Object> updates = new HashMap<>();
-        updates.put("/transactions/" + txId, tx);
-        updates.put("/user-transactions/" + buyerId + "/" + txId, true);
-        if (sellerId != null) updates.put("/user-transactions/" + sellerId + "/" + txId, true);
-        // mark item unavailable and attach transaction id
-        updates.put("/items/" + item.id + "/available", false);
-        updates.put("/items/" + item.id + "/transactionId", txId);
-        // remove from category listing so buyers browsing don't see it
-        if (categoryId != null) updates.put("/category-items/" + categoryId + "/" + item.id, null);
-
-        root.updateChildren(updates).addOnCompleteListener(task -> {
-            if (task.isSuccessful()) {
-                Toast.makeText(requireContext(), "Transaction started", Toast.LENGTH_SHORT).show();
-                // Optionally: navigate to PendingTransactionsFragment or refresh UI
-            } else {
-                Exception ex = task.getException();
-                String msg = ex != null ? ex.getMessage() : "";
-                Log.e("ItemsListFragment", "Failed to create transaction: " + msg, ex);
-                Toast.makeText(requireContext(), "Failed to start transaction: " + msg, Toast.LENGTH_LONG).show();
+            @Override
+            public void onRejected(@NonNull String reason) {
+                if (host.getContext() == null) return;
+                Toast.makeText(host.getContext(), reason, Toast.LENGTH_SHORT).show();
             }
-        });
-    }
 
-    private void attachMappingListener() {
-        mappingListener = new ValueEventListener() {
-            @Override public void onDataChange(@NonNull DataSnapshot snapshot) {
-                // snapshot children are itemIds => true
-                List<String> itemIds = new ArrayList<>();
-                for (DataSnapshot s : snapshot.getChildren()) {
-                    itemIds.add(s.getKey());
-                }
-                if (itemIds.isEmpty()) {
-                    adapter.setItems(new ArrayList<>()); // empty list
-                    return;
-                }
-                // fetch items for these ids (batch individually)
-                DatabaseReference itemsRef = FirebaseDatabase.getInstance().getReference("items");
-                // gather results
-                List<Item> items = new ArrayList<>();
-                final int total = itemIds.size();
-                final int[] fetched = {0};
-                for (String itemId : itemIds) {
-                    itemsRef.child(itemId).get().addOnCompleteListener(task -> {
-                        fetched[0]++;
-                        if (task.isSuccessful()) {
-                            DataSnapshot ds = task.getResult();
-                            if (ds != null && ds.exists()) {
-                                Item it = ds.getValue(Item.class);
-                                if (it != null) {
-                                    it.id = ds.getKey();
-                                    items.add(it);
-                                }
-                            }
-                        }
-                        if (fetched[0] == total) {
-                            // all fetched — you might want to sort by createdAt desc
-                            items.sort((a,b) -> Long.compare(b.createdAt, a.createdAt));
-                            adapter.setItems(items);
-                        }
-                    });
-                }
+            @Override
+            public void onError(@NonNull String message) {
+                if (host.getContext() == null) return;
+                Toast.makeText(host.getContext(), "Failed to start transaction: " + message, Toast.LENGTH_LONG).show();
             }
 
-            @Override public void onCancelled(@NonNull DatabaseError error) {
-                Toast.makeText(requireContext(), "Failed to load items: " + error.getMessage(), Toast.LENGTH_SHORT).show();
+            @Override
+            public void onPending() {
+                if (host.getContext() == null) return;
+                Toast.makeText(host.getContext(), "Still waiting on the server; your purchase is pending",
+                        Toast.LENGTH_LONG).show();
             }
-        };
-        mappingRef.addValueEventListener(mappingListener);
-    }
-
-    private void detachMappingListener() {
-        if (mappingListener != null && mappingRef != null) mappingRef.removeEventListener(mappingListener);
+        });
     }
 
-    @Override public void onDestroyView() {
-        super.onDestroyView();
-        detachMappingListener();
+    private void setLoading(boolean loading) {
+        if (progress != null) {
+            progress.setVisibility(loading ? View.VISIBLE : View.GONE);
+        }
     }
 }
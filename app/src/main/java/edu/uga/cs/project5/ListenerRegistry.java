@@ -0,0 +1,347 @@
+package edu.uga.cs.project5;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleEventObserver;
+import androidx.lifecycle.LifecycleOwner;
+
+import com.google.android.gms.tasks.OnCompleteListener;
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.database.ChildEventListener;
+import com.google.firebase.database.Query;
+import com.google.firebase.database.ValueEventListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.WeakHashMap;
+
+/**
+ * Every Firebase listener the app attaches, and the Task callbacks screens wait
+ * on, belong to a {@link Scope}:
+ *  - {@link #of(LifecycleOwner)}: bound to a fragment/activity. When the owner is
+ *    destroyed its listeners are detached and Task results that come in later are
+ *    dropped instead of reaching a detached fragment (requireContext() throws).
+ *  - {@link #scope(String)}: owned by something with its own start/stop, e.g. a
+ *    feed, which closes the scope on stop. A listener still attached then was
+ *    forgotten by the owner; it is detached and reported as a leak.
+ *
+ * Debug builds also remember where each listener was attached and report
+ * duplicates (the same listener class attached twice at once on the same
+ * location) and leaks, with stack traces, in Logcat, the stats overlay and
+ * MainActivity's dumpsys report.
+ *
+ * Main thread only.
+ */
+public final class ListenerRegistry {
+
+    private static final String TAG = "ListenerRegistry";
+    private static final int MAX_REPORTED = 20; // duplicate/leak entries kept for the report
+    private static final int TRACE_FRAMES = 6;
+
+    private static final Map<Lifecycle, Scope> bound = new WeakHashMap<>();
+
+    // debug builds only
+    private static final Map<String, List<Registration>> live = new HashMap<>(); // by duplicate key
+    private static final Map<String, ScopeCounts> counts = new TreeMap<>();        // by scope name
+    private static final Map<String, String> duplicates = new HashMap<>();         // key -> description
+    private static final List<String> leaks = new ArrayList<>();
+    private static int duplicateCount = 0;
+    private static int leakCount = 0;
+    private static int droppedCount = 0;
+
+    private ListenerRegistry() { }
+
+    /** The scope of a fragment or activity; the same one on every call until it is destroyed. */
+    @NonNull
+    public static Scope of(@NonNull LifecycleOwner owner) {
+        Lifecycle lifecycle = owner.getLifecycle();
+        Scope s = bound.get(lifecycle);
+        if (s != null) return s;
+        s = new Scope(owner.getClass().getSimpleName());
+        if (lifecycle.getCurrentState() == Lifecycle.State.DESTROYED) {
+            s.closed = true; // too late; everything through it is dropped
+            return s;
+        }
+        bound.put(lifecycle, s);
+        Scope scope = s;
+        lifecycle.addObserver((LifecycleEventObserver) (source, event) -> {
+            if (event != Lifecycle.Event.ON_DESTROY) return;
+            bound.remove(lifecycle);
+            scope.destroy();
+        });
+        return s;
+    }
+
+    /** A scope for a component with its own lifetime; it calls {@link Scope#close} when it stops. */
+    @NonNull
+    public static Scope scope(@NonNull String name) {
+        return new Scope(name);
+    }
+
+    public static final class Scope {
+        final String name;
+        private final Map<Object, Registration> attached = new IdentityHashMap<>();
+        private boolean closed = false;
+
+        Scope(String name) {
+            this.name = name;
+        }
+
+        /** False once a lifecycle-bound scope's owner has been destroyed. */
+        public boolean isActive() {
+            return !closed;
+        }
+
+        /**
+         * Attaches through DbMetrics; returns the listener actually attached, to pass
+         * to {@link #stop(Query, ValueEventListener)}.
+         */
+        @NonNull
+        public ValueEventListener listen(@NonNull Query q, @NonNull ValueEventListener l) {
+            return listen(q, null, l);
+        }
+
+        /**
+         * {@code variant} tells apart listeners of one class on one location that are
+         * meant to run side by side (e.g. one per loaded page), so they aren't
+         * reported as duplicates.
+         */
+        @NonNull
+        public ValueEventListener listen(@NonNull Query q, @Nullable String variant,
+                                         @NonNull ValueEventListener l) {
+            if (refused(q)) return l;
+            ValueEventListener a = DbMetrics.listen(q, l);
+            register(new Registration(this, q, a, l, "value", variant));
+            return a;
+        }
+
+        @NonNull
+        public ChildEventListener listen(@NonNull Query q, @NonNull ChildEventListener l) {
+            return listen(q, null, l);
+        }
+
+        @NonNull
+        public ChildEventListener listen(@NonNull Query q, @Nullable String variant,
+                                         @NonNull ChildEventListener l) {
+            if (refused(q)) return l;
+            ChildEventListener a = DbMetrics.listen(q, l);
+            register(new Registration(this, q, a, l, "children", variant));
+            return a;
+        }
+
+        public void stop(@NonNull Query q, @NonNull ValueEventListener attached) {
+            unregister(attached);
+            DbMetrics.stop(q, attached);
+        }
+
+        public void stop(@NonNull Query q, @NonNull ChildEventListener attached) {
+            unregister(attached);
+            DbMetrics.stop(q, attached);
+        }
+
+        /** Calls l when the task completes, unless this scope's owner is gone by then. */
+        public <T> void deliver(@NonNull Task<T> task, @NonNull OnCompleteListener<T> l) {
+            task.addOnCompleteListener(t -> {
+                if (closed) {
+                    dropped(this);
+                    return;
+                }
+                l.onComplete(t);
+            });
+        }
+
+        /**
+         * For scopes from {@link #scope(String)}: the owner has stopped, so nothing
+         * should be attached any more. Whatever is, leaked; it is detached here.
+         */
+        public void close() {
+            if (attached.isEmpty()) return;
+            for (Registration r : new ArrayList<>(attached.values())) {
+                leaked(r);
+                r.detach();
+            }
+        }
+
+        // the owner was destroyed: detaching what it left attached is this scope's job, not a leak
+        private void destroy() {
+            closed = true;
+            for (Registration r : new ArrayList<>(attached.values())) {
+                if (DbMetrics.ENABLED) counts(name).autoDetached++;
+                r.detach();
+            }
+        }
+
+        private boolean refused(Query q) {
+            if (!closed) return false;
+            if (DbMetrics.ENABLED) Log.w(TAG, name + " is destroyed; not listening on " + DbMetrics.rawPath(q));
+            return true;
+        }
+
+        private void register(Registration r) {
+            attached.put(r.attached, r);
+            if (!DbMetrics.ENABLED) return;
+            counts(name).attached++;
+            List<Registration> same = live.get(r.key);
+            if (same == null) {
+                same = new ArrayList<>();
+                live.put(r.key, same);
+            }
+            same.add(r);
+            if (same.size() > 1) duplicate(same);
+        }
+
+        private void unregister(Object attachedListener) {
+            Registration r = attached.remove(attachedListener);
+            if (r == null || !DbMetrics.ENABLED) return;
+            List<Registration> same = live.get(r.key);
+            if (same != null) {
+                same.remove(r);
+                if (same.isEmpty()) live.remove(r.key);
+            }
+        }
+    }
+
+    private static final class Registration {
+        final Scope scope;
+        final Query query;
+        final Object attached;
+        final String key;
+        @Nullable final Throwable trace;
+
+        Registration(Scope scope, Query query, Object attached, Object listener, String kind,
+                     @Nullable String variant) {
+            this.scope = scope;
+            this.query = query;
+            this.attached = attached;
+            if (DbMetrics.ENABLED) {
+                String k = DbMetrics.rawPath(query) + " " + kind + " " + listener.getClass().getName();
+                this.key = variant != null ? k + " [" + variant + "]" : k;
+                this.trace = new Throwable("attached by " + scope.name);
+            } else {
+                this.key = "";
+                this.trace = null;
+            }
+        }
+
+        void detach() {
+            if (attached instanceof ValueEventListener) scope.stop(query, (ValueEventListener) attached);
+            else scope.stop(query, (ChildEventListener) attached);
+        }
+    }
+
+    private static final class ScopeCounts {
+        int attached;
+        int autoDetached;
+        int leaked;
+        int dropped;
+    }
+
+    // ---- debug reporting ----
+
+    private static ScopeCounts counts(String scope) {
+        ScopeCounts c = counts.get(scope);
+        if (c == null) {
+            c = new ScopeCounts();
+            counts.put(scope, c);
+        }
+        return c;
+    }
+
+    private static void duplicate(List<Registration> same) {
+        duplicateCount++;
+        Registration first = same.get(0);
+        Registration last = same.get(same.size() - 1);
+        StringBuilder owners = new StringBuilder();
+        for (Registration r : same) {
+            if (owners.length() > 0) owners.append(", ");
+            owners.append(r.scope.name);
+        }
+        String msg = same.size() + "x " + last.key + " (" + owners + ")";
+        Log.w(TAG, "Duplicate listener: " + msg, last.trace);
+        Log.w(TAG, "  first one", first.trace);
+        if (duplicates.size() < MAX_REPORTED || duplicates.containsKey(last.key)) {
+            duplicates.put(last.key, msg + "\n" + frames(first.trace) + "  --\n" + frames(last.trace));
+        }
+    }
+
+    private static void leaked(Registration r) {
+        if (!DbMetrics.ENABLED) return;
+        leakCount++;
+        counts(r.scope.name).leaked++;
+        Log.w(TAG, "Leaked listener: " + r.key + " still attached when " + r.scope.name + " stopped", r.trace);
+        if (leaks.size() < MAX_REPORTED) leaks.add(r.scope.name + " " + r.key + "\n" + frames(r.trace));
+    }
+
+    private static void dropped(Scope s) {
+        if (!DbMetrics.ENABLED) return;
+        droppedCount++;
+        counts(s.name).dropped++;
+        Log.d(TAG, "Dropped a result for destroyed " + s.name);
+    }
+
+    /** One line for the stats overlay. */
+    @NonNull
+    public static String summary() {
+        int n = 0;
+        for (List<Registration> same : live.values()) n += same.size();
+        return String.format(Locale.ROOT, "listeners live=%d duplicates=%d leaked=%d late results dropped=%d",
+                n, duplicateCount, leakCount, droppedCount);
+    }
+
+    /** Live listeners by location, then duplicates and leaks with where they were attached. */
+    @NonNull
+    public static String report() {
+        if (!DbMetrics.ENABLED) return "listener tracking is off in release builds\n";
+        StringBuilder sb = new StringBuilder(summary()).append('\n');
+
+        List<String> keys = new ArrayList<>(live.keySet());
+        Collections.sort(keys);
+        sb.append("live:\n");
+        for (String key : keys) {
+            List<Registration> same = live.get(key);
+            sb.append(String.format(Locale.ROOT, "  %2d  %s  [", same.size(), key));
+            for (int i = 0; i < same.size(); i++) sb.append(i > 0 ? ", " : "").append(same.get(i).scope.name);
+            sb.append("]\n");
+        }
+        sb.append("by scope (attached, auto-detached, leaked, dropped):\n");
+        for (Map.Entry<String, ScopeCounts> e : counts.entrySet()) {
+            ScopeCounts c = e.getValue();
+            sb.append(String.format(Locale.ROOT, "  %s: %d %d %d %d\n",
+                    e.getKey(), c.attached, c.autoDetached, c.leaked, c.dropped));
+        }
+        if (!duplicates.isEmpty()) {
+            sb.append("duplicates:\n");
+            for (String d : duplicates.values()) sb.append("  ").append(d);
+        }
+        if (!leaks.isEmpty()) {
+            sb.append("leaks:\n");
+            for (String l : leaks) sb.append("  ").append(l);
+        }
+        return sb.toString();
+    }
+
+    // the attaching frames, without the registry's and DbMetrics' own
+    private static String frames(@Nullable Throwable trace) {
+        if (trace == null) return "";
+        StringBuilder sb = new StringBuilder();
+        int n = 0;
+        for (StackTraceElement f : trace.getStackTrace()) {
+            String cls = f.getClassName();
+            if (cls.startsWith(ListenerRegistry.class.getName()) || cls.startsWith(DbMetrics.class.getName())) {
+                continue;
+            }
+            sb.append("    at ").append(f).append('\n');
+            if (++n == TRACE_FRAMES) break;
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,261 @@
+package edu.uga.cs.project5;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.google.firebase.database.ChildEventListener;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.Query;
+import com.google.firebase.database.ValueEventListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keyword search over every listing still for sale. It indexes the /category-items
+ * summaries, not /items: those only hold listed items, in the compact form the
+ * category lists already use, so sold listings and transaction fields are never
+ * downloaded. Categories come and go through a /categories child listener and
+ * each one gets its own child listener, which keeps a {@link SearchIndex} up to
+ * date one entry at a time on the DataPipeline thread; queries run there too and
+ * only the matching rows are posted to the main thread. The current query is
+ * re-run (once per burst) whenever the index changes, so results stay live while
+ * the screen is open.
+ */
+public class ListingSearch {
+
+    public interface Listener {
+        /** Main thread. */
+        void onResults(@NonNull String query, @NonNull List<ItemRow> rows);
+        /** Main thread: the first load of every category's listings is indexed. */
+        void onIndexed(int listings);
+        void onError(@NonNull DatabaseError error);
+    }
+
+    private static final String NAME = "search";
+    public static final String STAGE_QUERY = "query";
+    private static final int MAX_RESULTS = 100;
+
+    private final DatabaseReference categoriesRef = FirebaseDatabase.getInstance().getReference("categories");
+    private final DatabaseReference mappingRef = FirebaseDatabase.getInstance().getReference("category-items");
+    @Nullable private final String currentUid;
+    private final Listener listener;
+
+    // pipeline thread only
+    private final SearchIndex index = new SearchIndex();
+    private final Map<String, ItemRow> rows = new HashMap<>();
+    private String text = "";
+    private boolean rerunQueued = false;
+
+    // bumped on start/stop and on every new query, so stale work is dropped
+    private final AtomicInteger generation = new AtomicInteger();
+    private final AtomicInteger querySeq = new AtomicInteger();
+    private final ListenerRegistry.Scope listeners = ListenerRegistry.scope("ListingSearch");
+
+    // main thread only
+    private ChildEventListener categoriesListener;
+    private final Map<String, ChildEventListener> byCategory = new HashMap<>();
+    private boolean categoriesLoaded = false;
+    private int loading = 0; // categories whose first load hasn't arrived yet
+    private boolean indexed = false;
+
+    public ListingSearch(@Nullable String currentUid, @NonNull Listener listener) {
+        this.currentUid = currentUid;
+        this.listener = listener;
+    }
+
+    public void start() {
+        if (categoriesListener != null) return;
+        generation.incrementAndGet();
+        categoriesListener = listeners.listen(categoriesRef, new ChildEventListener() {
+            @Override
+            public void onChildAdded(@NonNull DataSnapshot snapshot, @Nullable String previousChildName) {
+                String catId = snapshot.getKey();
+                if (catId != null) watch(catId);
+            }
+
+            @Override
+            public void onChildChanged(@NonNull DataSnapshot snapshot, @Nullable String previousChildName) { }
+
+            @Override
+            public void onChildRemoved(@NonNull DataSnapshot snapshot) {
+                // only empty categories get deleted, so there's nothing to unindex
+                String catId = snapshot.getKey();
+                ChildEventListener l = catId != null ? byCategory.remove(catId) : null;
+                if (l != null) listeners.stop(mappingRef.child(catId), l);
+            }
+
+            @Override
+            public void onChildMoved(@NonNull DataSnapshot snapshot, @Nullable String previousChildName) { }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                listener.onError(error);
+            }
+        });
+
+        // fires after the initial children
+        DbMetrics.once(categoriesRef, new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                categoriesLoaded = true;
+                maybeIndexed();
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) { }
+        });
+    }
+
+    public void stop() {
+        if (categoriesListener == null) return;
+        listeners.stop(categoriesRef, categoriesListener);
+        for (Map.Entry<String, ChildEventListener> e : byCategory.entrySet()) {
+            listeners.stop(mappingRef.child(e.getKey()), e.getValue());
+        }
+        listeners.close();
+        categoriesListener = null;
+        byCategory.clear();
+        categoriesLoaded = false;
+        loading = 0;
+        indexed = false;
+        generation.incrementAndGet();
+        DataPipeline.execute(() -> {
+            index.clear();
+            rows.clear();
+            rerunQueued = false;
+        });
+    }
+
+    /** Main thread: runs the query on the pipeline; results arrive via the listener. */
+    public void search(@NonNull String q) {
+        int seq = querySeq.incrementAndGet();
+        onPipeline(() -> {
+            // typing fast queues several; only the newest is worth running
+            if (seq != querySeq.get()) return;
+            text = q;
+            run();
+        });
+    }
+
+    private void watch(String catId) {
+        if (byCategory.containsKey(catId)) return;
+        Query q = mappingRef.child(catId);
+        byCategory.put(catId, listeners.listen(q, catId, new ChildEventListener() {
+            @Override
+            public void onChildAdded(@NonNull DataSnapshot snapshot, @Nullable String previousChildName) {
+                apply(catId, snapshot);
+            }
+
+            @Override
+            public void onChildChanged(@NonNull DataSnapshot snapshot, @Nullable String previousChildName) {
+                apply(catId, snapshot);
+            }
+
+            @Override
+            public void onChildRemoved(@NonNull DataSnapshot snapshot) {
+                String key = snapshot.getKey();
+                if (key != null) onPipeline(() -> unindex(key));
+            }
+
+            @Override
+            public void onChildMoved(@NonNull DataSnapshot snapshot, @Nullable String previousChildName) { }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                listener.onError(error);
+            }
+        }));
+        if (indexed) return;
+        loading++;
+        // shares the listener's sync, so this costs no extra download
+        DbMetrics.once(q, new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                loading--;
+                maybeIndexed();
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                loading--;
+                maybeIndexed();
+            }
+        });
+    }
+
+    private void maybeIndexed() {
+        if (indexed || !categoriesLoaded || loading > 0) return;
+        indexed = true;
+        onPipeline(() -> {
+            int n = index.size();
+            deliver(() -> listener.onIndexed(n));
+        });
+    }
+
+    private void apply(String catId, DataSnapshot snapshot) {
+        String key = snapshot.getKey();
+        if (key == null) return;
+        onPipeline(() -> {
+            // legacy `true` entries carry nothing to search on; Backfills rewrites them
+            Item item = ItemSummary.hasSummary(snapshot) ? ItemSummary.fromSnapshot(snapshot, catId) : null;
+            ItemRow row = item != null ? ItemRow.of(item, currentUid) : null;
+            if (row == null) {
+                unindex(key);
+                return;
+            }
+            index.put(key, item.title, item.description, item.createdAt != null ? item.createdAt : 0L);
+            rows.put(key, row);
+            queueRerun();
+        });
+    }
+
+    private void unindex(String key) {
+        index.remove(key);
+        if (rows.remove(key) != null) queueRerun();
+    }
+
+    // coalesces a burst of changes (e.g. the initial load) into one re-run
+    private void queueRerun() {
+        if (rerunQueued || text.isEmpty()) return;
+        rerunQueued = true;
+        onPipeline(() -> {
+            rerunQueued = false;
+            run();
+        });
+    }
+
+    private void run() {
+        String q = text;
+        long t0 = System.nanoTime();
+        List<ItemRow> out = new ArrayList<>();
+        for (String id : index.search(q, MAX_RESULTS)) {
+            ItemRow row = rows.get(id);
+            if (row != null) out.add(row);
+        }
+        DataPipeline.record(NAME, STAGE_QUERY, System.nanoTime() - t0);
+        List<ItemRow> result = Collections.unmodifiableList(out);
+        deliver(() -> listener.onResults(q, result));
+    }
+
+    private void onPipeline(Runnable task) {
+        int gen = generation.get();
+        DataPipeline.execute(() -> {
+            if (gen == generation.get()) task.run();
+        });
+    }
+
+    private void deliver(Runnable onMain) {
+        int gen = generation.get();
+        DataPipeline.postToMain(() -> {
+            if (gen == generation.get()) onMain.run();
+        });
+    }
+}
@@ -0,0 +1,118 @@
+package edu.uga.cs.project5;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.google.firebase.database.ChildEventListener;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.Query;
+import com.google.firebase.database.ValueEventListener;
+
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Child-level view of a query. Each added/changed/removed child is parsed and
+ * applied to the sorted model on the DataPipeline thread, and the sorted list is
+ * published once per burst of events; handed to a ListAdapter, only the rows
+ * that changed are rebound.
+ */
+public class LiveList<T> extends PipelineFeed<T> {
+
+    private final Query query;
+    private final SnapshotParser<T> parser;
+
+    // pipeline thread: every child currently in the query, including ones the parser left out
+    private final Set<String> present = new HashSet<>();
+    private ChildEventListener childListener;
+
+    public LiveList(@NonNull String name,
+                    @NonNull Query query,
+                    @NonNull SnapshotParser<T> parser,
+                    @NonNull Comparator<T> order,
+                    @NonNull Listener<T> listener) {
+        super(name, order, listener);
+        this.query = query;
+        this.parser = parser;
+    }
+
+    @Override
+    protected void onStart() {
+        childListener = new ChildEventListener() {
+            @Override
+            public void onChildAdded(@NonNull DataSnapshot snapshot, @Nullable String previousChildName) {
+                String key = snapshot.getKey();
+                if (key == null) return;
+                onPipeline(() -> {
+                    present.add(key);
+                    applySnapshot(key, snapshot, parser);
+                });
+            }
+
+            @Override
+            public void onChildChanged(@NonNull DataSnapshot snapshot, @Nullable String previousChildName) {
+                String key = snapshot.getKey();
+                if (key == null) return;
+                onPipeline(() -> applySnapshot(key, snapshot, parser));
+            }
+
+            @Override
+            public void onChildRemoved(@NonNull DataSnapshot snapshot) {
+                String key = snapshot.getKey();
+                if (key == null) return;
+                onPipeline(() -> {
+                    present.remove(key);
+                    removeKey(key);
+                });
+            }
+
+            @Override
+            public void onChildMoved(@NonNull DataSnapshot snapshot, @Nullable String previousChildName) {
+                // order is kept locally by the comparator, not by the query
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                onError(error);
+            }
+        };
+        childListener = listeners.listen(query, childListener);
+
+        // fires after the initial children, so an empty query still publishes once;
+        // anything seeded from the cache that didn't come back is gone
+        DbMetrics.once(query, new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                onPipeline(() -> settleSeeds(null));
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) { }
+        });
+    }
+
+    @Override
+    protected void onStop() {
+        if (childListener != null) {
+            listeners.stop(query, childListener);
+            childListener = null;
+        }
+    }
+
+    @Override
+    protected void onReset() {
+        present.clear();
+    }
+
+    /**
+     * Parses and applies a snapshot for a child that is still in the query, e.g. one
+     * the parser had to resolve with a separate read. Ignored once the child has gone.
+     */
+    public void putSnapshot(@NonNull String key, @NonNull DataSnapshot snapshot) {
+        onPipeline(() -> {
+            if (present.contains(key)) applySnapshot(key, snapshot, parser);
+        });
+    }
+}
@@ -2,25 +2,51 @@ package edu.uga.cs.project5;
 
 import android.content.Intent;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import android.view.Menu;
 import android.view.MenuItem;
+import android.view.View;
 import android.widget.TextView;
+import android.widget.Toast;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.fragment.app.Fragment;
 import androidx.fragment.app.FragmentManager;
+import androidx.fragment.app.FragmentTransaction;
 
 import com.google.android.material.bottomnavigation.BottomNavigationView;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
 
+import java.io.FileDescriptor;
+import java.io.PrintWriter;
+import java.util.List;
+
 public class MainActivity extends AppCompatActivity {
 
     private FirebaseAuth mAuth;
     private BottomNavigationView bottomNav;
     private FragmentManager fm;
     private static final String SELECTED_TAB_KEY = "selected_tab";
+    private static final int[] TAB_IDS = {
+            R.id.nav_browse, R.id.nav_myitems, R.id.nav_Ptx, R.id.nav_Ctx
+    };
+    private static final long STATS_REFRESH_MS = 1000;
+    private static final int STATS_LINES = 8;
+
+    // debug builds: database stats overlay
+    private TextView tvDbStats;
+    private final Handler statsHandler = new Handler(Looper.getMainLooper());
+    private final Runnable refreshStats = new Runnable() {
+        @Override
+        public void run() {
+            tvDbStats.setText(ListenerRegistry.summary() + "\n" + DbMetrics.summary(STATS_LINES));
+            statsHandler.postDelayed(this, STATS_REFRESH_MS);
+        }
+    };
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -31,19 +57,45 @@ public class MainActivity extends AppCompatActivity {
         fm = getSupportFragmentManager();
 
         bottomNav = findViewById(R.id.bottom_navigation);
+
+        // database operations are attributed to the screen on top
+        fm.addOnBackStackChangedListener(() -> trackScreen(topFragment()));
+
+        // Restore selected tab (or default to browse). After a configuration change the
+        // fragment manager has already restored every tab and which one is shown, so the
+        // selection is restored before the listener is attached
+        if (savedInstanceState != null) {
+            bottomNav.setSelectedItemId(savedInstanceState.getInt(SELECTED_TAB_KEY, R.id.nav_browse));
+        } else {
+            switchFragment(R.id.nav_browse);
+        }
         bottomNav.setOnItemSelectedListener(item -> {
             switchFragment(item.getItemId());
             return true;
         });
 
-        // Restore selected tab (or default to browse)
-        int selected = R.id.nav_browse;
-        if (savedInstanceState != null) selected = savedInstanceState.getInt(SELECTED_TAB_KEY, R.id.nav_browse);
-        bottomNav.setSelectedItemId(selected); // triggers listener -> fragment swap
+        // keeps the user's display name cached for posting items and categories
+        if (mAuth.getUid() != null) ProfileCache.get(this).watch(mAuth.getUid());
 
         TextView tvTitle = findViewById(R.id.tvTitle);
         tvTitle.setOnClickListener(v -> logout());
 
+        tvDbStats = findViewById(R.id.tvDbStats);
+        tvDbStats.setOnClickListener(v -> {
+            DbMetrics.logReport();
+            Toast.makeText(this, "Full report written to Logcat (DbMetrics)", Toast.LENGTH_SHORT).show();
+        });
+        tvDbStats.setOnLongClickListener(v -> {
+            DbMetrics.reset();
+            tvDbStats.setText(ListenerRegistry.summary() + "\n" + DbMetrics.summary(STATS_LINES));
+            return true;
+        });
+    }
+
+    @Override
+    protected void onDestroy() {
+        statsHandler.removeCallbacks(refreshStats);
+        super.onDestroy();
     }
 
     @Override
@@ -58,45 +110,75 @@ public class MainActivity extends AppCompatActivity {
         }
     }
 
+    /**
+     * Tabs are added once and then only shown/hidden, so their views, adapters and
+     * ViewModels stay alive across tab switches. Screens opened from a tab (category
+     * items, add item) sit on the back stack and are popped when switching tabs.
+     */
     private void switchFragment(int itemId) {
-        Fragment current = fm.findFragmentById(R.id.fragment_container);
-        Fragment to = null;
-        String tag = null;
-
-        if (itemId == R.id.nav_browse) {
-            tag = "browse";
-            to = fm.findFragmentByTag(tag);
-            if (to == null) to = new CategoryListFragment(); // implement later
-        } else if (itemId == R.id.nav_myitems) {
-            tag = "myitems";
-            to = fm.findFragmentByTag(tag);
-            if (to == null) to = new MyItemsFragment(); // implement later
-        } else if (itemId == R.id.nav_Ptx) {
-            tag = "pending";
-            to = fm.findFragmentByTag(tag);
-            if (to == null) to = new PendingTransactionsFragment(); // implement later
-        }else if (itemId == R.id.nav_Ctx) {
-            tag = "completed";
-            to = fm.findFragmentByTag(tag);
-            if (to == null) to = new CompletedTransactionsFragment(); // implement later
+        String tag = tabTag(itemId);
+        if (tag == null) return;
+
+        if (fm.getBackStackEntryCount() > 0) {
+            fm.popBackStackImmediate(null, FragmentManager.POP_BACK_STACK_INCLUSIVE);
+        }
+
+        Fragment to = fm.findFragmentByTag(tag);
+        FragmentTransaction tx = fm.beginTransaction().setReorderingAllowed(true);
+        for (int id : TAB_IDS) {
+            Fragment f = fm.findFragmentByTag(tabTag(id));
+            if (f != null && f != to && !f.isHidden()) tx.hide(f);
+        }
+        if (to == null) {
+            to = newTab(itemId);
+            tx.add(R.id.fragment_container, to, tag);
+        } else {
+            tx.show(to);
         }
+        tx.commit();
+        trackScreen(to);
+    }
+
+    private static void trackScreen(@Nullable Fragment f) {
+        if (f != null) DbMetrics.setScreen(f.getClass().getSimpleName());
+    }
 
-        if (to != null && to != current) {
-            fm.beginTransaction()
-                    .replace(R.id.fragment_container, to, tag)
-                    .commit();
+    // the last shown fragment: the open screen if one is on the back stack, else the tab
+    @Nullable
+    private Fragment topFragment() {
+        List<Fragment> all = fm.getFragments();
+        for (int i = all.size() - 1; i >= 0; i--) {
+            if (!all.get(i).isHidden()) return all.get(i);
         }
+        return null;
+    }
+
+    private static String tabTag(int itemId) {
+        if (itemId == R.id.nav_browse) return "browse";
+        if (itemId == R.id.nav_myitems) return "myitems";
+        if (itemId == R.id.nav_Ptx) return "pending";
+        if (itemId == R.id.nav_Ctx) return "completed";
+        return null;
+    }
+
+    private static Fragment newTab(int itemId) {
+        if (itemId == R.id.nav_myitems) return new MyItemsFragment();
+        if (itemId == R.id.nav_Ptx) return new PendingTransactionsFragment();
+        if (itemId == R.id.nav_Ctx) return new CompletedTransactionsFragment();
+        return new CategoryListFragment();
     }
 
     @Override
     public boolean onCreateOptionsMenu(Menu menu) {
         getMenuInflater().inflate(R.menu.main_menu, menu); // sign out menu
+        menu.findItem(R.id.action_db_stats).setVisible(DbMetrics.ENABLED);
         return true;
     }
 
     @Override
     public boolean onOptionsItemSelected(@NonNull MenuItem item) {
         if (item.getItemId() == R.id.action_signout) {
+            ProfileCache.get(this).unwatch();
             mAuth.signOut();
             // Return to AuthActivity
             Intent i = new Intent(this, AuthActivity.class);
@@ -104,9 +186,40 @@ public class MainActivity extends AppCompatActivity {
             finish();
             return true;
         }
+        if (item.getItemId() == R.id.action_db_stats) {
+            toggleDbStats();
+            return true;
+        }
         return super.onOptionsItemSelected(item);
     }
 
+    // tap the overlay to log the full report, long-press to reset the counters
+    private void toggleDbStats() {
+        if (tvDbStats.getVisibility() == View.VISIBLE) {
+            tvDbStats.setVisibility(View.GONE);
+            statsHandler.removeCallbacks(refreshStats);
+        } else {
+            tvDbStats.setVisibility(View.VISIBLE);
+            refreshStats.run();
+        }
+    }
+
+    /** adb shell dumpsys activity edu.uga.cs.project5/.MainActivity (debug builds). */
+    @Override
+    public void dump(@NonNull String prefix, @Nullable FileDescriptor fd, @NonNull PrintWriter writer,
+                     @Nullable String[] args) {
+        super.dump(prefix, fd, writer, args);
+        if (!DbMetrics.ENABLED) return;
+        writer.println(prefix + "Database operations (heaviest first):");
+        for (String line : DbMetrics.report().split("\n")) writer.println(prefix + "  " + line);
+        writer.println(prefix + "Listeners:");
+        for (String line : ListenerRegistry.report().split("\\n")) writer.println(prefix + "  " + line);
+        writer.println(prefix + "Pipeline stages:");
+        for (String line : DataPipeline.report().split("\n")) writer.println(prefix + "  " + line);
+        writer.println(prefix + "Reads (deadlines, saved copies):");
+        for (String line : Reads.report().split("\n")) writer.println(prefix + "  " + line);
+    }
+
     @Override
     protected void onSaveInstanceState(@NonNull Bundle outState) {
         super.onSaveInstanceState(outState);
@@ -114,6 +227,7 @@ public class MainActivity extends AppCompatActivity {
     }
 
     private void logout() {
+        ProfileCache.get(this).unwatch();
         FirebaseAuth.getInstance().signOut();
         Intent intent = new Intent(MainActivity.this, AuthActivity.class);
         intent.addFlags(Intent.FLAG_ACTIVITY_CLEAR_TOP | Intent.FLAG_ACTIVITY_NEW_TASK);
@@ -0,0 +1,259 @@
+package edu.uga.cs.project5;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.Query;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Newest listings across every category ("All items"), without reading /items.
+ * Each category's /category-items node is already ordered by createdAt, so it is
+ * read newest-first a few entries at a time and the streams are k-way merged: a
+ * heap holds each category's newest unread entry, and a page is the next
+ * pageSize pops. A category is only read further when its buffer runs dry, so
+ * the data read stays close to what is shown. Categories whose exact itemCount
+ * is 0 are never read.
+ *
+ * Pages are one-shot reads rather than listeners (one live window per category
+ * would not scale); an item sold since is refused by Purchases when bought.
+ * They go through Reads.LISTING, so one slow category can't hold up the page:
+ * it falls back to the copy read earlier in the session, and the StaleListener
+ * hears how old the oldest such copy on screen is. Those copies are in memory
+ * only, so after a cold start a failed first page keeps the CatalogCache rows
+ * seeded from disk instead of settling them away.
+ */
+public class MergedItemsFeed extends PipelineFeed<ItemRow> {
+
+    private final DatabaseReference categoriesRef;
+    private final DatabaseReference mappingRef;
+    private final int pageSize;
+    private final int sourcePageSize;
+    @Nullable private final String uid;
+    @Nullable private PagedFeed.PageListener pageListener;
+    @Nullable private StaleListener staleListener;
+
+    public interface StaleListener {
+        /** Main thread, after each page: age of the oldest saved copy shown, 0 if all is live. */
+        void onStale(long ageMs);
+    }
+
+    // main thread, mirrored from the pipeline when a page completes
+    private boolean loading = false;
+    private boolean exhausted = false;
+
+    // pipeline thread
+    private final List<Source> sources = new ArrayList<>();
+    private final PriorityQueue<Source> heads = new PriorityQueue<>(
+            (a, b) -> ItemRow.NEWEST_FIRST.compare(a.buffer.peekFirst(), b.buffer.peekFirst()));
+    private int wanted = 0;      // rows still owed to the page being built
+    private int reading = 0;     // source reads in flight
+    private boolean firstPage = true;
+    private long staleMs = 0;    // oldest fallback copy used since start
+    private boolean readFailed = false; // a read had no server answer and no copy
+
+    /** One category's entries, newest first, read sourcePageSize at a time. */
+    private final class Source {
+        final String categoryId;
+        final ArrayDeque<ItemRow> buffer = new ArrayDeque<>();
+        boolean done = false;
+        boolean started = false;
+        @Nullable Long cursorValue;
+        @Nullable String cursorKey;
+
+        Source(String categoryId) {
+            this.categoryId = categoryId;
+        }
+    }
+
+    public MergedItemsFeed(@NonNull DatabaseReference root, int pageSize, @Nullable String uid,
+                           @NonNull Listener<ItemRow> listener) {
+        super("all-items", ItemRow.NEWEST_FIRST, listener);
+        this.categoriesRef = root.child("categories");
+        this.mappingRef = root.child("category-items");
+        this.pageSize = pageSize;
+        // per-category reads can be smaller; most pages draw from a handful of categories
+        this.sourcePageSize = Math.max(5, pageSize / 2);
+        this.uid = uid;
+    }
+
+    public void setPageListener(@Nullable PagedFeed.PageListener l) {
+        this.pageListener = l;
+    }
+
+    public void setStaleListener(@Nullable StaleListener l) {
+        this.staleListener = l;
+    }
+
+    @Override
+    protected void onStart() {
+        loading = true;
+        exhausted = false;
+        // a stop and start before this returns would add every source twice
+        int run = currentRun();
+        Reads.get(categoriesRef, Reads.LISTING).task().addOnCompleteListener(task -> {
+            if (!isCurrent(run)) return;
+            if (!task.isSuccessful() || task.getResult().snapshot == null) {
+                loading = false;
+                onError(DatabaseError.fromException(task.getException() != null
+                        ? task.getException() : new IllegalStateException("categories")));
+                return;
+            }
+            Reads.Result result = task.getResult();
+            DataSnapshot cats = result.snapshot;
+            List<String> ids = new ArrayList<>();
+            for (DataSnapshot c : cats.getChildren()) {
+                Long count = ItemSummary.listedCount(c);
+                // not recounted yet (older category) means unknown, so it is read anyway
+                if (c.getKey() != null && (count == null || count > 0)) ids.add(c.getKey());
+            }
+            onPipeline(() -> {
+                if (result.stale) staleMs = Math.max(staleMs, result.ageMs);
+                for (String id : ids) sources.add(new Source(id));
+                wanted = pageSize;
+                fill();
+            });
+        });
+    }
+
+    @Override
+    protected void onStop() {
+        loading = false;
+    }
+
+    @Override
+    protected void onReset() {
+        sources.clear();
+        heads.clear();
+        wanted = 0;
+        reading = 0;
+        firstPage = true;
+        staleMs = 0;
+        readFailed = false;
+    }
+
+    /** Main thread: merge the next page. No-op while a page is loading or at the end. */
+    public void loadMore() {
+        if (!isStarted() || loading || exhausted) return;
+        loading = true;
+        onPipeline(() -> {
+            wanted = pageSize;
+            fill();
+        });
+    }
+
+    public boolean hasMore() {
+        return !exhausted;
+    }
+
+    public boolean isLoading() {
+        return loading;
+    }
+
+    // pipeline thread: pops rows until the page is full, reading sources as they run dry
+    private void fill() {
+        if (reading > 0) return;
+        // a dry source might hold the next-newest entry, so it must be read before popping
+        for (Source s : sources) {
+            if (s.buffer.isEmpty() && !s.done) read(s);
+        }
+        if (reading > 0) return;
+
+        while (wanted > 0) {
+            Source top = heads.poll();
+            if (top == null) break;
+            ItemRow row = top.buffer.pollFirst();
+            putValue(row.item.id, row);
+            wanted--;
+            if (!top.buffer.isEmpty()) {
+                heads.add(top);
+            } else if (!top.done) {
+                read(top);
+                return; // continue once it's in
+            }
+        }
+        pageDone(heads.isEmpty());
+    }
+
+    private void pageDone(boolean noMore) {
+        wanted = 0;
+        if (firstPage) {
+            firstPage = false;
+            // the seeds may be all there is of the categories that failed
+            if (readFailed) markChanged();
+            else settleSeeds(null);
+        } else {
+            markChanged();
+        }
+        long stale = staleMs;
+        deliver(() -> {
+            loading = false;
+            exhausted = noMore;
+            if (pageListener != null) pageListener.onPageLoaded(!noMore);
+            if (staleListener != null) staleListener.onStale(stale);
+        });
+    }
+
+    // pipeline thread: starts the next read of one source
+    private void read(Source s) {
+        reading++;
+        Query q = mappingRef.child(s.categoryId).orderByChild("createdAt");
+        if (s.started) {
+            // entries without createdAt (legacy ones) sort first, as null
+            q = (s.cursorValue != null)
+                    ? q.endBefore((double) s.cursorValue, s.cursorKey)
+                    : q.endBefore((String) null, s.cursorKey);
+        }
+        Query query = q.limitToLast(sourcePageSize);
+        // the path alone doesn't say which page; the cursor does
+        String page = "all-items " + s.categoryId + (s.started ? " before " + s.cursorKey : " head");
+        s.started = true;
+        DataPipeline.postToMain(() -> Reads.get(query, page, Reads.LISTING).task()
+                .addOnCompleteListener(task -> onPipeline(() -> {
+            if (!sources.contains(s)) return; // from before a restart
+            reading--;
+            if (!task.isSuccessful() || task.getResult().snapshot == null) {
+                // leave this category out rather than stall the whole feed
+                s.done = true;
+                readFailed = true;
+            } else {
+                Reads.Result result = task.getResult();
+                if (result.stale) staleMs = Math.max(staleMs, result.ageMs);
+                apply(s, result.snapshot);
+            }
+            if (!s.buffer.isEmpty()) heads.add(s);
+            fill();
+        })));
+    }
+
+    // ascending by createdAt as delivered; the buffer wants newest first
+    private void apply(Source s, DataSnapshot page) {
+        List<ItemRow> rows = new ArrayList<>();
+        boolean first = true;
+        int count = 0;
+        for (DataSnapshot entry : page.getChildren()) {
+            count++;
+            if (first) {
+                s.cursorValue = SnapshotMappers.asLong(entry.child("createdAt").getValue());
+                s.cursorKey = entry.getKey();
+                first = false;
+            }
+            // legacy entries (itemId => true) have no summary to show or order by until
+            // Backfills.listingSummaries writes one
+            if (!ItemSummary.hasSummary(entry)) continue;
+            ItemRow row = ItemRow.of(ItemSummary.fromSnapshot(entry, s.categoryId), uid);
+            if (row != null) rows.add(row);
+        }
+        Collections.reverse(rows);
+        s.buffer.addAll(rows);
+        if (count < sourcePageSize) s.done = true;
+    }
+}
@@ -14,20 +14,18 @@ import android.widget.Toast;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
+import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.google.firebase.auth.FirebaseAuth;
-import com.google.firebase.database.DataSnapshot;
-import com.google.firebase.database.DatabaseError;
-import com.google.firebase.database.DatabaseReference;
 import com.google.firebase.database.FirebaseDatabase;
-import com.google.firebase.database.ValueEventListener;
+import com.google.firebase.database.Transaction;
 
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Lists the current user's items and allows edit/delete (with the rules you specified).
@@ -38,8 +36,7 @@ public class MyItemsFragment extends Fragment {
     private ItemAdapter adapter;
     private ProgressBar progress;
 
-    private DatabaseReference itemsRef;
-    private ValueEventListener itemsListener;
+    private MyItemsViewModel viewModel;
 
     public MyItemsFragment() { }
 
@@ -69,8 +66,7 @@ public class MyItemsFragment extends Fragment {
             return root;
         }
 
-        itemsRef = FirebaseDatabase.getInstance().getReference("items");
-        attachItemsListener(uid);
+        attachItemsListener();
 
         return root;
     }
@@ -81,46 +77,23 @@ public class MyItemsFragment extends Fragment {
         }
     }
 
-    private void attachItemsListener(String uid) {
-        setLoading(true);
-        itemsListener = new ValueEventListener() {
-            @Override
-            public void onDataChange(@NonNull DataSnapshot snapshot) {
-                List<Item> mine = new ArrayList<>();
-                for (DataSnapshot s : snapshot.getChildren()) {
-                    Item it = s.getValue(Item.class);
-                    if (it != null && uid.equals(it.authorId)) {
-                        it.id = s.getKey();
-                        mine.add(it);
-                    }
-                }
-                mine.sort((a, b) -> Long.compare(b.createdAt != null ? b.createdAt : 0L,
-                        a.createdAt != null ? a.createdAt : 0L));
-                adapter.setItems(mine);
-                setLoading(false);
-            }
-
-            @Override
-            public void onCancelled(@NonNull DatabaseError error) {
-                setLoading(false);
-                Toast.makeText(requireContext(),
-                        "Failed to load your items: " + error.getMessage(),
-                        Toast.LENGTH_SHORT).show();
-            }
-        };
-        itemsRef.addValueEventListener(itemsListener);
-    }
-
-    private void detachItemsListener() {
-        if (itemsRef != null && itemsListener != null) {
-            itemsRef.removeEventListener(itemsListener);
-        }
-    }
-
-    @Override
-    public void onDestroyView() {
-        super.onDestroyView();
-        detachItemsListener();
+    private void attachItemsListener() {
+        // the feed lives in the ViewModel; a new view just re-renders its last list
+        viewModel = new ViewModelProvider(this).get(MyItemsViewModel.class);
+        if (viewModel.getData().getValue() == null) setLoading(true);
+        viewModel.getData().observe(getViewLifecycleOwner(), rows -> {
+            if (rows == null) return;
+            adapter.setItems(rows);
+            setLoading(false);
+        });
+        viewModel.getError().observe(getViewLifecycleOwner(), error -> {
+            if (error == null) return;
+            setLoading(false);
+            Toast.makeText(requireContext(),
+                    "Failed to load your items: " + error.getMessage(),
+                    Toast.LENGTH_SHORT).show();
+            viewModel.errorShown();
+        });
     }
 
     // ---- Actions UI ----
@@ -208,24 +181,45 @@ public class MyItemsFragment extends Fragment {
 
                     // Do not touch categoryId or createdAt here.
 
+                    // then the category listing's summary, written whole from the edited item
+                    // and only if the item is still listed there; it runs even if this
+                    // screen is gone by then
+                    Item edited = copyWithEdits(item, newTitle, newDesc, newIsFree, newPriceCents);
+                    Op<?> save = Op.of(DbMetrics.update(FirebaseDatabase.getInstance().getReference(), updates))
+                            .then(done -> edited.categoryId != null ? ItemSummary.rewrite(edited) : Op.value(null));
+
                     setLoading(true);
-                    FirebaseDatabase.getInstance().getReference().updateChildren(updates)
-                            .addOnCompleteListener(task -> {
-                                setLoading(false);
-                                if (task.isSuccessful()) {
-                                    Toast.makeText(requireContext(), "Item updated", Toast.LENGTH_SHORT).show();
-                                } else {
-                                    String msg = task.getException() != null ? task.getException().getMessage() : "";
-                                    Toast.makeText(requireContext(),
-                                            "Failed to update: " + msg,
-                                            Toast.LENGTH_LONG).show();
-                                }
-                            });
+                    ListenerRegistry.of(this).deliver(save.task(), task -> {
+                        setLoading(false);
+                        if (task.isSuccessful()) {
+                            Toast.makeText(requireContext(), "Item updated", Toast.LENGTH_SHORT).show();
+                        } else {
+                            String msg = task.getException() != null ? task.getException().getMessage() : "";
+                            Toast.makeText(requireContext(),
+                                    "Failed to update: " + msg,
+                                    Toast.LENGTH_LONG).show();
+                        }
+                    });
                 })
                 .setNegativeButton("Cancel", null)
                 .show();
     }
 
+    private static Item copyWithEdits(Item item, String title, String description, boolean isFree,
+                                      @Nullable Long priceCents) {
+        Item it = new Item();
+        it.id = item.id;
+        it.categoryId = item.categoryId;
+        it.authorId = item.authorId;
+        it.createdByName = item.createdByName;
+        it.createdAt = item.createdAt;
+        it.title = title;
+        it.description = description;
+        it.isFree = isFree;
+        it.priceCents = priceCents;
+        return it;
+    }
+
     // Check pending transactions, then delete item and mapping
     private void confirmAndDeleteItem(Item item) {
         String uid = FirebaseAuth.getInstance().getUid();
@@ -244,95 +238,107 @@ public class MyItemsFragment extends Fragment {
 
     private void checkPendingTransactionsAndDelete(Item item) {
         setLoading(true);
-        DatabaseReference txRef = FirebaseDatabase.getInstance().getReference("transactions");
-
-        // Try indexed query first
-        txRef.orderByChild("itemId").equalTo(item.id).get().addOnCompleteListener(task -> {
+        // A sold item may still have its purchase pending. Items sold before the
+        // pendingTransactionId marker existed only say so through their transaction's
+        // status; the row already names that transaction, so it is read up front.
+        Op<String> shownStatus = item.transactionId != null ? txStatus(item.transactionId) : Op.value(null);
+        Op<Deleted> deleted = shownStatus
+                .then(status -> deleteItemNode(item, item.transactionId, status, true))
+                // index and count follow the delete even if this screen is gone by then
+                .then(d -> d.refused ? Op.value(d)
+                        : Op.of(DbMetrics.update(FirebaseDatabase.getInstance().getReference(),
+                                removals(item, d.item))).map(done -> d));
+
+        ListenerRegistry.of(this).deliver(deleted.task(), task -> {
+            setLoading(false);
             if (!task.isSuccessful()) {
-                // Fallback: read all transactions, like in ItemsListFragment
-                txRef.get().addOnCompleteListener(fb -> {
-                    if (!fb.isSuccessful()) {
-                        setLoading(false);
-                        Toast.makeText(requireContext(),
-                                "Failed to check transactions",
-                                Toast.LENGTH_SHORT).show();
-                        return;
-                    }
-                    DataSnapshot snap = fb.getResult();
-                    boolean hasPending = false;
-                    if (snap != null) {
-                        for (DataSnapshot s : snap.getChildren()) {
-                            String itemIdOnTx = s.child("itemId").getValue(String.class);
-                            String status = s.child("status").getValue(String.class);
-                            if (itemIdOnTx != null && itemIdOnTx.equals(item.id)
-                                    && status != null && status.equalsIgnoreCase("pending")) {
-                                hasPending = true;
-                                break;
-                            }
-                        }
-                    }
-
-                    if (hasPending) {
-                        setLoading(false);
-                        Toast.makeText(requireContext(),
-                                "Cannot delete item — it has a pending transaction",
-                                Toast.LENGTH_LONG).show();
-                        return;
-                    }
-
-                    // No pending transaction; proceed to delete
-                    performItemDelete(item);
-                });
+                Exception e = task.getException();
+                String msg = e != null && e.getMessage() != null ? e.getMessage() : "";
+                Toast.makeText(requireContext(), "Failed to delete: " + msg, Toast.LENGTH_LONG).show();
                 return;
             }
+            if (task.getResult().refused) refusePendingDelete();
+            else Toast.makeText(requireContext(), "Item deleted", Toast.LENGTH_SHORT).show();
+        });
+    }
 
-            // Query worked: scan results
-            DataSnapshot snap = task.getResult();
-            boolean hasPending = false;
-            if (snap != null) {
-                for (DataSnapshot s : snap.getChildren()) {
-                    String status = s.child("status").getValue(String.class);
-                    if (status != null && status.equalsIgnoreCase("pending")) {
-                        hasPending = true;
-                        break;
-                    }
-                }
-            }
+    // what deleting the item node found
+    private static final class Deleted {
+        final boolean refused;   // a purchase of it is pending; nothing was deleted
+        @Nullable final Item item; // the item as deleted; null if it was already gone
 
-            if (hasPending) {
-                setLoading(false);
-                Toast.makeText(requireContext(),
-                        "Cannot delete item — it has a pending transaction",
-                        Toast.LENGTH_LONG).show();
-                return;
-            }
+        Deleted(boolean refused, @Nullable Item item) {
+            this.refused = refused;
+            this.item = item;
+        }
+    }
 
-            // No pending; delete item
-            performItemDelete(item);
+    // Deletes /items/{id} in a transaction that refuses while a purchase is pending,
+    // so a claim landing after the check can't be deleted under the buyer, and only
+    // the run that actually removed a listed item takes it off the count.
+    // checkedTx/status: the transaction whose status was read; a sale to another
+    // one since is checked once more before giving up.
+    private static Op<Deleted> deleteItemNode(Item row, @Nullable String checkedTx,
+                                              @Nullable String status, boolean mayRecheck) {
+        AtomicReference<Item> seen = new AtomicReference<>();
+        return Op.transaction(FirebaseDatabase.getInstance().getReference("items").child(row.id), current -> {
+            Item now = SnapshotMappers.item(row.id, current.getValue());
+            seen.set(now);
+            // null is often just "not cached yet"; committing it makes the server
+            // rerun this with the real value (or confirms the item is gone)
+            if (now == null) return Transaction.success(current);
+            if (now.pendingTransactionId != null) return Transaction.abort();
+            if (Boolean.FALSE.equals(now.available) && now.transactionId != null
+                    && (!now.transactionId.equals(checkedTx) || isPending(status))) {
+                return Transaction.abort();
+            }
+            current.setValue(null);
+            return Transaction.success(current);
+        }).map(committed -> new Deleted(false, seen.get())).fallback(e -> {
+            if (!(e instanceof Op.Aborted)) return Op.error(e);
+            Item now = seen.get();
+            boolean otherSale = now != null && now.pendingTransactionId == null
+                    && now.transactionId != null && !now.transactionId.equals(checkedTx);
+            if (otherSale && mayRecheck) {
+                String txId = now.transactionId;
+                return txStatus(txId).then(s -> deleteItemNode(row, txId, s, false));
+            }
+            return Op.value(new Deleted(true, null));
         });
     }
 
-    private void performItemDelete(Item item) {
+    // Index entries to clear after the item node is gone. The count only drops if
+    // this delete took a listed item off sale; a sale already did, and so did
+    // whatever deleted an item that was gone before this one ran.
+    private static Map<String, Object> removals(Item row, @Nullable Item deleted) {
+        Item it = deleted != null ? deleted : row;
         Map<String, Object> removals = new HashMap<>();
-        removals.put("/items/" + item.id, null);
-        if (item.categoryId != null) {
-            removals.put("/category-items/" + item.categoryId + "/" + item.id, null);
+        if (it.categoryId != null) {
+            removals.put("/category-items/" + it.categoryId + "/" + it.id, null);
+            if (deleted != null && !Boolean.FALSE.equals(deleted.available)) {
+                ItemSummary.putCountDelta(removals, it.categoryId, -1);
+            }
+        }
+        if (it.authorId != null) {
+            removals.put("/user-items/" + it.authorId + "/" + it.id, null);
         }
+        return removals;
+    }
 
-        FirebaseDatabase.getInstance().getReference()
-                .updateChildren(removals)
-                .addOnCompleteListener(delTask -> {
-                    setLoading(false);
-                    if (delTask.isSuccessful()) {
-                        Toast.makeText(requireContext(), "Item deleted", Toast.LENGTH_SHORT).show();
-                    } else {
-                        String msg = delTask.getException() != null
-                                ? delTask.getException().getMessage()
-                                : "";
-                        Toast.makeText(requireContext(),
-                                "Failed to delete: " + msg,
-                                Toast.LENGTH_LONG).show();
-                    }
-                });
+    private static boolean isPending(@Nullable String status) {
+        return status != null && status.equalsIgnoreCase("pending");
+    }
+
+    private static Op<String> txStatus(String txId) {
+        return Reads.get(FirebaseDatabase.getInstance().getReference("transactions")
+                        .child(txId).child("status"), Reads.CHECK)
+                .map(r -> r.snapshot != null ? r.snapshot.getValue(String.class) : null);
+    }
+
+    private void refusePendingDelete() {
+        setLoading(false);
+        Toast.makeText(requireContext(),
+                "Cannot delete item — it has a pending transaction",
+                Toast.LENGTH_LONG).show();
     }
 }
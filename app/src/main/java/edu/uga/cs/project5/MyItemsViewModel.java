@@ -0,0 +1,51 @@
+package edu.uga.cs.project5;
+
+import android.app.Application;
+
+import androidx.annotation.NonNull;
+
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+
+import java.util.List;
+
+/**
+ * The signed-in user's items through /user-items/{uid}, newest first. Listings
+ * posted before the index existed are added to it by {@link Backfills#userItems}.
+ */
+public class MyItemsViewModel extends FeedViewModel<List<ItemRow>> {
+
+    private static final int CACHE_LIMIT = 500;
+
+    public MyItemsViewModel(@NonNull Application app) {
+        super(app);
+        String uid = FirebaseAuth.getInstance().getUid();
+        if (uid == null) return;
+
+        DatabaseReference root = FirebaseDatabase.getInstance().getReference();
+        IndexedFeed<ItemRow> itemsFeed = new IndexedFeed<>(
+                "user-items",
+                root.child("user-items").child(uid),
+                root.child("items"),
+                s -> ItemRow.of(SnapshotParser.ITEM.parse(s), uid),
+                ItemRow.NEWEST_FIRST,
+                new PipelineFeed.Listener<ItemRow>() {
+                    @Override
+                    public void onChanged(@NonNull List<ItemRow> rows) {
+                        data.setValue(rows);
+                    }
+
+                    @Override
+                    public void onError(@NonNull DatabaseError e) {
+                        postError(e);
+                    }
+                });
+        itemsFeed.setCache(CatalogCache.get(app), "user-items/" + uid,
+                RowCodecs.items(uid), CACHE_LIMIT);
+        run(itemsFeed);
+        // listings posted before the index existed; once per install
+        Backfills.userItems(app, uid);
+    }
+}
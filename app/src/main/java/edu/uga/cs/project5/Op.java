@@ -0,0 +1,267 @@
+package edu.uga.cs.project5;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.MutableData;
+import com.google.firebase.database.Transaction;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * A database operation (or several) as one value, built on Firebase Tasks so
+ * multi-step flows read top to bottom instead of as nested callbacks:
+ *
+ *   Op.zip(Op.of(DbMetrics.get(a)), Op.of(DbMetrics.get(b)), (x, y) -> ...)
+ *     .then(v -> Op.of(DbMetrics.update(root, updates)))
+ *     .fallback(e -> ...)
+ *
+ * Operations start as soon as they are created, so the inputs of {@link #zip}
+ * run side by side; {@link #then} starts its step only once the previous one has
+ * succeeded. A failure skips the remaining steps up to the next fallback.
+ * {@link #cancel} stops a chain from starting any further step (a read already
+ * sent still completes, its result is just ignored) and fails it with a
+ * CancellationException.
+ *
+ * Main thread only; Firebase completes its Tasks there.
+ */
+public final class Op<T> {
+
+    public interface Step<T, R> {
+        @NonNull Op<R> then(T value) throws Exception;
+    }
+
+    public interface Fn<T, R> {
+        R apply(T value) throws Exception;
+    }
+
+    public interface Combine<A, B, R> {
+        R apply(A a, B b) throws Exception;
+    }
+
+    public interface Recover<T> {
+        @NonNull Op<T> from(@NonNull Exception e) throws Exception;
+    }
+
+    /** The body of {@link #transaction}; same contract as Transaction.Handler.doTransaction. */
+    public interface Txn {
+        @NonNull Transaction.Result run(@NonNull MutableData current);
+    }
+
+    /** A transaction that didn't commit; current is the value it saw on the server. */
+    public static final class Aborted extends Exception {
+        @Nullable public final DataSnapshot current;
+
+        public Aborted(@Nullable DataSnapshot current) {
+            super("transaction aborted");
+            this.current = current;
+        }
+    }
+
+    private static final Handler MAIN = new Handler(Looper.getMainLooper());
+
+    private final Task<T> task;
+    private final Chain chain;
+
+    private Op(Task<T> task, Chain chain) {
+        this.task = task;
+        this.chain = chain;
+    }
+
+    @NonNull
+    public static <T> Op<T> of(@NonNull Task<T> task) {
+        return new Op<>(task, new Chain());
+    }
+
+    @NonNull
+    public static <T> Op<T> value(@Nullable T value) {
+        return of(Tasks.forResult(value));
+    }
+
+    @NonNull
+    public static <T> Op<T> error(@NonNull Exception e) {
+        return of(Tasks.forException(e));
+    }
+
+    /**
+     * runTransaction (through DbMetrics): the committed snapshot, or fails with
+     * {@link Aborted} if the body aborted, or with the DatabaseError's exception.
+     */
+    @NonNull
+    public static Op<DataSnapshot> transaction(@NonNull DatabaseReference ref, @NonNull Txn body) {
+        TaskCompletionSource<DataSnapshot> out = new TaskCompletionSource<>();
+        DbMetrics.runTransaction(ref, new Transaction.Handler() {
+            @NonNull
+            @Override
+            public Transaction.Result doTransaction(@NonNull MutableData current) {
+                return body.run(current);
+            }
+
+            @Override
+            public void onComplete(@Nullable DatabaseError error, boolean committed,
+                                   @Nullable DataSnapshot snapshot) {
+                if (error != null) out.trySetException(error.toException());
+                else if (!committed) out.trySetException(new Aborted(snapshot));
+                else out.trySetResult(snapshot);
+            }
+        });
+        return of(out.getTask());
+    }
+
+    /** Both at once; fails as soon as either does. */
+    @NonNull
+    public static <A, B, R> Op<R> zip(@NonNull Op<A> a, @NonNull Op<B> b, @NonNull Combine<A, B, R> combine) {
+        Chain chain = new Chain(a.chain, b.chain);
+        TaskCompletionSource<R> out = chain.source();
+        Runnable join = () -> {
+            if (!a.task.isComplete() || !b.task.isComplete() || chain.cancelled) return;
+            try {
+                out.trySetResult(combine.apply(a.task.getResult(), b.task.getResult()));
+            } catch (Exception e) {
+                out.trySetException(e);
+            }
+        };
+        a.task.addOnCompleteListener(t -> {
+            if (t.isSuccessful()) join.run();
+            else out.trySetException(failure(t));
+        });
+        b.task.addOnCompleteListener(t -> {
+            if (t.isSuccessful()) join.run();
+            else out.trySetException(failure(t));
+        });
+        return new Op<>(out.getTask(), chain);
+    }
+
+    /** Starts next with this op's result once it has succeeded. */
+    @NonNull
+    public <R> Op<R> then(@NonNull Step<T, R> next) {
+        TaskCompletionSource<R> out = chain.source();
+        task.addOnCompleteListener(t -> {
+            if (!t.isSuccessful()) {
+                out.trySetException(failure(t));
+                return;
+            }
+            if (chain.cancelled) return;
+            try {
+                pipe(next.then(t.getResult()), out);
+            } catch (Exception e) {
+                out.trySetException(e);
+            }
+        });
+        return new Op<>(out.getTask(), chain);
+    }
+
+    @NonNull
+    public <R> Op<R> map(@NonNull Fn<T, R> fn) {
+        return then(v -> value(fn.apply(v)));
+    }
+
+    /** On failure (not cancellation), continues with what recover returns instead. */
+    @NonNull
+    public Op<T> fallback(@NonNull Recover<T> recover) {
+        TaskCompletionSource<T> out = chain.source();
+        task.addOnCompleteListener(t -> {
+            if (t.isSuccessful()) {
+                out.trySetResult(t.getResult());
+                return;
+            }
+            Exception e = failure(t);
+            if (e instanceof CancellationException || chain.cancelled) {
+                out.trySetException(e);
+                return;
+            }
+            try {
+                pipe(recover.from(e), out);
+            } catch (Exception again) {
+                out.trySetException(again);
+            }
+        });
+        return new Op<>(out.getTask(), chain);
+    }
+
+    /**
+     * Fails with a TimeoutException if this op hasn't completed within ms. The work
+     * behind it isn't stopped; a late result is ignored.
+     */
+    @NonNull
+    public Op<T> timeout(long ms) {
+        TaskCompletionSource<T> out = chain.source();
+        Runnable expire = () -> out.trySetException(
+                new TimeoutException(String.format(Locale.ROOT, "no response in %.1fs", ms / 1000.0)));
+        MAIN.postDelayed(expire, ms);
+        task.addOnCompleteListener(t -> {
+            MAIN.removeCallbacks(expire);
+            if (t.isSuccessful()) out.trySetResult(t.getResult());
+            else out.trySetException(failure(t));
+        });
+        return new Op<>(out.getTask(), chain);
+    }
+
+    /** No further step of this chain (or of the ops zipped into it) starts. */
+    public void cancel() {
+        chain.cancel();
+    }
+
+    @NonNull
+    public Task<T> task() {
+        return task;
+    }
+
+    private static <R> void pipe(Op<R> from, TaskCompletionSource<R> to) {
+        from.task.addOnCompleteListener(t -> {
+            if (t.isSuccessful()) to.trySetResult(t.getResult());
+            else to.trySetException(failure(t));
+        });
+    }
+
+    private static Exception failure(Task<?> t) {
+        Exception e = t.getException();
+        if (e != null) return e;
+        return t.isCanceled() ? new CancellationException() : new IllegalStateException("task failed");
+    }
+
+    /** The ops of one chain, so cancel() reaches the steps that haven't completed yet. */
+    private static final class Chain {
+        final Chain[] upstream;
+        final List<TaskCompletionSource<?>> pending = new ArrayList<>();
+        boolean cancelled = false;
+
+        Chain(Chain... upstream) {
+            this.upstream = upstream;
+        }
+
+        <R> TaskCompletionSource<R> source() {
+            TaskCompletionSource<R> s = new TaskCompletionSource<>();
+            if (cancelled) {
+                s.trySetException(new CancellationException());
+                return s;
+            }
+            pending.add(s);
+            s.getTask().addOnCompleteListener(t -> pending.remove(s));
+            return s;
+        }
+
+        void cancel() {
+            if (cancelled) return;
+            cancelled = true;
+            for (Chain c : upstream) c.cancel();
+            for (TaskCompletionSource<?> s : new ArrayList<>(pending)) {
+                s.trySetException(new CancellationException());
+            }
+            pending.clear();
+        }
+    }
+}
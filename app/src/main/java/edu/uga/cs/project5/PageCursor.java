@@ -0,0 +1,76 @@
+package edu.uga.cs.project5;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.google.firebase.database.Query;
+
+/**
+ * Where the next older page of a newest-first listing starts: the (order value, key)
+ * of the oldest entry read so far. Pages are read with endBefore(cursor) and
+ * limitToLast(pageSize), so the key breaks ties between equal timestamps and a page
+ * shorter than pageSize was the last one.
+ *
+ * Not thread-safe; PagedFeed uses it on the main thread.
+ */
+final class PageCursor {
+
+    private final int pageSize;
+    private boolean hasCursor = false;
+    private boolean exhausted = false;
+    @Nullable private Long value;
+    @Nullable private String key;
+
+    PageCursor(int pageSize) {
+        this.pageSize = pageSize;
+    }
+
+    void reset() {
+        hasCursor = false;
+        exhausted = false;
+        value = null;
+        key = null;
+    }
+
+    /**
+     * A page came in. oldestValue and oldestKey are its first child's (the page is
+     * ascending), or null for an empty page; the value is null for entries without
+     * the order child (legacy ones), which sort first.
+     */
+    void onPage(@Nullable Object oldestValue, @Nullable String oldestKey, long count) {
+        if (count > 0 && oldestKey != null) {
+            value = SnapshotMappers.asLong(oldestValue);
+            key = oldestKey;
+            hasCursor = true;
+        }
+        if (count < pageSize) exhausted = true;
+    }
+
+    /** False once a short page has come in. */
+    boolean hasMore() {
+        return !exhausted;
+    }
+
+    /** True when there is a next page and a cursor to read it from. */
+    boolean canAdvance() {
+        return hasCursor && !exhausted;
+    }
+
+    @Nullable
+    Long value() {
+        return value;
+    }
+
+    @Nullable
+    String key() {
+        return key;
+    }
+
+    /** The ordered query bounded to entries older than the cursor. */
+    @NonNull
+    Query before(@NonNull Query ordered) {
+        return value != null
+                ? ordered.endBefore((double) value, key)
+                : ordered.endBefore((String) null, key);
+    }
+}
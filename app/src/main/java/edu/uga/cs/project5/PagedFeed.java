@@ -0,0 +1,247 @@
+package edu.uga.cs.project5;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.google.firebase.database.ChildEventListener;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.Query;
+import com.google.firebase.database.ValueEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Newest-first paging over the children of a node, keyed on a timestamp child
+ * (e.g. /category-items/{catId} ordered by createdAt). Only the newest page is read
+ * on start; {@link #loadMore} reads the next older page using the oldest
+ * (createdAt, key) seen so far as the cursor.
+ *
+ * Every loaded page stays attached as a child listener, so edits and deletions
+ * anywhere in the loaded range are applied live and scrolling back never re-reads.
+ * The head page is limitToLast(pageSize) with no upper bound, so new listings are
+ * merged at the top as they are written. An entry a new listing pushes out of the
+ * head window falls between the head and the next older page, so it gets a value
+ * listener of its own: that confirms it was only shifted (not deleted) and keeps it
+ * live until it is deleted or moves back into the head.
+ *
+ * Needs ".indexOn": "createdAt" on the paged node in the database rules, otherwise
+ * the server sends the whole node and filters on the client.
+ */
+public class PagedFeed<T> extends PipelineFeed<T> {
+
+    public interface PageListener {
+        /** Main thread: a page finished loading; hasMore is false once the oldest entry is in. */
+        void onPageLoaded(boolean hasMore);
+    }
+
+    private final DatabaseReference ref;
+    private final String orderChild;
+    private final int pageSize;
+    private final SnapshotParser<T> parser;
+    @Nullable private PageListener pageListener;
+
+    // main thread
+    private final List<Window> windows = new ArrayList<>();
+    private final Map<String, ValueEventListener> shifted = new HashMap<>(); // key -> attached
+    private final PageCursor cursor;
+    private boolean loading = false;
+
+    // pipeline thread: every key currently shown, including ones the parser left out
+    private final Set<String> present = new HashSet<>();
+
+    public PagedFeed(@NonNull String name,
+                     @NonNull DatabaseReference ref,
+                     @NonNull String orderChild,
+                     int pageSize,
+                     @NonNull SnapshotParser<T> parser,
+                     @NonNull Comparator<T> order,
+                     @NonNull Listener<T> listener) {
+        super(name, order, listener);
+        this.ref = ref;
+        this.orderChild = orderChild;
+        this.pageSize = pageSize;
+        this.parser = parser;
+        this.cursor = new PageCursor(pageSize);
+    }
+
+    public void setPageListener(@Nullable PageListener l) {
+        this.pageListener = l;
+    }
+
+    @Override
+    protected void onStart() {
+        cursor.reset();
+        attachWindow(ref.orderByChild(orderChild).limitToLast(pageSize), true);
+    }
+
+    @Override
+    protected void onStop() {
+        for (Window w : windows) w.detach();
+        windows.clear();
+        for (Map.Entry<String, ValueEventListener> e : shifted.entrySet()) {
+            listeners.stop(ref.child(e.getKey()), e.getValue());
+        }
+        shifted.clear();
+        loading = false;
+    }
+
+    @Override
+    protected void onReset() {
+        present.clear();
+    }
+
+    /** Main thread: request the next older page. No-op while a page is loading or at the end. */
+    public void loadMore() {
+        if (!isStarted() || loading || !cursor.canAdvance()) return;
+        attachWindow(cursor.before(ref.orderByChild(orderChild)).limitToLast(pageSize), false);
+    }
+
+    public boolean hasMore() {
+        return cursor.hasMore();
+    }
+
+    public boolean isLoading() {
+        return loading;
+    }
+
+    /**
+     * Parses and applies a snapshot for a key that is still shown, e.g. one the parser
+     * had to resolve with a separate read. Ignored once the key has gone.
+     */
+    public void putSnapshot(@NonNull String key, @NonNull DataSnapshot snapshot) {
+        onPipeline(() -> {
+            if (present.contains(key)) applySnapshot(key, snapshot, parser);
+        });
+    }
+
+    private void attachWindow(Query query, boolean head) {
+        loading = true;
+        Window w = new Window(query, head);
+        windows.add(w);
+        // pages share a location and listener class, the cursor tells them apart
+        w.attached = listeners.listen(query, head ? "head" : "before " + cursor.key(), w);
+
+        // fires after the page's children, in order; the first one is the oldest
+        DbMetrics.once(query, new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                if (!windows.contains(w)) return;
+                Iterator<DataSnapshot> it = snapshot.getChildren().iterator();
+                DataSnapshot oldest = it.hasNext() ? it.next() : null;
+                cursor.onPage(oldest != null ? oldest.child(orderChild).getValue() : null,
+                        oldest != null ? oldest.getKey() : null, snapshot.getChildrenCount());
+                loading = false;
+                // the head page is the first full load; cached seeds it didn't confirm are gone
+                if (w.head) onPipeline(() -> settleSeeds(null));
+                else onPipeline(PagedFeed.this::markChanged);
+                if (pageListener != null) pageListener.onPageLoaded(cursor.hasMore());
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                loading = false;
+            }
+        });
+    }
+
+    // head window only: the entry may just have been pushed out by a newer one, so no
+    // window covers it any more; follow it on its own until it is gone or back in the head
+    private void followShifted(String key) {
+        if (shifted.containsKey(key)) return;
+        ValueEventListener l = new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                if (snapshot.exists()) {
+                    onPipeline(() -> {
+                        if (present.contains(key)) applySnapshot(key, snapshot, parser);
+                    });
+                    return;
+                }
+                unfollowShifted(key);
+                onPipeline(() -> {
+                    present.remove(key);
+                    removeKey(key);
+                });
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                unfollowShifted(key); // unknown: keep showing it as it was
+            }
+        };
+        shifted.put(key, listeners.listen(ref.child(key), "shifted", l));
+    }
+
+    private void unfollowShifted(String key) {
+        ValueEventListener l = shifted.remove(key);
+        if (l != null) listeners.stop(ref.child(key), l);
+    }
+
+    private class Window implements ChildEventListener {
+        final Query query;
+        final boolean head;
+        ChildEventListener attached; // this, as wrapped by DbMetrics
+
+        Window(Query query, boolean head) {
+            this.query = query;
+            this.head = head;
+        }
+
+        void detach() {
+            if (attached != null) listeners.stop(query, attached);
+        }
+
+        @Override
+        public void onChildAdded(@NonNull DataSnapshot snapshot, @Nullable String previousChildName) {
+            String key = snapshot.getKey();
+            if (key == null) return;
+            // back in the head window (a newer entry was deleted); it covers the key again
+            if (head) unfollowShifted(key);
+            onPipeline(() -> {
+                present.add(key);
+                applySnapshot(key, snapshot, parser);
+            });
+        }
+
+        @Override
+        public void onChildChanged(@NonNull DataSnapshot snapshot, @Nullable String previousChildName) {
+            String key = snapshot.getKey();
+            if (key == null) return;
+            onPipeline(() -> applySnapshot(key, snapshot, parser));
+        }
+
+        @Override
+        public void onChildRemoved(@NonNull DataSnapshot snapshot) {
+            String key = snapshot.getKey();
+            if (key == null) return;
+            if (head) {
+                followShifted(key);
+                return;
+            }
+            // older pages have a fixed upper bound, so they only lose real deletions
+            onPipeline(() -> {
+                present.remove(key);
+                removeKey(key);
+            });
+        }
+
+        @Override
+        public void onChildMoved(@NonNull DataSnapshot snapshot, @Nullable String previousChildName) {
+            // order is kept locally by the comparator, not by the query
+        }
+
+        @Override
+        public void onCancelled(@NonNull DatabaseError error) {
+            onError(error);
+        }
+    }
+}
@@ -11,28 +11,23 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.appcompat.app.AlertDialog;
 import androidx.fragment.app.Fragment;
+import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.google.firebase.auth.FirebaseAuth;
-import com.google.firebase.database.DataSnapshot;
-import com.google.firebase.database.DatabaseError;
 import com.google.firebase.database.DatabaseReference;
 import com.google.firebase.database.FirebaseDatabase;
 import com.google.firebase.database.ServerValue;
-import com.google.firebase.database.ValueEventListener;
 
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 public class PendingTransactionsFragment extends Fragment {
 
     private RecyclerView rv;
     private TransactionAdapter adapter;
-    private DatabaseReference txRef;
-    private ValueEventListener valueListener;
 
     public PendingTransactionsFragment() { }
 
@@ -93,80 +88,38 @@ public class PendingTransactionsFragment extends Fragment {
             }
         });
 
-        txRef = FirebaseDatabase.getInstance().getReference("transactions");
         attachListener("pending");
         return root;
     }
 
     /**
-     * Attach a listener to /transactions and build a list of
-     * ONLY this user's transactions with the given status,
-     * sorted from most recent to oldest.
+     * Follow ONLY this user's transactions through /user-transactions/{uid}
+     * and show the ones with the given status, most recent first. The feed is
+     * shared with the other transactions tab through the activity's ViewModel.
      */
     private void attachListener(String status) {
-        if (valueListener != null && txRef != null) {
-            txRef.removeEventListener(valueListener);
-        }
-
-        valueListener = new ValueEventListener() {
-            @Override
-            public void onDataChange(@NonNull DataSnapshot snapshot) {
-                String currentUid = FirebaseAuth.getInstance().getUid();
-                if (currentUid == null) {
-                    if (getContext() != null) {
-                        Toast.makeText(getContext(), "Sign in to view your pending transactions", Toast.LENGTH_SHORT).show();
-                    }
-                    adapter.setItems(new ArrayList<>());
-                    return;
-                }
-
-                List<Transaction> mine = new ArrayList<>();
-                for (DataSnapshot s : snapshot.getChildren()) {
-                    Transaction t = s.getValue(Transaction.class);
-                    if (t == null) continue;
-                    t.id = s.getKey();
-
-                    boolean statusMatch =
-                            t.status != null && t.status.equalsIgnoreCase(status);
-
-                    boolean isMine =
-                            (t.buyerId != null && t.buyerId.equals(currentUid)) ||
-                                    (t.sellerId != null && t.sellerId.equals(currentUid));
-
-                    if (statusMatch && isMine) {
-                        mine.add(t);
-                    }
-                }
-
-                // Sort by createdAt desc (most recent first)
-                mine.sort((a, b) -> {
-                    long ca = (a.createdAt != null) ? a.createdAt : 0L;
-                    long cb = (b.createdAt != null) ? b.createdAt : 0L;
-                    return Long.compare(cb, ca);
-                });
-
-                adapter.setCurrentUserId(currentUid);
-                adapter.setItems(mine);
+        String currentUid = FirebaseAuth.getInstance().getUid();
+        if (currentUid == null) {
+            if (getContext() != null) {
+                Toast.makeText(getContext(), "Sign in to view your pending transactions", Toast.LENGTH_SHORT).show();
             }
+            adapter.setItems(new ArrayList<>());
+            return;
+        }
 
-            @Override
-            public void onCancelled(@NonNull DatabaseError error) {
-                if (getContext() != null) {
-                    Toast.makeText(getContext(),
-                            "Failed to load transactions: " + error.getMessage(),
-                            Toast.LENGTH_SHORT).show();
-                }
+        TransactionsViewModel viewModel = new ViewModelProvider(requireActivity()).get(TransactionsViewModel.class);
+        viewModel.getData().observe(getViewLifecycleOwner(), byStatus -> {
+            if (byStatus != null) adapter.setItems(TransactionFeed.withStatus(byStatus, status));
+        });
+        viewModel.getError().observe(getViewLifecycleOwner(), error -> {
+            if (error == null) return;
+            if (getContext() != null) {
+                Toast.makeText(getContext(),
+                        "Failed to load transactions: " + error.getMessage(),
+                        Toast.LENGTH_SHORT).show();
             }
-        };
-        txRef.addValueEventListener(valueListener);
-    }
-
-    @Override
-    public void onDestroyView() {
-        super.onDestroyView();
-        if (valueListener != null && txRef != null) {
-            txRef.removeEventListener(valueListener);
-        }
+            viewModel.errorShown();
+        });
     }
 
     private void completeTransaction(String txId, String actorUid, String itemId) {
@@ -183,21 +136,19 @@ public class PendingTransactionsFragment extends Fragment {
         updates.put("/transactions/" + txId + "/status", "completed");
         updates.put("/transactions/" + txId + "/completedAt", ServerValue.TIMESTAMP);
         updates.put("/transactions/" + txId + "/completedBy", actorUid);
+        // the item no longer has a pending transaction (see Purchases.buy)
+        if (itemId != null) updates.put("/items/" + itemId + "/pendingTransactionId", null);
 
-        root.updateChildren(updates).addOnCompleteListener(task -> {
+        ListenerRegistry.of(this).deliver(DbMetrics.update(root, updates), task -> {
             if (task.isSuccessful()) {
-                if (getContext() != null) {
-                    Toast.makeText(getContext(), "Transaction marked completed", Toast.LENGTH_SHORT).show();
-                }
+                Toast.makeText(requireContext(), "Transaction marked completed", Toast.LENGTH_SHORT).show();
             } else {
                 String msg = task.getException() != null
                         ? task.getException().getMessage() : "";
                 Log.e("PendingTxFragment", "Failed to complete tx: " + msg, task.getException());
-                if (getContext() != null) {
-                    Toast.makeText(getContext(),
-                            "Failed to complete transaction: " + msg,
-                            Toast.LENGTH_LONG).show();
-                }
+                Toast.makeText(requireContext(),
+                        "Failed to complete transaction: " + msg,
+                        Toast.LENGTH_LONG).show();
             }
         });
     }
@@ -0,0 +1,295 @@
+package edu.uga.cs.project5;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Base for feeds that fold Firebase events into a SortedModel on the
+ * DataPipeline thread. Subclasses attach their listeners on the main thread
+ * and forward each snapshot with {@link #onPipeline}; the model is only ever
+ * touched on the pipeline thread and the listener only ever called on the
+ * main thread, with an immutable list.
+ *
+ * With a {@link CatalogCache} attached, the last published list is stored on
+ * device and shown again straight away on the next start ("seeds"). Seeds are
+ * replaced as live data arrives; those the first full load doesn't confirm are
+ * dropped via {@link #settleSeeds}.
+ */
+public abstract class PipelineFeed<T> {
+
+    public interface Listener<T> {
+        void onChanged(@NonNull List<T> items);
+        void onError(@NonNull DatabaseError error);
+    }
+
+    protected final String name;
+    @Nullable private final Listener<T> listener;
+
+    /** Main thread: subclasses attach their listeners through this; closed on stop. */
+    protected final ListenerRegistry.Scope listeners;
+
+    // pipeline thread only
+    protected final SortedModel<T> model;
+    private boolean publishQueued = false;
+    private int pendingEvents = 0;
+    private long parseNanos = 0;
+    private long modelNanos = 0;
+
+    // rewrite the cache at most this often while the feed is running (always on stop)
+    private static final long CACHE_WRITE_INTERVAL_NANOS = 2_000_000_000L;
+
+    // set before start(), then only read on the pipeline thread
+    @Nullable private CatalogCache cache;
+    private String cacheKey;
+    private CatalogCache.Codec<T> codec;
+    private int cacheLimit;
+
+    // pipeline thread only
+    private final Set<String> seeds = new HashSet<>();
+    private boolean settled = false;
+    @Nullable private List<T> unsaved;
+    private long lastCacheWrite = 0;
+
+    // bumped on start/stop so queued work from an old run is dropped
+    private final AtomicInteger generation = new AtomicInteger();
+    private boolean started = false; // main thread
+
+    protected PipelineFeed(@NonNull String name, @NonNull Comparator<T> order,
+                           @Nullable Listener<T> listener) {
+        this.name = name;
+        this.model = new SortedModel<>(order);
+        this.listener = listener;
+        this.listeners = ListenerRegistry.scope(getClass().getSimpleName() + " " + name);
+    }
+
+    /**
+     * Keeps the newest {@code limit} published rows in the cache under {@code key}
+     * and shows them on start until live data replaces them. Call before start().
+     */
+    public void setCache(@NonNull CatalogCache cache, @NonNull String key,
+                         @NonNull CatalogCache.Codec<T> codec, int limit) {
+        this.cache = cache;
+        this.cacheKey = key;
+        this.codec = codec;
+        this.cacheLimit = limit;
+    }
+
+    public final void start() {
+        if (started) return;
+        started = true;
+        generation.incrementAndGet();
+        // queued ahead of every Firebase callback, so seeds never overwrite live data
+        if (cache != null) onPipeline(this::seedFromCache);
+        onStart();
+    }
+
+    public final void stop() {
+        if (!started) return;
+        started = false;
+        onStop();
+        listeners.close(); // anything onStop missed is reported and detached
+        generation.incrementAndGet();
+        DataPipeline.execute(() -> {
+            if (unsaved != null) writeCache(unsaved);
+            model.clear();
+            seeds.clear();
+            settled = false;
+            publishQueued = false;
+            pendingEvents = 0;
+            parseNanos = 0;
+            modelNanos = 0;
+            onReset();
+        });
+    }
+
+    /** Main thread: attach Firebase listeners. */
+    protected abstract void onStart();
+
+    /** Main thread: detach Firebase listeners. */
+    protected abstract void onStop();
+
+    /** Pipeline thread: clear any subclass state after a stop. */
+    protected void onReset() { }
+
+    /** Runs the task on the pipeline thread unless the feed is stopped first. */
+    protected final void onPipeline(@NonNull Runnable task) {
+        int gen = generation.get();
+        DataPipeline.execute(() -> {
+            if (gen == generation.get()) task.run();
+        });
+    }
+
+    /** Pipeline thread: parse a snapshot and store (or drop) it under key. */
+    protected final void applySnapshot(@NonNull String key, @NonNull DataSnapshot snapshot,
+                                       @NonNull SnapshotParser<T> parser) {
+        long t0 = System.nanoTime();
+        T value = snapshot.exists() ? parser.parse(snapshot) : null;
+        long t1 = System.nanoTime();
+        seeds.remove(key);
+        boolean changed;
+        if (value != null) {
+            model.put(key, value);
+            changed = true;
+        } else {
+            changed = model.remove(key) != null;
+        }
+        parseNanos += t1 - t0;
+        modelNanos += System.nanoTime() - t1;
+        pendingEvents++;
+        if (changed) markChanged();
+    }
+
+    /** Pipeline thread. */
+    protected final void putValue(@NonNull String key, @NonNull T value) {
+        seeds.remove(key);
+        long t0 = System.nanoTime();
+        model.put(key, value);
+        modelNanos += System.nanoTime() - t0;
+        pendingEvents++;
+        markChanged();
+    }
+
+    /** Pipeline thread. */
+    protected final void removeKey(@NonNull String key) {
+        seeds.remove(key);
+        long t0 = System.nanoTime();
+        boolean changed = model.remove(key) != null;
+        modelNanos += System.nanoTime() - t0;
+        pendingEvents++;
+        if (changed) markChanged();
+    }
+
+    /**
+     * Pipeline thread: queue a publish behind the events already waiting, so a burst
+     * of child events (e.g. the initial load) produces one list, not one per child.
+     */
+    protected final void markChanged() {
+        if (publishQueued) return;
+        publishQueued = true;
+        onPipeline(this::flush);
+    }
+
+    private void flush() {
+        publishQueued = false;
+        long t0 = System.nanoTime();
+        List<T> sorted = model.snapshot();
+        modelNanos += System.nanoTime() - t0;
+
+        DataPipeline.record(name, DataPipeline.STAGE_PARSE, parseNanos);
+        DataPipeline.record(name, DataPipeline.STAGE_MODEL, modelNanos);
+        if (BuildConfig.DEBUG) {
+            DataPipeline.logPublish(name, pendingEvents, sorted.size(), parseNanos, modelNanos);
+        }
+        pendingEvents = 0;
+        parseNanos = 0;
+        modelNanos = 0;
+
+        if (cache != null && settled) {
+            unsaved = sorted;
+            long now = System.nanoTime();
+            if (now - lastCacheWrite >= CACHE_WRITE_INTERVAL_NANOS) writeCache(sorted);
+        }
+
+        publish(sorted);
+    }
+
+    /**
+     * Pipeline thread: the first full load is in. Drops every seed that live data
+     * hasn't replaced, unless its key is in {@code keep} (e.g. still listed in an
+     * index whose nodes are loading), and starts writing published lists to the cache.
+     */
+    protected final void settleSeeds(@Nullable Set<String> keep) {
+        boolean changed = false;
+        for (Iterator<String> it = seeds.iterator(); it.hasNext(); ) {
+            String key = it.next();
+            if (keep != null && keep.contains(key)) continue;
+            it.remove();
+            changed |= model.remove(key) != null;
+        }
+        if (!settled) {
+            settled = true;
+            changed = true; // publish once so the settled list gets cached
+        }
+        if (changed) markChanged();
+    }
+
+    private void seedFromCache() {
+        long t0 = System.nanoTime();
+        int added = 0;
+        for (CatalogCache.Entry e : cache.read(cacheKey)) {
+            if (model.containsKey(e.key)) continue;
+            T value = codec.decode(e.key, e.value);
+            if (value == null) continue;
+            model.put(e.key, value);
+            seeds.add(e.key);
+            added++;
+        }
+        parseNanos += System.nanoTime() - t0;
+        if (added > 0) markChanged();
+    }
+
+    private void writeCache(List<T> sorted) {
+        int n = Math.min(sorted.size(), cacheLimit);
+        List<CatalogCache.Entry> entries = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            T row = sorted.get(i);
+            String key = codec.key(row);
+            if (key != null) entries.add(new CatalogCache.Entry(key, codec.encode(row)));
+        }
+        cache.write(cacheKey, entries);
+        lastCacheWrite = System.nanoTime();
+        unsaved = null;
+    }
+
+    /**
+     * Pipeline thread: hand the sorted list on. Subclasses may filter or reshape
+     * it here, off the main thread, and {@link #deliver} the result themselves.
+     */
+    protected void publish(@NonNull List<T> sorted) {
+        if (listener != null) deliver(() -> listener.onChanged(sorted));
+    }
+
+    /** Posts to the main thread, dropping the result if the feed was stopped meanwhile. */
+    protected final void deliver(@NonNull Runnable onMain) {
+        int gen = generation.get();
+        long queuedAt = System.nanoTime();
+        DataPipeline.postToMain(() -> {
+            if (gen != generation.get()) return;
+            DataPipeline.record(name, DataPipeline.STAGE_HANDOFF, System.nanoTime() - queuedAt);
+            onMain.run();
+        });
+    }
+
+    /** Main thread. */
+    protected void onError(@NonNull DatabaseError error) {
+        if (started && listener != null) listener.onError(error);
+    }
+
+    protected final boolean isStarted() {
+        return started;
+    }
+
+    /** Main thread: a token for this run, for callbacks that may outlive a stop. */
+    protected final int currentRun() {
+        return generation.get();
+    }
+
+    /**
+     * Main thread: true if the feed is still in the run {@link #currentRun} returned.
+     * Unlike isStarted(), false after a stop and start in between.
+     */
+    protected final boolean isCurrent(int run) {
+        return started && run == generation.get();
+    }
+}
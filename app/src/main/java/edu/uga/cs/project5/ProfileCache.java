@@ -0,0 +1,165 @@
+package edu.uga.cs.project5;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+import android.util.LruCache;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.ValueEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Display names from /users/{uid}, kept in memory (LRU) and in SharedPreferences so a
+ * name is read from the database once per user rather than on every post. Concurrent
+ * lookups of the same uid share one read. The signed-in user's profile is watched
+ * (see {@link #watch}), so a changed name replaces the cached one.
+ *
+ * Main thread only.
+ */
+public final class ProfileCache {
+
+    private static final String TAG = "ProfileCache";
+    private static final String PREFS = "profile-cache";
+    private static final int MEMORY_ENTRIES = 100;
+
+    public interface Callback {
+        /** displayName (or username) from the profile, null if there isn't one. */
+        void onResult(@Nullable String displayName);
+    }
+
+    private static ProfileCache instance;
+
+    public static synchronized ProfileCache get(@NonNull Context context) {
+        if (instance == null) instance = new ProfileCache(context.getApplicationContext());
+        return instance;
+    }
+
+    private final SharedPreferences prefs;
+    private final LruCache<String, String> memory = new LruCache<>(MEMORY_ENTRIES);
+    // uid -> callbacks waiting on the read already in flight
+    private final Map<String, List<Callback>> loading = new HashMap<>();
+
+    @Nullable private String watchedUid;
+    @Nullable private DatabaseReference watchedRef;
+    @Nullable private ValueEventListener watcher;
+    private final ListenerRegistry.Scope listeners = ListenerRegistry.scope("ProfileCache");
+
+    private ProfileCache(Context context) {
+        prefs = context.getSharedPreferences(PREFS, Context.MODE_PRIVATE);
+    }
+
+    /** The cached name, or null if it would need a read. */
+    @Nullable
+    public String peek(@NonNull String uid) {
+        String name = memory.get(uid);
+        if (name == null) {
+            name = prefs.getString(uid, null);
+            if (name != null) memory.put(uid, name);
+        }
+        return name;
+    }
+
+    /** Calls back right away when cached, otherwise after a (shared) read of /users/{uid}. */
+    public void getDisplayName(@NonNull String uid, @NonNull Callback cb) {
+        String cached = peek(uid);
+        if (cached != null) {
+            cb.onResult(cached);
+            return;
+        }
+        List<Callback> waiting = loading.get(uid);
+        if (waiting != null) {
+            waiting.add(cb);
+            return;
+        }
+        waiting = new ArrayList<>();
+        waiting.add(cb);
+        loading.put(uid, waiting);
+
+        // bounded: posting an item waits on this, and a null name has its fallbacks
+        Reads.get(users().child(uid), Reads.PROFILE).task().addOnCompleteListener(task -> {
+            String name = null;
+            if (task.isSuccessful()) {
+                name = nameOf(task.getResult().snapshot);
+                if (name != null) put(uid, name);
+            } else {
+                Log.w(TAG, "Profile read failed for " + uid, task.getException());
+            }
+            List<Callback> done = loading.remove(uid);
+            if (done == null) return;
+            for (Callback c : done) c.onResult(name);
+        });
+    }
+
+    public void put(@NonNull String uid, @NonNull String displayName) {
+        String name = displayName.trim();
+        if (name.isEmpty()) return;
+        memory.put(uid, name);
+        if (!name.equals(prefs.getString(uid, null))) {
+            prefs.edit().putString(uid, name).apply();
+        }
+    }
+
+    public void invalidate(@NonNull String uid) {
+        memory.remove(uid);
+        prefs.edit().remove(uid).apply();
+    }
+
+    /**
+     * Keeps the signed-in user's entry current while the app runs; this also warms the
+     * cache, so the first post doesn't wait on the profile.
+     */
+    public void watch(@NonNull String uid) {
+        if (uid.equals(watchedUid)) return;
+        unwatch();
+        DatabaseReference ref = users().child(uid);
+        watchedUid = uid;
+        watchedRef = ref;
+        watcher = new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                String name = nameOf(snapshot);
+                if (name != null) put(uid, name);
+                else invalidate(uid);
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                Log.w(TAG, "Profile watch cancelled: " + error.getMessage());
+            }
+        };
+        watcher = listeners.listen(ref, watcher);
+    }
+
+    /** On sign-out. */
+    public void unwatch() {
+        if (watchedRef != null && watcher != null) listeners.stop(watchedRef, watcher);
+        listeners.close();
+        watchedUid = null;
+        watchedRef = null;
+        watcher = null;
+    }
+
+    @Nullable
+    private static String nameOf(@Nullable DataSnapshot userSnap) {
+        if (userSnap == null || !userSnap.exists()) return null;
+        String name = userSnap.child("displayName").getValue(String.class);
+        if (name == null) name = userSnap.child("username").getValue(String.class);
+        if (name != null) name = name.trim();
+        return (name == null || name.isEmpty()) ? null : name;
+    }
+
+    private static DatabaseReference users() {
+        return FirebaseDatabase.getInstance().getReference("users");
+    }
+}
@@ -0,0 +1,150 @@
+package edu.uga.cs.project5;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.ServerValue;
+import com.google.firebase.database.Transaction;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Buying an item. The item is claimed with one transaction on /items/{id}
+ * (available -> false, buyerId, transactionId, pendingTransactionId); the server applies it only
+ * against the latest value, so of two buyers tapping at once exactly one wins.
+ * The winner then fans out the transaction records in one multi-path update,
+ * using the item as committed (price, seller, category) rather than what the
+ * list showed.
+ *
+ * A transaction can't be called off once sent (offline it waits for the
+ * connection), so past CLAIM_TIMEOUT_MS the caller hears onPending and then the
+ * real outcome whenever it arrives.
+ */
+public final class Purchases {
+
+    private static final String TAG = "Purchases";
+    private static final long CLAIM_TIMEOUT_MS = 10_000;
+
+    public interface Callback {
+        void onStarted(@NonNull String txId);
+        /** The claim was refused, e.g. already sold; the message is user-facing. */
+        void onRejected(@NonNull String reason);
+        void onError(@NonNull String message);
+        /** No answer within CLAIM_TIMEOUT_MS; one of the others still follows. */
+        void onPending();
+    }
+
+    private Purchases() { }
+
+    public static void buy(@NonNull String itemId, @NonNull String buyerId, @NonNull Callback cb) {
+        DatabaseReference root = FirebaseDatabase.getInstance().getReference();
+        String txId = root.child("transactions").push().getKey();
+        if (txId == null) {
+            cb.onError("Failed to create transaction id");
+            return;
+        }
+
+        Op<Void> purchase = Op.transaction(root.child("items").child(itemId), current -> {
+            // null is often just "not cached yet"; committing it makes the server
+            // rerun this with the real value (or confirms the item is gone)
+            if (!current.hasChildren()) return Transaction.success(current);
+
+            if (buyerId.equals(current.child("authorId").getValue())
+                    || Boolean.FALSE.equals(current.child("available").getValue())) {
+                return Transaction.abort();
+            }
+            current.child("available").setValue(false);
+            current.child("buyerId").setValue(buyerId);
+            current.child("transactionId").setValue(txId);
+            // cleared when the seller completes the transaction
+            current.child("pendingTransactionId").setValue(txId);
+            return Transaction.success(current);
+        }).then(item -> {
+            // committed as null: the item is gone
+            if (item == null || !item.exists()) return Op.error(new Op.Aborted(null));
+            return fanOut(root, txId, buyerId, item);
+        });
+        purchase.timeout(CLAIM_TIMEOUT_MS).task().addOnFailureListener(e -> {
+            if (e instanceof TimeoutException) cb.onPending();
+        });
+        purchase.task().addOnCompleteListener(task -> {
+            if (task.isSuccessful()) {
+                cb.onStarted(txId);
+                return;
+            }
+            Exception ex = task.getException();
+            if (ex instanceof Op.Aborted) {
+                // current is the item as it stands on the server
+                DataSnapshot item = ((Op.Aborted) ex).current;
+                if (item == null || !item.exists()) {
+                    cb.onRejected("Item no longer exists");
+                } else {
+                    boolean own = buyerId.equals(item.child("authorId").getValue());
+                    cb.onRejected(own ? "You cannot buy your own item" : "Item is no longer available");
+                }
+                return;
+            }
+            String msg = ex != null ? ex.getMessage() : "";
+            Log.e(TAG, "Purchase failed: " + msg, ex);
+            cb.onError(msg != null ? msg : "");
+        });
+    }
+
+    // the claimed item goes back on sale if the records can't be written
+    private static Op<Void> fanOut(DatabaseReference root, String txId, String buyerId,
+                                   DataSnapshot itemSnap) {
+        Item item = SnapshotMappers.item(itemSnap.getKey(), itemSnap.getValue());
+        String sellerId = item.authorId;
+
+        Map<String, Object> tx = new HashMap<>();
+        tx.put("itemId", item.id);
+        tx.put("buyerId", buyerId);
+        tx.put("sellerId", sellerId);
+        tx.put("status", "pending");
+        // amount (cents) — may be null for free items
+        if (item.priceCents != null) tx.put("amountCents", item.priceCents);
+        tx.put("createdAt", ServerValue.TIMESTAMP);
+        tx.put("itemTitle", item.title);
+
+        Map<String, Object> updates = new HashMap<>();
+        updates.put("/transactions/" + txId, tx);
+        updates.put("/user-transactions/" + buyerId + "/" + txId, true);
+        if (sellerId != null) {
+            updates.put("/user-transactions/" + sellerId + "/" + txId, true);
+            // the item stays in the seller's index (My Items lists sold items too);
+            // re-asserting it here also backfills items posted before the index existed
+            updates.put("/user-items/" + sellerId + "/" + item.id, true);
+        }
+        // remove from category listing so buyers browsing don't see it
+        if (item.categoryId != null) {
+            updates.put("/category-items/" + item.categoryId + "/" + item.id, null);
+            ItemSummary.putCountDelta(updates, item.categoryId, -1);
+        }
+
+        return Op.of(DbMetrics.update(root, updates)).fallback(e -> {
+            release(root.child("items").child(item.id), txId);
+            return Op.error(e);
+        });
+    }
+
+    // puts the item back on sale, unless something else has happened to it since
+    private static void release(DatabaseReference itemRef, String txId) {
+        Op.transaction(itemRef, current -> {
+            if (!current.hasChildren()) return Transaction.success(current);
+            if (!txId.equals(current.child("transactionId").getValue())) return Transaction.abort();
+            current.child("available").setValue(true);
+            current.child("buyerId").setValue(null);
+            current.child("transactionId").setValue(null);
+            current.child("pendingTransactionId").setValue(null);
+            return Transaction.success(current);
+        }).task().addOnFailureListener(e -> {
+            if (!(e instanceof Op.Aborted)) Log.e(TAG, "Failed to release item: " + e.getMessage());
+        });
+    }
+}
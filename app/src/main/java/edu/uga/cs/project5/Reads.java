@@ -0,0 +1,200 @@
+package edu.uga.cs.project5;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.Query;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * One-shot reads with a bounded wait. Each read runs under a {@link Policy}:
+ *  - deadline: after deadlineMs the read gives up
+ *  - fallback: on giving up (or an error), the last value this read returned is
+ *    used instead if it is at most maxStaleMs old; the Result says how old, so
+ *    the screen can show it
+ *
+ * A read is sent once. Every get() goes over the same connection, so a second
+ * copy of a slow one would wait behind the same socket, and errors such as
+ * permission denied won't change on a retry.
+ *
+ * Last values are kept in memory per cache key (the policy name and the path,
+ * unless the caller passes a key, e.g. for a query with a cursor).
+ *
+ * Main thread only.
+ */
+public final class Reads {
+
+    /** Deadline and fallback for one kind of read. */
+    public static final class Policy {
+        public static final long NO_FALLBACK = -1;
+
+        final String name;
+        final long deadlineMs;
+        final long maxStaleMs;    // NO_FALLBACK: fail instead of using an old value
+
+        public Policy(@NonNull String name, long deadlineMs, long maxStaleMs) {
+            this.name = name;
+            this.deadlineMs = deadlineMs;
+            this.maxStaleMs = maxStaleMs;
+        }
+    }
+
+    /** Display names; the caller has its own fallback (uid) if there is none. */
+    public static final Policy PROFILE = new Policy("profile", 4_000, Policy.NO_FALLBACK);
+    /** Checks before deleting or renaming; these must see the server's current value. */
+    public static final Policy CHECK = new Policy("check", 8_000, Policy.NO_FALLBACK);
+    /** Browsing; a copy from earlier in the session beats a spinner. */
+    public static final Policy LISTING = new Policy("listing", 5_000, 30 * 60_000L);
+    /** Housekeeping nobody waits on. */
+    public static final Policy BACKGROUND = new Policy("background", 15_000, Policy.NO_FALLBACK);
+
+    public static final class Result {
+        @Nullable public final DataSnapshot snapshot;
+        public final boolean stale;
+        /** How old the value is; 0 when it came from the server for this read. */
+        public final long ageMs;
+
+        Result(@Nullable DataSnapshot snapshot, boolean stale, long ageMs) {
+            this.snapshot = snapshot;
+            this.stale = stale;
+            this.ageMs = ageMs;
+        }
+    }
+
+    private static final int CACHE_SIZE = 256;
+    private static final Handler MAIN = new Handler(Looper.getMainLooper());
+
+    private static final class Cached {
+        final DataSnapshot snapshot;
+        final long at; // elapsedRealtime
+
+        Cached(DataSnapshot snapshot, long at) {
+            this.snapshot = snapshot;
+            this.at = at;
+        }
+    }
+
+    // last value per cache key, least recently used dropped first
+    private static final Map<String, Cached> cache = new LinkedHashMap<String, Cached>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Cached> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    // per policy: reads, reads that failed, deadlines hit, old values served
+    private static final Map<String, long[]> stats = new TreeMap<>();
+    private static final int READS = 0, FAILED = 1, TIMED_OUT = 2, STALE = 3;
+
+    private Reads() { }
+
+    @NonNull
+    public static Op<Result> get(@NonNull Query q, @NonNull Policy p) {
+        return get(q, null, p);
+    }
+
+    /** key replaces the path as the cache key, for queries the path doesn't identify. */
+    @NonNull
+    public static Op<Result> get(@NonNull Query q, @Nullable String key, @NonNull Policy p) {
+        return Op.of(new Read(q, p.name + " " + (key != null ? key : DbMetrics.rawPath(q)), p).start());
+    }
+
+    private static final class Read {
+        final Query query;
+        final String key;
+        final Policy policy;
+        final TaskCompletionSource<Result> out = new TaskCompletionSource<>();
+        final long[] counters;
+        boolean done = false;
+        final Runnable expire = () -> giveUp(new TimeoutException(
+                String.format(Locale.ROOT, "no response in %.1fs", Read.this.policy.deadlineMs / 1000.0)));
+
+        Read(Query query, String key, Policy policy) {
+            this.query = query;
+            this.key = key;
+            this.policy = policy;
+            this.counters = counters(policy.name);
+        }
+
+        Task<Result> start() {
+            counters[READS]++;
+            MAIN.postDelayed(expire, policy.deadlineMs);
+            DbMetrics.get(query).addOnCompleteListener(t -> {
+                if (done) return;
+                if (t.isSuccessful()) {
+                    DataSnapshot snap = t.getResult();
+                    if (snap != null) cache.put(key, new Cached(snap, SystemClock.elapsedRealtime()));
+                    finish();
+                    out.trySetResult(new Result(snap, false, 0));
+                } else {
+                    // no point waiting for the deadline
+                    counters[FAILED]++;
+                    Exception e = t.getException();
+                    giveUp(e != null ? e : new IllegalStateException("read failed"));
+                }
+            });
+            return out.getTask();
+        }
+
+        private void giveUp(Exception e) {
+            if (done) return;
+            if (e instanceof TimeoutException) counters[TIMED_OUT]++;
+            finish();
+            Cached c = policy.maxStaleMs >= 0 ? cache.get(key) : null;
+            long age = c != null ? SystemClock.elapsedRealtime() - c.at : 0;
+            if (c != null && age <= policy.maxStaleMs) {
+                counters[STALE]++;
+                out.trySetResult(new Result(c.snapshot, true, Math.max(1, age)));
+            } else {
+                out.trySetException(e);
+            }
+        }
+
+        private void finish() {
+            done = true;
+            MAIN.removeCallbacks(expire);
+        }
+    }
+
+    private static long[] counters(String policy) {
+        long[] c = stats.get(policy);
+        if (c == null) {
+            c = new long[4];
+            stats.put(policy, c);
+        }
+        return c;
+    }
+
+    /** "saved copy from 3 min ago" style age for the UI. */
+    @NonNull
+    public static String describeAge(long ageMs) {
+        long s = ageMs / 1000;
+        if (s < 60) return "just now";
+        if (s < 3600) return (s / 60) + " min ago";
+        return (s / 3600) + " h ago";
+    }
+
+    /** One line per policy, for MainActivity's dumpsys report. */
+    @NonNull
+    public static String report() {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, long[]> e : stats.entrySet()) {
+            long[] c = e.getValue();
+            sb.append(String.format(Locale.ROOT, "%s: reads=%d failed=%d timed-out=%d stale-served=%d\n",
+                    e.getKey(), c[READS], c[FAILED], c[TIMED_OUT], c[STALE]));
+        }
+        return sb.length() == 0 ? "no reads yet\n" : sb.toString();
+    }
+}
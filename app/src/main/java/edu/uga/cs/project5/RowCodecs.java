@@ -0,0 +1,46 @@
+package edu.uga.cs.project5;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Map;
+
+/**
+ * CatalogCache codecs for the row types. Kept out of the row classes so those
+ * stay plain Java (the benchmarks module compiles them without Android).
+ * Rows are stored as their model's raw map and rebuilt for currentUid when read back.
+ */
+public final class RowCodecs {
+
+    private RowCodecs() { }
+
+    public static final CatalogCache.Codec<CategoryRow> CATEGORIES = new CatalogCache.Codec<CategoryRow>() {
+        @Override public String key(@NonNull CategoryRow row) { return row.category.id; }
+        @NonNull @Override public Map<String, Object> encode(@NonNull CategoryRow row) { return SnapshotMappers.toMap(row.category); }
+        @Override public CategoryRow decode(@NonNull String key, @NonNull Map<String, Object> raw) {
+            return CategoryRow.of(SnapshotMappers.category(key, raw));
+        }
+    };
+
+    @NonNull
+    public static CatalogCache.Codec<ItemRow> items(@Nullable String currentUid) {
+        return new CatalogCache.Codec<ItemRow>() {
+            @Override public String key(@NonNull ItemRow row) { return row.item.id; }
+            @NonNull @Override public Map<String, Object> encode(@NonNull ItemRow row) { return SnapshotMappers.toMap(row.item); }
+            @Override public ItemRow decode(@NonNull String key, @NonNull Map<String, Object> raw) {
+                return ItemRow.of(SnapshotMappers.item(key, raw), currentUid);
+            }
+        };
+    }
+
+    @NonNull
+    public static CatalogCache.Codec<TransactionRow> transactions(@Nullable String currentUid) {
+        return new CatalogCache.Codec<TransactionRow>() {
+            @Override public String key(@NonNull TransactionRow row) { return row.tx.id; }
+            @NonNull @Override public Map<String, Object> encode(@NonNull TransactionRow row) { return SnapshotMappers.toMap(row.tx); }
+            @Override public TransactionRow decode(@NonNull String key, @NonNull Map<String, Object> raw) {
+                return TransactionRow.of(SnapshotMappers.transaction(key, raw), currentUid);
+            }
+        };
+    }
+}
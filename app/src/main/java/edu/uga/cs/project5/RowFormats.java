@@ -0,0 +1,45 @@
+package edu.uga.cs.project5;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+
+/**
+ * Shared text formatting for list rows. Rows are built on the DataPipeline
+ * thread, so the date format is cached per thread instead of being created
+ * for every bind.
+ */
+public final class RowFormats {
+
+    private static final ThreadLocal<SimpleDateFormat> DATE_TIME = new ThreadLocal<SimpleDateFormat>() {
+        @Override
+        protected SimpleDateFormat initialValue() {
+            return new SimpleDateFormat("MMM d, yyyy HH:mm", Locale.getDefault());
+        }
+    };
+
+    private RowFormats() { }
+
+    @NonNull
+    public static String dateTime(long millis) {
+        return DATE_TIME.get().format(new Date(millis));
+    }
+
+    /** "FREE", "$12.50" or "—", as shown on item cards and in the purchase dialog. */
+    @NonNull
+    public static String price(@Nullable Boolean isFree, @Nullable Long priceCents) {
+        if (isFree != null && isFree) return "FREE";
+        if (priceCents == null) return "—";
+        return String.format(Locale.getDefault(), "$%.2f", priceCents / 100.0);
+    }
+
+    /** "1 item", "12 items"; negative counts (drift on old categories) show as 0. */
+    @NonNull
+    public static String itemCount(long n) {
+        if (n < 0) n = 0;
+        return n == 1 ? "1 item" : n + " items";
+    }
+}
@@ -0,0 +1,81 @@
+package edu.uga.cs.project5;
+
+import android.os.Bundle;
+import android.text.Editable;
+import android.text.TextWatcher;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.EditText;
+import android.widget.TextView;
+import android.widget.Toast;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.fragment.app.Fragment;
+import androidx.lifecycle.ViewModelProvider;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * Keyword search over all listings (titles and descriptions), as you type.
+ * Opened from the category list.
+ */
+public class SearchFragment extends Fragment {
+
+    private ItemAdapter adapter;
+    private SearchViewModel viewModel;
+    private EditText etSearch;
+    private TextView tvEmpty;
+    private View progress;
+
+    @Nullable @Override
+    public View onCreateView(@NonNull LayoutInflater inflater,
+                             @Nullable ViewGroup container,
+                             @Nullable Bundle savedInstanceState) {
+        View root = inflater.inflate(R.layout.fragment_search, container, false);
+        etSearch = root.findViewById(R.id.etSearch);
+        tvEmpty = root.findViewById(R.id.tvSearchEmpty);
+        progress = root.findViewById(R.id.progress);
+
+        RecyclerView rv = root.findViewById(R.id.rvSearchResults);
+        rv.setLayoutManager(new LinearLayoutManager(requireContext()));
+        adapter = new ItemAdapter();
+        rv.setAdapter(adapter);
+        adapter.setOnItemBuyListener(item -> ItemsListFragment.confirmPurchase(this, item));
+
+        // scoped to this screen: the listing listeners go when search is closed
+        viewModel = new ViewModelProvider(this).get(SearchViewModel.class);
+        viewModel.getData().observe(getViewLifecycleOwner(), rows -> {
+            if (rows == null) return;
+            adapter.setItems(rows);
+            updateEmpty(rows.isEmpty());
+        });
+        viewModel.getIndexing().observe(getViewLifecycleOwner(), indexing ->
+                progress.setVisibility(Boolean.TRUE.equals(indexing) ? View.VISIBLE : View.GONE));
+        viewModel.getError().observe(getViewLifecycleOwner(), error -> {
+            if (error == null) return;
+            Toast.makeText(requireContext(), "Search failed: " + error.getMessage(), Toast.LENGTH_SHORT).show();
+            viewModel.errorShown();
+        });
+
+        etSearch.setText(viewModel.getQuery());
+        etSearch.addTextChangedListener(new TextWatcher() {
+            @Override public void beforeTextChanged(CharSequence s, int start, int count, int after) { }
+            @Override public void onTextChanged(CharSequence s, int start, int before, int count) { }
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                viewModel.search(s.toString());
+            }
+        });
+        // starts indexing as soon as the screen opens
+        viewModel.search(viewModel.getQuery());
+        return root;
+    }
+
+    private void updateEmpty(boolean noResults) {
+        boolean typed = etSearch.getText() != null && etSearch.getText().toString().trim().length() > 0;
+        tvEmpty.setVisibility(noResults && typed ? View.VISIBLE : View.GONE);
+    }
+}
@@ -0,0 +1,267 @@
+package edu.uga.cs.project5;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Inverted index over listing titles and descriptions. Terms are kept sorted, so
+ * every query word matches as a prefix ("bik" finds "bike" and "bikes") with one
+ * range lookup. Documents are added, replaced and removed one at a time as items
+ * change; nothing is rebuilt per change.
+ *
+ * Results must match every query word. They are ranked by hits (a title hit
+ * counts {@link #TITLE_WEIGHT} times), then newest first.
+ *
+ * Internally each document gets an int number and postings are append-only int
+ * arrays, so a query is a scan over primitive arrays with no per-match allocation.
+ * A replaced or removed document just gets a new number (or none); the stale
+ * postings are skipped and dropped by a compaction once they outnumber live ones.
+ *
+ * Not thread-safe; ListingSearch only touches it on the DataPipeline thread.
+ */
+public final class SearchIndex {
+
+    static final int TITLE_WEIGHT = 3;
+
+    private static final class Postings {
+        int[] docs = new int[4];
+        int[] hits = new int[4];
+        int size;
+
+        void add(int doc, int h) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                hits = Arrays.copyOf(hits, size * 2);
+            }
+            docs[size] = doc;
+            hits[size] = h;
+            size++;
+        }
+    }
+
+    private final TreeMap<String, Postings> postings = new TreeMap<>();
+    private final Map<String, Integer> docOf = new HashMap<>();
+
+    // per document number; ids[d] == null once d is stale
+    private String[] ids = new String[1024];
+    private long[] created = new long[1024];
+    private Map<String, Integer>[] terms = newTermsArray(1024);
+    private int nextDoc = 0;
+    private int stale = 0;
+
+    // query scratch, sized with the doc arrays
+    private int[] epoch = new int[1024];
+    private int[] matched = new int[1024];
+    private int[] score = new int[1024];
+    private int queryEpoch = 0;
+
+    /** Adds the document, replacing what was indexed under id before. */
+    public void put(@NonNull String id, @Nullable String title, @Nullable String description,
+                    long createdAt) {
+        remove(id);
+        Map<String, Integer> docTerms = new HashMap<>();
+        for (String t : tokenize(title)) docTerms.merge(t, TITLE_WEIGHT, Integer::sum);
+        for (String t : tokenize(description)) docTerms.merge(t, 1, Integer::sum);
+        index(id, docTerms, createdAt);
+    }
+
+    public void remove(@NonNull String id) {
+        Integer d = docOf.remove(id);
+        if (d == null) return;
+        ids[d] = null;
+        terms[d] = null;
+        stale++;
+        if (stale > 1024 && stale > docOf.size()) compact();
+    }
+
+    public boolean contains(@NonNull String id) {
+        return docOf.containsKey(id);
+    }
+
+    public int size() {
+        return docOf.size();
+    }
+
+    public void clear() {
+        postings.clear();
+        docOf.clear();
+        Arrays.fill(ids, 0, nextDoc, null);
+        Arrays.fill(terms, 0, nextDoc, null);
+        nextDoc = 0;
+        stale = 0;
+    }
+
+    /** Ids of the best {@code limit} matches, best first. Empty for a query with no words. */
+    @NonNull
+    public List<String> search(@Nullable String query, int limit) {
+        List<String> words = tokenize(query);
+        if (words.isEmpty() || limit <= 0) return Collections.emptyList();
+
+        // longest word first: it usually has the fewest matches, so later words check less
+        Collections.sort(words, (a, b) -> b.length() - a.length());
+
+        int q = ++queryEpoch;
+        int[] candidates = new int[16];
+        int n = 0;
+        for (int w = 0; w < words.size(); w++) {
+            String word = words.get(w);
+            for (Postings p : postings.subMap(word, word + Character.MAX_VALUE).values()) {
+                int[] docs = p.docs;
+                int[] hits = p.hits;
+                for (int i = 0; i < p.size; i++) {
+                    int d = docs[i];
+                    if (ids[d] == null) continue;
+                    if (epoch[d] != q) {
+                        if (w > 0) continue; // missed an earlier word
+                        epoch[d] = q;
+                        matched[d] = 0;
+                        score[d] = 0;
+                        if (n == candidates.length) candidates = Arrays.copyOf(candidates, n * 2);
+                        candidates[n++] = d;
+                    }
+                    // several terms of one doc can match the same word; count the word once
+                    if (matched[d] == w) matched[d] = w + 1;
+                    if (matched[d] == w + 1) score[d] += hits[i];
+                }
+            }
+        }
+
+        // keep only the top `limit` in a min-heap (worst at the root) instead of sorting every match
+        int all = words.size();
+        int[] heap = new int[Math.min(limit, n)];
+        int size = 0;
+        for (int i = 0; i < n; i++) {
+            int d = candidates[i];
+            if (matched[d] != all) continue;
+            if (size < heap.length) {
+                heap[size] = d;
+                siftUp(heap, size++);
+            } else if (better(d, heap[0])) {
+                heap[0] = d;
+                siftDown(heap, size);
+            }
+        }
+        List<String> out = new ArrayList<>(size);
+        while (size > 0) {
+            out.add(ids[heap[0]]);
+            heap[0] = heap[--size];
+            siftDown(heap, size);
+        }
+        Collections.reverse(out);
+        return out;
+    }
+
+    // more hits, then newer
+    private boolean better(int a, int b) {
+        if (score[a] != score[b]) return score[a] > score[b];
+        return created[a] > created[b];
+    }
+
+    private void siftUp(int[] heap, int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!better(heap[parent], heap[i])) break;
+            int t = heap[parent]; heap[parent] = heap[i]; heap[i] = t;
+            i = parent;
+        }
+    }
+
+    private void siftDown(int[] heap, int size) {
+        int i = 0;
+        while (true) {
+            int l = 2 * i + 1;
+            if (l >= size) break;
+            int worst = (l + 1 < size && better(heap[l], heap[l + 1])) ? l + 1 : l;
+            if (!better(heap[i], heap[worst])) break;
+            int t = heap[worst]; heap[worst] = heap[i]; heap[i] = t;
+            i = worst;
+        }
+    }
+
+    private void index(String id, Map<String, Integer> docTerms, long createdAt) {
+        int d = nextDoc++;
+        if (d == ids.length) grow();
+        ids[d] = id;
+        created[d] = createdAt;
+        terms[d] = docTerms;
+        docOf.put(id, d);
+        for (Map.Entry<String, Integer> e : docTerms.entrySet()) {
+            Postings p = postings.get(e.getKey());
+            if (p == null) {
+                p = new Postings();
+                postings.put(e.getKey(), p);
+            }
+            p.add(d, e.getValue());
+        }
+    }
+
+    // renumbers live documents from 0 and drops stale postings
+    private void compact() {
+        int live = docOf.size();
+        String[] oldIds = ids;
+        long[] oldCreated = created;
+        Map<String, Integer>[] oldTerms = terms;
+        int oldNext = nextDoc;
+
+        postings.clear();
+        docOf.clear();
+        int cap = Math.max(1024, Integer.highestOneBit(Math.max(1, live)) * 2);
+        ids = new String[cap];
+        created = new long[cap];
+        terms = newTermsArray(cap);
+        epoch = new int[cap];
+        matched = new int[cap];
+        score = new int[cap];
+        nextDoc = 0;
+        stale = 0;
+        for (int d = 0; d < oldNext; d++) {
+            if (oldIds[d] != null) index(oldIds[d], oldTerms[d], oldCreated[d]);
+        }
+    }
+
+    private void grow() {
+        int cap = ids.length * 2;
+        ids = Arrays.copyOf(ids, cap);
+        created = Arrays.copyOf(created, cap);
+        terms = Arrays.copyOf(terms, cap);
+        epoch = Arrays.copyOf(epoch, cap);
+        matched = Arrays.copyOf(matched, cap);
+        score = Arrays.copyOf(score, cap);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Integer>[] newTermsArray(int n) {
+        return (Map<String, Integer>[]) new Map[n];
+    }
+
+    /** Lower-cased words with accents stripped; anything not a letter or digit separates words. */
+    @NonNull
+    static List<String> tokenize(@Nullable String text) {
+        List<String> out = new ArrayList<>();
+        if (text == null || text.isEmpty()) return out;
+        String folded = Normalizer.normalize(text, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}+", "")
+                .toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= folded.length(); i++) {
+            boolean wordChar = i < folded.length() && Character.isLetterOrDigit(folded.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                out.add(folded.substring(start, i));
+                start = -1;
+            }
+        }
+        return out;
+    }
+}
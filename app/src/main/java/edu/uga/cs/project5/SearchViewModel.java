@@ -0,0 +1,74 @@
+package edu.uga.cs.project5;
+
+import android.app.Application;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.database.DatabaseError;
+
+import java.util.List;
+
+/**
+ * Search results for the search screen. Scoped to SearchFragment: ListingSearch
+ * listens to every category's listing summaries, so it only runs while the screen
+ * is open (and across rotations) and the index is built again the next time search
+ * is opened.
+ */
+public class SearchViewModel extends FeedViewModel<List<ItemRow>> {
+
+    private final MutableLiveData<Boolean> indexing = new MutableLiveData<>(true);
+    @Nullable private ListingSearch search;
+    private String query = "";
+
+    public SearchViewModel(@NonNull Application app) {
+        super(app);
+    }
+
+    /** True until the first full load of listings is indexed. */
+    public LiveData<Boolean> getIndexing() {
+        return indexing;
+    }
+
+    @NonNull
+    public String getQuery() {
+        return query;
+    }
+
+    public void search(@NonNull String q) {
+        query = q;
+        if (search == null) {
+            search = new ListingSearch(FirebaseAuth.getInstance().getUid(), new ListingSearch.Listener() {
+                @Override
+                public void onResults(@NonNull String forQuery, @NonNull List<ItemRow> rows) {
+                    data.setValue(rows);
+                }
+
+                @Override
+                public void onIndexed(int listings) {
+                    indexing.setValue(false);
+                }
+
+                @Override
+                public void onError(@NonNull DatabaseError e) {
+                    indexing.setValue(false);
+                    postError(e);
+                }
+            });
+            search.start();
+        }
+        search.search(q);
+    }
+
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        if (search != null) {
+            search.stop();
+            search = null;
+        }
+    }
+}
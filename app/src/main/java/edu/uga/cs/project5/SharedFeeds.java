@@ -0,0 +1,109 @@
+package edu.uga.cs.project5;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.google.firebase.database.DatabaseError;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One running feed per key (e.g. "categories"), shared by every screen that asks
+ * for it. The first subscriber starts the feed, later ones get its last result
+ * straight away and then the same updates, so the Firebase listener and the
+ * parsing behind it exist once however many screens show the data. When the last
+ * subscriber leaves the feed lingers for a few seconds before it is stopped, so
+ * going back and forth between screens (or a configuration change) doesn't
+ * detach and re-download.
+ *
+ * Main thread only.
+ */
+public final class SharedFeeds {
+
+    private static final long LINGER_MS = 10_000;
+
+    public interface Observer<V> {
+        void onChanged(@NonNull V value);
+        void onError(@NonNull DatabaseError error);
+    }
+
+    /** Builds the feed, wiring its listener to the given sink. Not started yet. */
+    public interface Factory<V> {
+        @NonNull PipelineFeed<?> create(@NonNull Observer<V> sink);
+    }
+
+    public interface Subscription {
+        void close();
+    }
+
+    private static final Handler MAIN = new Handler(Looper.getMainLooper());
+    private static final Map<String, Entry<?>> entries = new HashMap<>();
+
+    private SharedFeeds() { }
+
+    @SuppressWarnings("unchecked")
+    @NonNull
+    public static <V> Subscription subscribe(@NonNull String key, @NonNull Factory<V> factory,
+                                             @NonNull Observer<V> observer) {
+        Entry<V> e = (Entry<V>) entries.get(key);
+        // a cancelled listener won't recover; newcomers get a fresh feed
+        if (e == null || e.failed) {
+            e = new Entry<>(key);
+            entries.put(key, e);
+            e.feed = factory.create(e);
+            e.feed.start();
+        }
+        e.add(observer);
+        Entry<V> entry = e;
+        return () -> entry.remove(observer);
+    }
+
+    private static final class Entry<V> implements Observer<V> {
+        final String key;
+        final List<Observer<V>> observers = new ArrayList<>();
+        PipelineFeed<?> feed;
+        @Nullable V last;
+        boolean failed = false;
+        final Runnable stop = this::stop;
+
+        Entry(String key) {
+            this.key = key;
+        }
+
+        void add(Observer<V> o) {
+            MAIN.removeCallbacks(stop);
+            observers.add(o);
+            if (last != null) o.onChanged(last);
+        }
+
+        void remove(Observer<V> o) {
+            if (!observers.remove(o)) return;
+            if (observers.isEmpty()) MAIN.postDelayed(stop, LINGER_MS);
+        }
+
+        void stop() {
+            if (!observers.isEmpty()) return;
+            feed.stop();
+            if (entries.get(key) == this) entries.remove(key);
+        }
+
+        @Override
+        public void onChanged(@NonNull V value) {
+            last = value;
+            // copy: an observer may unsubscribe while being notified
+            for (Observer<V> o : new ArrayList<>(observers)) o.onChanged(value);
+        }
+
+        @Override
+        public void onError(@NonNull DatabaseError error) {
+            failed = true;
+            for (Observer<V> o : new ArrayList<>(observers)) o.onError(error);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package edu.uga.cs.project5;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Hand-written mapping from the raw value tree ({@code DataSnapshot.getValue()},
+ * i.e. nested Maps/Strings/Numbers/Booleans) to the model classes, replacing
+ * {@code getValue(Item.class)} and friends, which go through Firebase's
+ * reflection-based CustomClassMapper for every record.
+ *
+ * Numbers can arrive as Long or Double (e.g. server timestamps), so every numeric
+ * field is coerced. Transactions are written with "amountCents" by
+ * Purchases.buy while the model field is "amount"; both are accepted.
+ */
+public final class SnapshotMappers {
+
+    private SnapshotMappers() { }
+
+    @Nullable
+    public static Item item(@Nullable String key, @Nullable Object raw) {
+        if (!(raw instanceof Map)) return null;
+        Map<?, ?> m = (Map<?, ?>) raw;
+        Item it = new Item();
+        it.id = key;
+        it.title = asString(m.get("title"));
+        it.description = asString(m.get("description"));
+        Long createdAt = asLong(m.get("createdAt"));
+        if (createdAt != null) it.createdAt = createdAt;
+        Boolean isFree = asBoolean(m.get("isFree"));
+        if (isFree != null) it.isFree = isFree;
+        it.priceCents = asLong(m.get("priceCents"));
+        it.authorId = asString(m.get("authorId"));
+        Boolean available = asBoolean(m.get("available"));
+        if (available != null) it.available = available;
+        it.categoryId = asString(m.get("categoryId"));
+        it.transactionId = asString(m.get("transactionId"));
+        it.pendingTransactionId = asString(m.get("pendingTransactionId"));
+        it.createdByName = asString(m.get("createdByName"));
+        it.category = asString(m.get("category"));
+        return it;
+    }
+
+    @Nullable
+    public static Transaction transaction(@Nullable String key, @Nullable Object raw) {
+        if (!(raw instanceof Map)) return null;
+        Map<?, ?> m = (Map<?, ?>) raw;
+        Transaction t = new Transaction();
+        t.id = key;
+        t.itemId = asString(m.get("itemId"));
+        t.buyerId = asString(m.get("buyerId"));
+        t.sellerId = asString(m.get("sellerId"));
+        t.status = asString(m.get("status"));
+        t.createdAt = asLong(m.get("createdAt"));
+        t.itemTitle = asString(m.get("itemTitle"));
+        t.completedAt = asLong(m.get("completedAt"));
+        Long amount = asLong(m.get("amountCents"));
+        t.amount = amount != null ? amount : asLong(m.get("amount"));
+        return t;
+    }
+
+    @Nullable
+    public static Category category(@Nullable String key, @Nullable Object raw) {
+        if (!(raw instanceof Map)) return null;
+        Map<?, ?> m = (Map<?, ?>) raw;
+        Category c = new Category();
+        c.id = key;
+        c.name = asString(m.get("name"));
+        c.createdBy = asString(m.get("createdBy"));
+        c.createdByName = asString(m.get("createdByName"));
+        Long createdAt = asLong(m.get("createdAt"));
+        if (createdAt != null) c.createdAt = createdAt;
+        // the counter is only trusted once the category has been recounted (ItemSummary)
+        if (Boolean.TRUE.equals(m.get("itemCountExact"))) c.itemCount = asLong(m.get("itemCount"));
+        return c;
+    }
+
+    /** The inverse of {@link #item}, for caches that store the raw value tree. */
+    @NonNull
+    public static Map<String, Object> toMap(@NonNull Item it) {
+        Map<String, Object> m = new HashMap<>();
+        putIfNotNull(m, "title", it.title);
+        putIfNotNull(m, "description", it.description);
+        putIfNotNull(m, "createdAt", it.createdAt);
+        putIfNotNull(m, "isFree", it.isFree);
+        putIfNotNull(m, "priceCents", it.priceCents);
+        putIfNotNull(m, "authorId", it.authorId);
+        putIfNotNull(m, "available", it.available);
+        putIfNotNull(m, "categoryId", it.categoryId);
+        putIfNotNull(m, "transactionId", it.transactionId);
+        putIfNotNull(m, "pendingTransactionId", it.pendingTransactionId);
+        putIfNotNull(m, "createdByName", it.createdByName);
+        putIfNotNull(m, "category", it.category);
+        return m;
+    }
+
+    @NonNull
+    public static Map<String, Object> toMap(@NonNull Transaction t) {
+        Map<String, Object> m = new HashMap<>();
+        putIfNotNull(m, "itemId", t.itemId);
+        putIfNotNull(m, "buyerId", t.buyerId);
+        putIfNotNull(m, "sellerId", t.sellerId);
+        putIfNotNull(m, "status", t.status);
+        putIfNotNull(m, "createdAt", t.createdAt);
+        putIfNotNull(m, "itemTitle", t.itemTitle);
+        putIfNotNull(m, "completedAt", t.completedAt);
+        putIfNotNull(m, "amountCents", t.amount);
+        return m;
+    }
+
+    @NonNull
+    public static Map<String, Object> toMap(@NonNull Category c) {
+        Map<String, Object> m = new HashMap<>();
+        putIfNotNull(m, "name", c.name);
+        putIfNotNull(m, "createdBy", c.createdBy);
+        putIfNotNull(m, "createdByName", c.createdByName);
+        m.put("createdAt", c.createdAt);
+        if (c.itemCount != null) {
+            m.put("itemCount", c.itemCount);
+            m.put("itemCountExact", true);
+        }
+        return m;
+    }
+
+    @Nullable
+    public static Long asLong(@Nullable Object v) {
+        if (v instanceof Long) return (Long) v;
+        if (v instanceof Number) return ((Number) v).longValue();
+        return null;
+    }
+
+    @Nullable
+    public static Boolean asBoolean(@Nullable Object v) {
+        return v instanceof Boolean ? (Boolean) v : null;
+    }
+
+    @Nullable
+    public static String asString(@Nullable Object v) {
+        return v instanceof String ? (String) v : null;
+    }
+
+    private static void putIfNotNull(Map<String, Object> m, String k, @Nullable Object v) {
+        if (v != null) m.put(k, v);
+    }
+}
@@ -0,0 +1,18 @@
+package edu.uga.cs.project5;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.google.firebase.database.DataSnapshot;
+
+/**
+ * Turns one child snapshot into a model object, or null to leave it out.
+ */
+public interface SnapshotParser<T> {
+
+    SnapshotParser<Item> ITEM = s -> SnapshotMappers.item(s.getKey(), s.getValue());
+    SnapshotParser<Transaction> TRANSACTION = s -> SnapshotMappers.transaction(s.getKey(), s.getValue());
+    SnapshotParser<Category> CATEGORY = s -> SnapshotMappers.category(s.getKey(), s.getValue());
+
+    @Nullable T parse(@NonNull DataSnapshot snapshot);
+}
@@ -0,0 +1,97 @@
+package edu.uga.cs.project5;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Values addressable by key and kept sorted by a comparator (ties broken by key),
+ * so one child event costs a binary search and an array shift instead of
+ * re-sorting the whole list. Not thread-safe; confine each instance to one thread.
+ */
+public class SortedModel<T> {
+
+    private final Comparator<T> order;
+    private final Map<String, T> byKey = new HashMap<>();
+    private final ArrayList<String> keys = new ArrayList<>();
+    private final ArrayList<T> values = new ArrayList<>();
+
+    public SortedModel(@NonNull Comparator<T> order) {
+        this.order = order;
+    }
+
+    /** Inserts or replaces the value for key and returns its new position. */
+    public int put(@NonNull String key, @NonNull T value) {
+        T old = byKey.put(key, value);
+        if (old != null) {
+            int at = search(key, old);
+            if (at >= 0) {
+                keys.remove(at);
+                values.remove(at);
+            }
+        }
+        int pos = -(search(key, value) + 1);
+        keys.add(pos, key);
+        values.add(pos, value);
+        return pos;
+    }
+
+    @Nullable
+    public T remove(@NonNull String key) {
+        T old = byKey.remove(key);
+        if (old != null) {
+            int at = search(key, old);
+            if (at >= 0) {
+                keys.remove(at);
+                values.remove(at);
+            }
+        }
+        return old;
+    }
+
+    @Nullable
+    public T get(@NonNull String key) {
+        return byKey.get(key);
+    }
+
+    public boolean containsKey(@NonNull String key) {
+        return byKey.containsKey(key);
+    }
+
+    public int size() {
+        return values.size();
+    }
+
+    public void clear() {
+        byKey.clear();
+        keys.clear();
+        values.clear();
+    }
+
+    /** An immutable copy in sorted order, safe to hand to another thread. */
+    @NonNull
+    public List<T> snapshot() {
+        return Collections.unmodifiableList(new ArrayList<>(values));
+    }
+
+    // index of (key, value) if present, otherwise -(insertion point + 1)
+    private int search(String key, T value) {
+        int lo = 0;
+        int hi = values.size() - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int c = order.compare(values.get(mid), value);
+            if (c == 0) c = keys.get(mid).compareTo(key);
+            if (c < 0) lo = mid + 1;
+            else if (c > 0) hi = mid - 1;
+            else return mid;
+        }
+        return -(lo + 1);
+    }
+}
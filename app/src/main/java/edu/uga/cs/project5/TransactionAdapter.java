@@ -7,15 +7,26 @@ import android.widget.Button;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
-import java.text.SimpleDateFormat;
-import java.util.ArrayList;
-import java.util.Date;
 import java.util.List;
-import java.util.Locale;
+import java.util.Objects;
 
-public class TransactionAdapter extends RecyclerView.Adapter<TransactionAdapter.Holder> {
+public class TransactionAdapter extends ListAdapter<TransactionRow, TransactionAdapter.Holder> {
+
+    private static final DiffUtil.ItemCallback<TransactionRow> DIFF = new DiffUtil.ItemCallback<TransactionRow>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull TransactionRow a, @NonNull TransactionRow b) {
+            return Objects.equals(a.tx.id, b.tx.id);
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull TransactionRow a, @NonNull TransactionRow b) {
+            return a.sameContentAs(b);
+        }
+    };
 
     // Listener with both click types (row + complete button)
     public interface OnTransactionActionListener {
@@ -23,24 +34,21 @@ public class TransactionAdapter extends RecyclerView.Adapter<TransactionAdapter.
         void onCompleteClicked(Transaction tx);
     }
 
-    private final List<Transaction> items = new ArrayList<>();
     private OnTransactionActionListener actionListener;
 
-    // For marking "Buyer" / "Seller" in the UI
-    private String currentUserId;
+    public TransactionAdapter() {
+        super(DIFF);
+    }
 
     public void setOnTransactionActionListener(OnTransactionActionListener l) {
         this.actionListener = l;
     }
 
-    public void setCurrentUserId(String uid) {
-        this.currentUserId = uid;
-    }
-
-    public void setItems(List<Transaction> list) {
-        items.clear();
-        if (list != null) items.addAll(list);
-        notifyDataSetChanged();
+    // Diffed against the current list off the main thread; only changed rows are rebound.
+    // Pass a new list each time (ListAdapter ignores the same instance).
+    // Rows already carry the "Buyer"/"Seller" role for the signed-in user.
+    public void setItems(List<TransactionRow> rows) {
+        submitList(rows);
     }
 
     @NonNull
@@ -48,70 +56,44 @@ public class TransactionAdapter extends RecyclerView.Adapter<TransactionAdapter.
     public Holder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
         View v = LayoutInflater.from(parent.getContext())
                 .inflate(R.layout.item_transaction, parent, false);
-        return new Holder(v);
-    }
-
-    @Override
-    public void onBindViewHolder(@NonNull Holder holder, int position) {
-        Transaction t = items.get(position);
-
-        holder.tvId.setText(t.id != null ? "Item: " + t.itemTitle : "—");
-        holder.tvStatus.setText("Status: " + (t.status != null ? t.status : "—"));
-
-        if (t.createdAt != null) {
-            String s = new SimpleDateFormat("MMM d, yyyy HH:mm", Locale.getDefault())
-                    .format(new Date(t.createdAt));
-            holder.tvTime.setText("Created: " + s);
-        } else {
-            holder.tvTime.setText("Created: —");
-        }
-
-        // Hide complete button for completed transactions
-        if (t.status != null && t.status.equalsIgnoreCase("completed")) {
-            holder.btnComplete.setVisibility(View.GONE);
-        } else {
-            holder.btnComplete.setVisibility(View.VISIBLE);
-        }
-
-        // Mark role: Buyer or Seller
-        if (currentUserId != null) {
-            String roleText = "";
-            if (t.buyerId != null && currentUserId.equals(t.buyerId)) {
-                roleText = "You are: Buyer";
-                holder.btnComplete.setVisibility(View.GONE);
-            } else if (t.sellerId != null && currentUserId.equals(t.sellerId)) {
-                roleText = "You are: Seller";
-            }
-
-            if (!roleText.isEmpty()) {
-                holder.tvRole.setText(roleText);
-                holder.tvRole.setVisibility(View.VISIBLE);
-            } else {
-                holder.tvRole.setText("");
-                holder.tvRole.setVisibility(View.GONE);
-            }
-        } else {
-            holder.tvRole.setText("");
-            holder.tvRole.setVisibility(View.GONE);
-        }
+        Holder holder = new Holder(v);
 
         // Row click
-        holder.itemView.setOnClickListener(v -> {
-            if (actionListener != null) {
-                actionListener.onTransactionClicked(t);
+        holder.itemView.setOnClickListener(x -> {
+            int pos = holder.getBindingAdapterPosition();
+            if (pos != RecyclerView.NO_POSITION && actionListener != null) {
+                actionListener.onTransactionClicked(getItem(pos).tx);
             }
         });
 
         // Complete button click
-        holder.btnComplete.setOnClickListener(v -> {
-            if (actionListener != null) {
-                actionListener.onCompleteClicked(t);
+        holder.btnComplete.setOnClickListener(x -> {
+            int pos = holder.getBindingAdapterPosition();
+            if (pos != RecyclerView.NO_POSITION && actionListener != null) {
+                actionListener.onCompleteClicked(getItem(pos).tx);
             }
         });
+        return holder;
     }
 
     @Override
-    public int getItemCount() { return items.size(); }
+    public void onBindViewHolder(@NonNull Holder holder, int position) {
+        // text is precomputed in TransactionRow
+        TransactionRow row = getItem(position);
+
+        holder.tvId.setText(row.title);
+        holder.tvStatus.setText(row.status);
+        holder.tvTime.setText(row.time);
+        holder.btnComplete.setVisibility(row.showComplete ? View.VISIBLE : View.GONE);
+
+        if (row.role != null) {
+            holder.tvRole.setText(row.role);
+            holder.tvRole.setVisibility(View.VISIBLE);
+        } else {
+            holder.tvRole.setText("");
+            holder.tvRole.setVisibility(View.GONE);
+        }
+    }
 
     static class Holder extends RecyclerView.ViewHolder {
 
@@ -0,0 +1,80 @@
+package edu.uga.cs.project5;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.FirebaseDatabase;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The given user's transactions, resolved through /user-transactions/{uid}
+ * (written by Purchases.buy) and grouped by
+ * lower-cased status. Each group is sorted most recent first. Grouping runs
+ * on the DataPipeline thread along with parsing, row building and sorting.
+ * The newest rows are kept in the CatalogCache, so the tabs open with the last
+ * known list while the live one loads.
+ */
+public class TransactionFeed extends IndexedFeed<TransactionRow> {
+
+    public interface Listener {
+        void onChanged(@NonNull Map<String, List<TransactionRow>> byStatus);
+        void onError(@NonNull DatabaseError error);
+    }
+
+    private static final int CACHE_LIMIT = 200;
+
+    private final Listener txListener;
+
+    public TransactionFeed(@NonNull Context context, @NonNull String uid, @NonNull Listener listener) {
+        super("user-transactions",
+                FirebaseDatabase.getInstance().getReference("user-transactions").child(uid),
+                FirebaseDatabase.getInstance().getReference("transactions"),
+                s -> TransactionRow.of(SnapshotParser.TRANSACTION.parse(s), uid),
+                TransactionRow.NEWEST_FIRST,
+                null);
+        this.txListener = listener;
+        setCache(CatalogCache.get(context), "user-transactions/" + uid,
+                RowCodecs.transactions(uid), CACHE_LIMIT);
+    }
+
+    @Override
+    protected void publish(@NonNull List<TransactionRow> sorted) {
+        // sorted already, so each group keeps that order
+        Map<String, List<TransactionRow>> byStatus = new HashMap<>();
+        for (TransactionRow t : sorted) {
+            if (t.tx.status == null) continue;
+            String key = t.tx.status.toLowerCase(Locale.ROOT);
+            List<TransactionRow> group = byStatus.get(key);
+            if (group == null) {
+                group = new ArrayList<>();
+                byStatus.put(key, group);
+            }
+            group.add(t);
+        }
+        for (Map.Entry<String, List<TransactionRow>> e : byStatus.entrySet()) {
+            e.setValue(Collections.unmodifiableList(e.getValue()));
+        }
+        Map<String, List<TransactionRow>> result = Collections.unmodifiableMap(byStatus);
+        deliver(() -> txListener.onChanged(result));
+    }
+
+    @Override
+    protected void onError(@NonNull DatabaseError error) {
+        if (isStarted()) txListener.onError(error);
+    }
+
+    @NonNull
+    public static List<TransactionRow> withStatus(@NonNull Map<String, List<TransactionRow>> byStatus,
+                                               @NonNull String status) {
+        List<TransactionRow> group = byStatus.get(status.toLowerCase(Locale.ROOT));
+        return group != null ? group : Collections.emptyList();
+    }
+}
@@ -0,0 +1,66 @@
+package edu.uga.cs.project5;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Comparator;
+import java.util.Objects;
+
+/**
+ * Display-ready text for one transaction row, built on the DataPipeline thread
+ * for the signed-in user (the role label and Complete button depend on it).
+ */
+public final class TransactionRow {
+
+    public static final Comparator<TransactionRow> NEWEST_FIRST = (a, b) -> Long.compare(
+            b.tx.createdAt != null ? b.tx.createdAt : 0L,
+            a.tx.createdAt != null ? a.tx.createdAt : 0L);
+
+    public final Transaction tx;
+    public final String title;
+    public final String status;
+    public final String time;
+    @Nullable public final String role;   // null hides the label
+    public final boolean showComplete;
+
+    private TransactionRow(Transaction tx, String title, String status, String time,
+                           @Nullable String role, boolean showComplete) {
+        this.tx = tx;
+        this.title = title;
+        this.status = status;
+        this.time = time;
+        this.role = role;
+        this.showComplete = showComplete;
+    }
+
+    @Nullable
+    public static TransactionRow of(@Nullable Transaction t, @Nullable String currentUid) {
+        if (t == null) return null;
+        String title = t.id != null ? "Item: " + t.itemTitle : "—";
+        String status = "Status: " + (t.status != null ? t.status : "—");
+        String time = t.createdAt != null ? "Created: " + RowFormats.dateTime(t.createdAt) : "Created: —";
+
+        // Hide complete button for completed transactions
+        boolean showComplete = t.status == null || !t.status.equalsIgnoreCase("completed");
+
+        // Mark role: Buyer or Seller
+        String role = null;
+        if (currentUid != null) {
+            if (t.buyerId != null && currentUid.equals(t.buyerId)) {
+                role = "You are: Buyer";
+                showComplete = false;
+            } else if (t.sellerId != null && currentUid.equals(t.sellerId)) {
+                role = "You are: Seller";
+            }
+        }
+        return new TransactionRow(t, title, status, time, role, showComplete);
+    }
+
+    public boolean sameContentAs(@NonNull TransactionRow o) {
+        return showComplete == o.showComplete
+                && title.equals(o.title)
+                && status.equals(o.status)
+                && time.equals(o.time)
+                && Objects.equals(role, o.role);
+    }
+}
@@ -0,0 +1,36 @@
+package edu.uga.cs.project5;
+
+import android.app.Application;
+
+import androidx.annotation.NonNull;
+
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.database.DatabaseError;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The signed-in user's transactions grouped by status. Activity-scoped, so the
+ * Pending and Completed tabs share one TransactionFeed (a SharedFeeds entry).
+ */
+public class TransactionsViewModel extends FeedViewModel<Map<String, List<TransactionRow>>> {
+
+    public TransactionsViewModel(@NonNull Application app) {
+        super(app);
+        String uid = FirebaseAuth.getInstance().getUid();
+        if (uid == null) return;
+
+        share("user-transactions/" + uid, sink -> new TransactionFeed(app, uid, new TransactionFeed.Listener() {
+            @Override
+            public void onChanged(@NonNull Map<String, List<TransactionRow>> byStatus) {
+                sink.onChanged(byStatus);
+            }
+
+            @Override
+            public void onError(@NonNull DatabaseError e) {
+                sink.onError(e);
+            }
+        }));
+    }
+}
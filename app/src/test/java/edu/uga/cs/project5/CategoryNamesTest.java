@@ -0,0 +1,67 @@
+package edu.uga.cs.project5;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/** The name keys and claim values behind /category-names. */
+public class CategoryNamesTest {
+
+    // a push id generated at 1_700_000_000_000 ms
+    private static final String PUSH_ID = "-NjEtLV-abcdefghijkl";
+
+    @Test
+    public void normalizeTrimsCollapsesAndLowerCases() {
+        assertEquals("text books", CategoryNames.normalize("  Text \t Books "));
+        assertEquals(CategoryNames.normalize("text books"), CategoryNames.normalize("TEXT   BOOKS"));
+    }
+
+    @Test
+    public void keyMatchesForNamesThatNormalizeTheSame() {
+        assertEquals(CategoryNames.key("Text Books"), CategoryNames.key(" text  books"));
+        assertNotEquals(CategoryNames.key("textbooks"), CategoryNames.key("text books"));
+    }
+
+    @Test
+    public void keyEscapesCharactersNotAllowedInKeys() {
+        assertEquals("a%2Eb%23c%24d%5Be%5Df%2Fg", CategoryNames.key("a.b#c$d[e]f/g"));
+        // '%' is escaped too, so an escape in the name can't collide with one we made
+        assertEquals("100%25", CategoryNames.key("100%"));
+        assertNotEquals(CategoryNames.key("a.b"), CategoryNames.key("a%2Eb"));
+    }
+
+    @Test
+    public void keyKeepsNonAsciiLetters() {
+        assertEquals("café", CategoryNames.key("Café"));
+    }
+
+    @Test
+    public void ownerOfReadsOldAndNewClaims() {
+        assertEquals("cat1", CategoryNames.ownerOf("cat1"));
+        Map<String, Object> claim = new HashMap<>();
+        claim.put("catId", "cat2");
+        claim.put("claimedAt", 5L);
+        assertEquals("cat2", CategoryNames.ownerOf(claim));
+        assertNull(CategoryNames.ownerOf(null));
+        assertNull(CategoryNames.ownerOf(true));
+    }
+
+    @Test
+    public void pushIdTimeDecodesTheTimestamp() {
+        assertEquals(1_700_000_000_000L, CategoryNames.pushIdTime(PUSH_ID));
+        assertEquals(0, CategoryNames.pushIdTime("seed-category"));
+        assertEquals(0, CategoryNames.pushIdTime("not a push id at all!"));
+    }
+
+    @Test
+    public void claimedAtPrefersTheClaimOverThePushId() {
+        Map<String, Object> claim = new HashMap<>();
+        claim.put("catId", PUSH_ID);
+        claim.put("claimedAt", 1_800_000_000_000.0); // may arrive as Double
+        assertEquals(1_800_000_000_000L, CategoryNames.claimedAt(claim, PUSH_ID));
+        assertEquals(1_700_000_000_000L, CategoryNames.claimedAt(PUSH_ID, PUSH_ID));
+    }
+}
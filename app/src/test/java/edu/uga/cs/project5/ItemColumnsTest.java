@@ -0,0 +1,103 @@
+package edu.uga.cs.project5;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * ItemColumns ordering and filters on a small list.
+ */
+public class ItemColumnsTest {
+
+    // newest first, like the feeds deliver them
+    private static List<ItemRow> sample() {
+        List<ItemRow> rows = new ArrayList<>();
+        rows.add(row("a", 300L, false, 4));
+        rows.add(row("b", null, true, 3));
+        rows.add(row("c", 100L, false, 2));
+        rows.add(row("d", 300L, false, 1));
+        return rows;
+    }
+
+    @Test
+    public void sortsByDate() {
+        ItemColumns c = ItemColumns.of(sample());
+        assertEquals(Arrays.asList("a", "b", "c", "d"), ids(c.select(ItemFilter.NONE)));
+        assertEquals(Arrays.asList("d", "c", "b", "a"),
+                ids(c.select(new ItemFilter(ItemFilter.Sort.OLDEST, null, null, false))));
+    }
+
+    @Test
+    public void sortsByPriceFreeFirstAndTiesNewestFirst() {
+        ItemColumns c = ItemColumns.of(sample());
+        assertEquals(Arrays.asList("b", "c", "a", "d"),
+                ids(c.select(new ItemFilter(ItemFilter.Sort.PRICE_LOW, null, null, false))));
+        // a and d cost the same; a is newer either way
+        assertEquals(Arrays.asList("a", "d", "c", "b"),
+                ids(c.select(new ItemFilter(ItemFilter.Sort.PRICE_HIGH, null, null, false))));
+    }
+
+    @Test
+    public void filtersByPriceAndFree() {
+        ItemColumns c = ItemColumns.of(sample());
+        assertEquals(Arrays.asList("c", "a", "d"),
+                ids(c.select(new ItemFilter(ItemFilter.Sort.PRICE_LOW, 100L, 300L, false))));
+        // free counts as 0
+        assertEquals(Arrays.asList("b", "c"),
+                ids(c.select(new ItemFilter(ItemFilter.Sort.NEWEST, null, 100L, false))));
+        assertEquals(Arrays.asList("b"),
+                ids(c.select(new ItemFilter(ItemFilter.Sort.NEWEST, null, null, true))));
+    }
+
+    @Test
+    public void unpricedItemsNeverMatchAPriceRange() {
+        List<ItemRow> rows = sample();
+        rows.add(row("x", null, false, 5)); // not free, no price
+        ItemColumns c = ItemColumns.of(rows);
+        assertEquals(Arrays.asList("b", "c"),
+                ids(c.select(new ItemFilter(ItemFilter.Sort.NEWEST, 0L, 100L, false))));
+        assertEquals(Arrays.asList("a", "c", "d"),
+                ids(c.select(new ItemFilter(ItemFilter.Sort.NEWEST, 50L, null, false))));
+        assertFalse(ids(c.select(new ItemFilter(ItemFilter.Sort.NEWEST, null, null, true))).contains("x"));
+    }
+
+    @Test
+    public void unpricedItemsSortLastByPrice() {
+        List<ItemRow> rows = sample();
+        rows.add(row("x", null, false, 5));
+        ItemColumns c = ItemColumns.of(rows);
+        assertEquals(Arrays.asList("b", "c", "a", "d", "x"),
+                ids(c.select(new ItemFilter(ItemFilter.Sort.PRICE_LOW, null, null, false))));
+        assertEquals(Arrays.asList("a", "d", "c", "b", "x"),
+                ids(c.select(new ItemFilter(ItemFilter.Sort.PRICE_HIGH, null, null, false))));
+        // date sorts keep them in place
+        assertEquals(Arrays.asList("x", "a", "b", "c", "d"), ids(c.select(ItemFilter.NONE)));
+    }
+
+    @Test
+    public void emptyList() {
+        ItemColumns c = ItemColumns.of(new ArrayList<>());
+        assertEquals(0, c.size());
+        assertTrue(c.select(new ItemFilter(ItemFilter.Sort.PRICE_LOW, 1L, 2L, false)).isEmpty());
+    }
+
+    private static List<String> ids(List<ItemRow> rows) {
+        List<String> out = new ArrayList<>();
+        for (ItemRow r : rows) out.add(r.item.id);
+        return out;
+    }
+
+    private static ItemRow row(String id, Long priceCents, boolean free, long createdAt) {
+        Item it = new Item();
+        it.id = id;
+        it.title = "Item " + id;
+        it.priceCents = priceCents;
+        it.isFree = free;
+        it.createdAt = createdAt;
+        return ItemRow.of(it, null);
+    }
+}
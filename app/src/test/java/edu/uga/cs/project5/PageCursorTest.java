@@ -0,0 +1,77 @@
+package edu.uga.cs.project5;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/** PageCursor as PagedFeed drives it: the head page, older pages, the last short one. */
+public class PageCursorTest {
+
+    @Test
+    public void noCursorBeforeTheFirstPage() {
+        PageCursor c = new PageCursor(3);
+        assertTrue(c.hasMore());
+        assertFalse(c.canAdvance());
+        assertNull(c.key());
+    }
+
+    @Test
+    public void fullPageMovesTheCursorToItsOldestEntry() {
+        PageCursor c = new PageCursor(3);
+        c.onPage(100L, "k1", 3);
+        assertTrue(c.canAdvance());
+        assertEquals(Long.valueOf(100L), c.value());
+        assertEquals("k1", c.key());
+
+        c.onPage(40L, "k0", 3);
+        assertEquals(Long.valueOf(40L), c.value());
+        assertEquals("k0", c.key());
+    }
+
+    @Test
+    public void shortPageIsTheLast() {
+        PageCursor c = new PageCursor(3);
+        c.onPage(100L, "k1", 3);
+        c.onPage(40L, "k0", 2);
+        assertFalse(c.hasMore());
+        assertFalse(c.canAdvance());
+        assertEquals("k0", c.key());
+    }
+
+    @Test
+    public void emptyPageKeepsTheCursorAndEnds() {
+        PageCursor c = new PageCursor(3);
+        c.onPage(100L, "k1", 3);
+        c.onPage(null, null, 0);
+        assertFalse(c.hasMore());
+        assertEquals(Long.valueOf(100L), c.value());
+        assertEquals("k1", c.key());
+    }
+
+    @Test
+    public void doubleTimestampsAreCoerced() {
+        PageCursor c = new PageCursor(3);
+        c.onPage(1.7e12, "k", 3);
+        assertEquals(Long.valueOf(1_700_000_000_000L), c.value());
+    }
+
+    @Test
+    public void legacyEntryWithoutTheOrderChildKeepsOnlyTheKey() {
+        PageCursor c = new PageCursor(3);
+        c.onPage(null, "legacy", 3);
+        assertTrue(c.canAdvance());
+        assertNull(c.value());
+        assertEquals("legacy", c.key());
+    }
+
+    @Test
+    public void resetStartsOver() {
+        PageCursor c = new PageCursor(3);
+        c.onPage(100L, "k1", 1);
+        c.reset();
+        assertTrue(c.hasMore());
+        assertFalse(c.canAdvance());
+        assertNull(c.value());
+        assertNull(c.key());
+    }
+}
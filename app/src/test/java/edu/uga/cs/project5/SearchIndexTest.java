@@ -0,0 +1,64 @@
+package edu.uga.cs.project5;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * SearchIndex prefix matching, ranking and incremental updates.
+ */
+public class SearchIndexTest {
+
+    @Test
+    public void prefixMatchesAndAllWordsRequired() {
+        SearchIndex index = new SearchIndex();
+        index.put("a", "Blue bike", "barely used", 1);
+        index.put("b", "Red bicycle", null, 2);
+        index.put("c", "Calculus book", "blue cover", 3);
+
+        assertEquals(Arrays.asList("b", "a"), index.search("bi", 10));
+        assertEquals(Arrays.asList("a"), index.search("blue bik", 10));
+        assertTrue(index.search("blue chair", 10).isEmpty());
+    }
+
+    @Test
+    public void titleHitsOutrankDescriptionThenNewestFirst() {
+        SearchIndex index = new SearchIndex();
+        index.put("old", "Desk", null, 1);
+        index.put("new", "Desk", null, 2);
+        index.put("desc", "Chair", "matches the desk", 3);
+
+        assertEquals(Arrays.asList("new", "old", "desc"), index.search("desk", 10));
+        assertEquals(Arrays.asList("new"), index.search("desk", 1));
+    }
+
+    @Test
+    public void updatesReplaceAndRemove() {
+        SearchIndex index = new SearchIndex();
+        index.put("x", "Lamp", null, 1);
+        index.put("x", "Mirror", null, 1);
+        assertTrue(index.search("lamp", 10).isEmpty());
+        assertEquals(Arrays.asList("x"), index.search("mir", 10));
+
+        index.remove("x");
+        assertTrue(index.search("mir", 10).isEmpty());
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    public void blankQueryMatchesNothing() {
+        SearchIndex index = new SearchIndex();
+        index.put("a", "Blue bike", null, 1);
+        assertTrue(index.search("", 10).isEmpty());
+        assertTrue(index.search("  ", 10).isEmpty());
+    }
+
+    @Test
+    public void tokenizeFoldsCaseAndAccents() {
+        List<String> t = SearchIndex.tokenize("Café  TABLE, 2-seat");
+        assertEquals(Arrays.asList("cafe", "table", "2", "seat"), t);
+    }
+}
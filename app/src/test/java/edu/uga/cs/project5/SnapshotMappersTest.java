@@ -0,0 +1,131 @@
+package edu.uga.cs.project5;
+
+import com.google.firebase.database.core.utilities.encoding.CustomClassMapper;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * SnapshotMappers against the value trees DataSnapshot.getValue() returns, and
+ * against Firebase's reflective CustomClassMapper (what getValue(Item.class) runs).
+ */
+public class SnapshotMappersTest {
+
+    @Test
+    public void item_matchesReflectiveMapper() {
+        for (Map<String, Object> m : Arrays.asList(item(false), item(true))) {
+            Item a = SnapshotMappers.item("k", m);
+            Item b = CustomClassMapper.convertToCustomClass(m, Item.class);
+            assertEquals(b.title, a.title);
+            assertEquals(b.description, a.description);
+            assertEquals(b.priceCents, a.priceCents);
+            assertEquals(b.createdAt, a.createdAt);
+            assertEquals(b.isFree, a.isFree);
+            assertEquals(b.available, a.available);
+            assertEquals(b.authorId, a.authorId);
+            assertEquals(b.categoryId, a.categoryId);
+        }
+    }
+
+    @Test
+    public void transaction_matchesReflectiveMapper() {
+        Map<String, Object> m = new HashMap<>();
+        m.put("itemId", "item1");
+        m.put("buyerId", "u1");
+        m.put("sellerId", "u2");
+        m.put("status", "pending");
+        m.put("createdAt", 1_700_000_000_000L);
+        m.put("itemTitle", "Desk");
+        m.put("amount", 2500L);
+
+        Transaction a = SnapshotMappers.transaction("t1", m);
+        Transaction b = CustomClassMapper.convertToCustomClass(m, Transaction.class);
+        assertEquals(b.status, a.status);
+        assertEquals(b.createdAt, a.createdAt);
+        assertEquals(b.amount, a.amount);
+        assertEquals(b.itemTitle, a.itemTitle);
+    }
+
+    @Test
+    public void item_missingFieldsKeepModelDefaults() {
+        Item it = SnapshotMappers.item("k", new HashMap<String, Object>());
+        assertEquals("k", it.id);
+        assertEquals(Long.valueOf(0L), it.createdAt);
+        assertEquals(Boolean.FALSE, it.isFree);
+        assertEquals(Boolean.TRUE, it.available);
+        assertNull(it.priceCents);
+    }
+
+    @Test
+    public void item_legacyEntryIsNotAnItem() {
+        // /category-items entries written before summaries are just `true`
+        assertNull(SnapshotMappers.item("k", true));
+        assertNull(SnapshotMappers.item("k", null));
+    }
+
+    @Test
+    public void item_survivesToMapRoundTrip() {
+        Item it = SnapshotMappers.item("k", item(false));
+        Item back = SnapshotMappers.item("k", SnapshotMappers.toMap(it));
+        assertEquals(it.title, back.title);
+        assertEquals(it.priceCents, back.priceCents);
+        assertEquals(it.createdAt, back.createdAt);
+        assertEquals(it.categoryId, back.categoryId);
+    }
+
+    @Test
+    public void category_coercesDoubleTimestamps() {
+        Map<String, Object> m = new HashMap<>();
+        m.put("name", "Books");
+        m.put("createdAt", 1.7e12);
+        Category c = SnapshotMappers.category("c1", m);
+        assertEquals(1_700_000_000_000L, c.createdAt);
+        assertEquals("c1", c.id);
+    }
+
+    @Test
+    public void transaction_readsAmountCentsBeforeAmount() {
+        Map<String, Object> m = new HashMap<>();
+        m.put("status", "pending");
+        m.put("amountCents", 1250L);
+        m.put("amount", 9L);
+        assertEquals(Long.valueOf(1250L), SnapshotMappers.transaction("t1", m).amount);
+
+        m.remove("amountCents");
+        assertEquals(Long.valueOf(9L), SnapshotMappers.transaction("t1", m).amount);
+    }
+
+    // only fields the model declares, so the reflective path doesn't log unknown-property warnings
+    private static Map<String, Object> item(boolean free) {
+        Map<String, Object> m = new HashMap<>();
+        m.put("title", "Blue bike");
+        m.put("description", "barely used");
+        m.put("isFree", free);
+        if (!free) m.put("priceCents", 4500L);
+        m.put("createdAt", 1_700_000_000_000L);
+        m.put("authorId", "user1");
+        m.put("createdByName", "Seller");
+        m.put("available", true);
+        m.put("categoryId", "cat1");
+        return m;
+    }
+
+    @Test
+    public void categoryCountOnlyTrustedOnceExact() {
+        Map<String, Object> raw = new HashMap<>();
+        raw.put("name", "Books");
+        raw.put("itemCount", -2L); // drifted on a category older than the counter
+        assertNull(SnapshotMappers.category("c", raw).itemCount);
+
+        raw.put("itemCount", 3L);
+        raw.put("itemCountExact", true);
+        Category c = SnapshotMappers.category("c", raw);
+        assertEquals(Long.valueOf(3L), c.itemCount);
+        assertEquals(Long.valueOf(3L), SnapshotMappers.category("c", SnapshotMappers.toMap(c)).itemCount);
+    }
+}
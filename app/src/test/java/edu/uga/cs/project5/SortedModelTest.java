@@ -0,0 +1,99 @@
+package edu.uga.cs.project5;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/** SortedModel as the feeds drive it: puts, replacements that move, removals. */
+public class SortedModelTest {
+
+    // values are timestamps; newest first like the item feeds
+    private static final Comparator<Long> NEWEST_FIRST = (a, b) -> Long.compare(b, a);
+
+    @Test
+    public void putKeepsOrderAndReturnsPosition() {
+        SortedModel<Long> m = new SortedModel<>(NEWEST_FIRST);
+        assertEquals(0, m.put("a", 10L));
+        assertEquals(0, m.put("b", 30L));
+        assertEquals(1, m.put("c", 20L));
+        assertEquals(Arrays.asList(30L, 20L, 10L), m.snapshot());
+        assertEquals(3, m.size());
+    }
+
+    @Test
+    public void replacingMovesTheValue() {
+        SortedModel<Long> m = new SortedModel<>(NEWEST_FIRST);
+        m.put("a", 10L);
+        m.put("b", 20L);
+        m.put("c", 30L);
+
+        assertEquals(0, m.put("a", 40L));
+        assertEquals(Arrays.asList(40L, 30L, 20L), m.snapshot());
+        assertEquals(3, m.size());
+        assertEquals(Long.valueOf(40L), m.get("a"));
+    }
+
+    @Test
+    public void equalValuesAreOrderedByKey() {
+        // "price:key" values that compare on the price only
+        SortedModel<String> m = new SortedModel<>(
+                Comparator.comparingInt(v -> Integer.parseInt(v.substring(0, v.indexOf(':')))));
+        m.put("b", "5:b");
+        m.put("c", "5:c");
+        m.put("a", "5:a");
+        m.put("d", "1:d");
+        assertEquals(Arrays.asList("1:d", "5:a", "5:b", "5:c"), m.snapshot());
+
+        // removing the middle one of a run of ties finds the right entry
+        assertEquals("5:b", m.remove("b"));
+        assertEquals(Arrays.asList("1:d", "5:a", "5:c"), m.snapshot());
+    }
+
+    @Test
+    public void removeUnknownKeyIsNoOp() {
+        SortedModel<Long> m = new SortedModel<>(NEWEST_FIRST);
+        m.put("a", 1L);
+        assertNull(m.remove("zzz"));
+        assertEquals(1, m.size());
+    }
+
+    @Test
+    public void snapshotIsACopy() {
+        SortedModel<Long> m = new SortedModel<>(NEWEST_FIRST);
+        m.put("a", 1L);
+        List<Long> before = m.snapshot();
+        m.put("b", 2L);
+        m.clear();
+        assertEquals(Arrays.asList(1L), before);
+        assertEquals(0, m.snapshot().size());
+    }
+
+    @Test
+    public void matchesAFullSortAfterRandomEvents() {
+        Random rnd = new Random(3);
+        SortedModel<Long> m = new SortedModel<>(NEWEST_FIRST);
+        Map<String, Long> expected = new HashMap<>();
+        for (int i = 0; i < 2_000; i++) {
+            String key = "k" + rnd.nextInt(200);
+            if (rnd.nextInt(4) == 0) {
+                m.remove(key);
+                expected.remove(key);
+            } else {
+                long v = rnd.nextInt(50); // plenty of ties
+                m.put(key, v);
+                expected.put(key, v);
+            }
+        }
+        List<Long> sorted = new ArrayList<>(expected.values());
+        sorted.sort(NEWEST_FIRST);
+        assertEquals(sorted, m.snapshot());
+    }
+}
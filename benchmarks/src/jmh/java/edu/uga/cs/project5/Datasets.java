@@ -0,0 +1,120 @@
+package edu.uga.cs.project5;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Synthetic data shaped like what the app reads: raw value trees as
+ * {@code DataSnapshot.getValue()} returns them (Maps of Strings, Longs, Doubles
+ * and Booleans), and the rows built from them. Seeded, so every run and every
+ * size sees the same data.
+ */
+final class Datasets {
+
+    static final long NOW = 1_700_000_000_000L;
+    static final String CURRENT_UID = "user7";
+
+    private static final String[] WORDS = {
+            "bike", "bicycle", "book", "books", "calculus", "chair", "desk", "lamp", "laptop",
+            "charger", "textbook", "physics", "chemistry", "biology", "phone", "case", "monitor",
+            "keyboard", "mouse", "headphones", "jacket", "shoes", "table", "couch", "mirror",
+            "microwave", "fridge", "mini", "blue", "red", "black", "white", "used", "new",
+            "like", "good", "condition", "cheap", "vintage", "dorm", "kitchen", "guitar", "amp"
+    };
+    private static final String[] CATEGORIES = {"Books", "Furniture", "Electronics", "Clothing", "Kitchen"};
+    private static final String[] STATUSES = {"pending", "completed", "cancelled"};
+
+    private Datasets() { }
+
+    static String key(int i) {
+        return "item" + i;
+    }
+
+    /** Raw /items children, in key order as Firebase delivers them. */
+    static List<Map<String, Object>> rawItems(int n) {
+        Random rnd = new Random(42);
+        List<Map<String, Object>> out = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            Map<String, Object> m = new HashMap<>();
+            boolean free = rnd.nextInt(10) == 0;
+            int cat = rnd.nextInt(CATEGORIES.length);
+            m.put("title", words(rnd, 2 + rnd.nextInt(3)));
+            m.put("description", words(rnd, 5 + rnd.nextInt(10)));
+            long created = NOW - rnd.nextInt(90 * 24 * 3600) * 1000L;
+            // server timestamps sometimes come back as Double
+            m.put("createdAt", i % 8 == 0 ? (Object) (double) created : (Object) created);
+            m.put("isFree", free);
+            if (!free) m.put("priceCents", (long) rnd.nextInt(20_000));
+            m.put("authorId", "user" + rnd.nextInt(500));
+            m.put("available", rnd.nextInt(5) != 0);
+            m.put("categoryId", "cat" + cat);
+            m.put("category", CATEGORIES[cat]);
+            m.put("createdByName", "Seller " + rnd.nextInt(500));
+            out.add(m);
+        }
+        return out;
+    }
+
+    /** Raw /transactions children. */
+    static List<Map<String, Object>> rawTransactions(int n) {
+        Random rnd = new Random(7);
+        List<Map<String, Object>> out = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            Map<String, Object> m = new HashMap<>();
+            String status = STATUSES[rnd.nextInt(STATUSES.length)];
+            long created = NOW - rnd.nextInt(90 * 24 * 3600) * 1000L;
+            m.put("itemId", key(rnd.nextInt(n)));
+            m.put("buyerId", "user" + rnd.nextInt(500));
+            m.put("sellerId", "user" + rnd.nextInt(500));
+            m.put("status", status);
+            m.put("createdAt", created);
+            m.put("itemTitle", words(rnd, 2 + rnd.nextInt(3)));
+            if ("completed".equals(status)) m.put("completedAt", created + 3_600_000L);
+            // Purchases.buy writes amountCents; older records have amount
+            m.put(i % 2 == 0 ? "amountCents" : "amount", (long) rnd.nextInt(20_000));
+            out.add(m);
+        }
+        return out;
+    }
+
+    static List<Item> items(int n) {
+        List<Map<String, Object>> raw = rawItems(n);
+        List<Item> out = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) out.add(SnapshotMappers.item(key(i), raw.get(i)));
+        return out;
+    }
+
+    /** Rows in key order, i.e. unsorted as far as any list order is concerned. */
+    static List<ItemRow> rows(int n) {
+        List<ItemRow> out = new ArrayList<>(n);
+        for (Item it : items(n)) out.add(ItemRow.of(it, CURRENT_UID));
+        return out;
+    }
+
+    /** Rows newest first, as the feeds deliver them to the screen. */
+    static List<ItemRow> newestFirst(int n) {
+        List<ItemRow> out = rows(n);
+        out.sort(ItemRow.NEWEST_FIRST);
+        return out;
+    }
+
+    /** A copy of the item with a new price, as after a seller edits it. */
+    static Item repriced(Item it, long priceCents) {
+        Item copy = SnapshotMappers.item(it.id, SnapshotMappers.toMap(it));
+        copy.isFree = false;
+        copy.priceCents = priceCents;
+        return copy;
+    }
+
+    private static String words(Random rnd, int count) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) sb.append(' ');
+            sb.append(WORDS[rnd.nextInt(WORDS.length)]);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,105 @@
+package edu.uga.cs.project5;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The sort/filter work that used to run inside the fragments' onDataChange: the
+ * feeds' SortedModel (full load and one live change) and ItemColumns, which
+ * backs the sort and price filters on the item lists.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class FilterSortBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int size;
+
+    private List<ItemRow> rows;          // key order, as children arrive
+    private List<ItemRow> newestFirst;   // as the list shows them
+    private SortedModel<ItemRow> loaded;
+    private ItemColumns columns;
+    private ItemRow[] edits;             // the same listing, alternately repriced and moved
+    private int edit = 0;
+
+    private final ItemFilter byPrice = new ItemFilter(ItemFilter.Sort.PRICE_LOW, null, null, false);
+    private final ItemFilter priceRange = new ItemFilter(ItemFilter.Sort.PRICE_HIGH, 1_000L, 5_000L, false);
+    private final ItemFilter freeOnly = new ItemFilter(ItemFilter.Sort.OLDEST, null, null, true);
+
+    @Setup
+    public void setUp() {
+        rows = Datasets.rows(size);
+        newestFirst = Datasets.newestFirst(size);
+        loaded = new SortedModel<>(ItemRow.NEWEST_FIRST);
+        for (ItemRow r : rows) loaded.put(r.item.id, r);
+        columns = ItemColumns.of(newestFirst);
+
+        Item target = rows.get(size / 2).item;
+        Item bumped = Datasets.repriced(target, 999L);
+        bumped.createdAt = Datasets.NOW + 1; // moves to the top
+        edits = new ItemRow[] {
+                ItemRow.of(Datasets.repriced(target, 1_234L), Datasets.CURRENT_UID),
+                ItemRow.of(bumped, Datasets.CURRENT_UID)
+        };
+    }
+
+    /** Initial load: every child put into a fresh model, then one snapshot for the UI. */
+    @Benchmark
+    public List<ItemRow> sortedModelLoad() {
+        SortedModel<ItemRow> m = new SortedModel<>(ItemRow.NEWEST_FIRST);
+        for (ItemRow r : rows) m.put(r.item.id, r);
+        return m.snapshot();
+    }
+
+    /** One onChildChanged on a loaded list, then the snapshot handed to the adapter. */
+    @Benchmark
+    public List<ItemRow> sortedModelChange() {
+        ItemRow r = edits[edit ^= 1];
+        loaded.put(r.item.id, r);
+        return loaded.snapshot();
+    }
+
+    /** What onDataChange used to do on every change: sort the whole list again. */
+    @Benchmark
+    public List<ItemRow> fullResort() {
+        List<ItemRow> copy = new ArrayList<>(rows);
+        copy.sort(ItemRow.NEWEST_FIRST);
+        return copy;
+    }
+
+    @Benchmark
+    public ItemColumns columnsBuild() {
+        return ItemColumns.of(newestFirst);
+    }
+
+    @Benchmark
+    public List<ItemRow> selectNewest() {
+        return columns.select(ItemFilter.NONE);
+    }
+
+    @Benchmark
+    public List<ItemRow> selectByPrice() {
+        return columns.select(byPrice);
+    }
+
+    @Benchmark
+    public List<ItemRow> selectPriceRange() {
+        return columns.select(priceRange);
+    }
+
+    @Benchmark
+    public List<ItemRow> selectFreeOnly() {
+        return columns.select(freeOnly);
+    }
+}
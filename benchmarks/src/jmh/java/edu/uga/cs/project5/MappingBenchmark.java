@@ -0,0 +1,85 @@
+package edu.uga.cs.project5;
+
+import com.google.firebase.database.utilities.encoding.CustomClassMapper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Snapshot-to-model mapping: SnapshotMappers over a full listener's worth of raw
+ * value trees, i.e. the per-load cost before any row is built, against the
+ * reflective CustomClassMapper that DataSnapshot.getValue(Item.class) runs (the
+ * *Reflective benchmarks; firebase-admin ships the same mapper for the JVM).
+ * Divide a score by size for the per-record cost.
+ *
+ * Run at 100k: ./gradlew :benchmarks:jmh -PjmhIncludes=Mapping, and read the
+ * size=100000 rows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MappingBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int size;
+
+    private String[] keys;
+    private List<Map<String, Object>> items;
+    private List<Map<String, Object>> transactions;
+
+    @Setup
+    public void setUp() {
+        keys = new String[size];
+        for (int i = 0; i < size; i++) keys[i] = Datasets.key(i);
+        items = Datasets.rawItems(size);
+        transactions = Datasets.rawTransactions(size);
+    }
+
+    @Benchmark
+    public void items(Blackhole bh) {
+        for (int i = 0; i < size; i++) bh.consume(SnapshotMappers.item(keys[i], items.get(i)));
+    }
+
+    /** What the feeds did before SnapshotMappers: getValue(Item.class), then the key. */
+    @Benchmark
+    public void itemsReflective(Blackhole bh) {
+        for (int i = 0; i < size; i++) {
+            Item it = CustomClassMapper.convertToCustomClass(items.get(i), Item.class);
+            it.id = keys[i];
+            bh.consume(it);
+        }
+    }
+
+    @Benchmark
+    public void transactions(Blackhole bh) {
+        for (int i = 0; i < size; i++) bh.consume(SnapshotMappers.transaction(keys[i], transactions.get(i)));
+    }
+
+    @Benchmark
+    public void transactionsReflective(Blackhole bh) {
+        for (int i = 0; i < size; i++) {
+            Transaction t = CustomClassMapper.convertToCustomClass(transactions.get(i), Transaction.class);
+            t.id = keys[i];
+            bh.consume(t);
+        }
+    }
+
+    /** Mapping plus row building, what a feed does per child before sorting. */
+    @Benchmark
+    public void itemsToRows(Blackhole bh) {
+        for (int i = 0; i < size; i++) {
+            bh.consume(ItemRow.of(SnapshotMappers.item(keys[i], items.get(i)), Datasets.CURRENT_UID));
+        }
+    }
+}
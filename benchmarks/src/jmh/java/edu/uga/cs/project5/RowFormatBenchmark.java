@@ -0,0 +1,62 @@
+package edu.uga.cs.project5;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Row display models: the price/date text in RowFormats, per call and as part of
+ * building every ItemRow for a loaded list.
+ */
+@BenchmarkMode(Mode.AverageTime)
+public class RowFormatBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Items {
+        @Param({"1000", "10000", "100000", "1000000"})
+        public int size;
+
+        List<Item> items;
+
+        @Setup
+        public void setUp() {
+            items = Datasets.items(size);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Values {
+        long millis = Datasets.NOW;
+        long cents = 0;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void itemRows(Items s, Blackhole bh) {
+        for (Item it : s.items) bh.consume(ItemRow.of(it, Datasets.CURRENT_UID));
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public String price(Values v) {
+        // varied so the formatter can't be skipped
+        v.cents = (v.cents + 1_337) % 20_000;
+        return RowFormats.price(false, v.cents);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public String dateTime(Values v) {
+        v.millis += 61_000;
+        return RowFormats.dateTime(v.millis);
+    }
+}
@@ -0,0 +1,101 @@
+package edu.uga.cs.project5;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The cost of ItemAdapter's diff callbacks (id equality, then
+ * {@link ItemRow#sameContentAs}) across two snapshots of an item list: matches
+ * the common prefix and suffix, then the rest by id, and counts rows that
+ * differ. This is not DiffUtil's Myers diff, which only ships in an Android
+ * artifact and does more work on top, so it is a floor for what submitList
+ * spends comparing rows rather than a measure of list diffing.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class RowMatchBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int size;
+
+    /** none: re-delivered unchanged; edit: one row repriced; insert: a new listing on top; remove: one sold. */
+    @Param({"none", "edit", "insert", "remove"})
+    public String change;
+
+    private List<ItemRow> before;
+    private List<ItemRow> after;
+
+    @Setup
+    public void setUp() {
+        before = Datasets.newestFirst(size);
+        // rebuilt rows, like a fresh snapshot from the pipeline: equal content, new objects
+        after = new ArrayList<>(size + 1);
+        for (ItemRow r : before) after.add(ItemRow.of(r.item, Datasets.CURRENT_UID));
+        int mid = size / 2;
+        switch (change) {
+            case "edit":
+                after.set(mid, ItemRow.of(Datasets.repriced(after.get(mid).item, 4_321L), Datasets.CURRENT_UID));
+                break;
+            case "insert":
+                Item fresh = Datasets.repriced(after.get(mid).item, 100L);
+                fresh.id = "new-listing";
+                fresh.createdAt = Datasets.NOW + 1;
+                after.add(0, ItemRow.of(fresh, Datasets.CURRENT_UID));
+                break;
+            case "remove":
+                after.remove(mid);
+                break;
+            default:
+                break;
+        }
+    }
+
+    @Benchmark
+    public int match() {
+        return changes(before, after);
+    }
+
+    // rows inserted, removed or changed between a and b
+    static int changes(List<ItemRow> a, List<ItemRow> b) {
+        int start = 0;
+        int endA = a.size();
+        int endB = b.size();
+        int changed = 0;
+        while (start < endA && start < endB && sameItem(a.get(start), b.get(start))) {
+            if (!a.get(start).sameContentAs(b.get(start))) changed++;
+            start++;
+        }
+        while (endA > start && endB > start && sameItem(a.get(endA - 1), b.get(endB - 1))) {
+            if (!a.get(endA - 1).sameContentAs(b.get(endB - 1))) changed++;
+            endA--;
+            endB--;
+        }
+        if (start == endA && start == endB) return changed;
+
+        Map<String, ItemRow> old = new HashMap<>();
+        for (int i = start; i < endA; i++) old.put(a.get(i).item.id, a.get(i));
+        for (int i = start; i < endB; i++) {
+            ItemRow o = old.remove(b.get(i).item.id);
+            if (o == null || !o.sameContentAs(b.get(i))) changed++;
+        }
+        return changed + old.size();
+    }
+
+    private static boolean sameItem(ItemRow a, ItemRow b) {
+        return Objects.equals(a.item.id, b.item.id);
+    }
+}
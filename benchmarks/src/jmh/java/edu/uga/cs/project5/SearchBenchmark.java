@@ -0,0 +1,96 @@
+package edu.uga.cs.project5;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SearchIndex as ListingSearch uses it: building the index from a full /items
+ * load, one live edit, and the queries typed on the search screen (short
+ * prefixes, full words, several words). Each query should stay well under a
+ * frame's worth of time at 100k listings.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SearchBenchmark {
+
+    private static final String[] WORDS = {
+            "bike", "bicycle", "book", "books", "calculus", "chair", "desk", "lamp", "laptop",
+            "charger", "textbook", "physics", "chemistry", "biology", "phone", "case", "monitor",
+            "keyboard", "mouse", "headphones", "jacket", "shoes", "table", "couch", "mirror",
+            "microwave", "fridge", "mini", "blue", "red", "black", "white", "used", "new",
+            "like", "good", "condition", "cheap", "vintage", "dorm", "kitchen", "guitar", "amp"
+    };
+
+    @Param({"10000", "100000"})
+    public int size;
+
+    // its own state so only search() runs once per query
+    @State(Scope.Benchmark)
+    public static class Query {
+        @Param({"b", "bik", "book", "text", "blue bike", "good condition", "vintage guitar amp", "zzz"})
+        public String text;
+    }
+
+    private String[] titles;
+    private String[] descriptions;
+    private SearchIndex index;
+    private int edit = 0;
+
+    @Setup
+    public void setUp() {
+        Random rnd = new Random(42);
+        titles = new String[size];
+        descriptions = new String[size];
+        for (int i = 0; i < size; i++) {
+            titles[i] = words(rnd, 2 + rnd.nextInt(3));
+            descriptions[i] = words(rnd, 5 + rnd.nextInt(10));
+        }
+        index = build();
+    }
+
+    @Benchmark
+    public List<String> search(Query q) {
+        return index.search(q.text, 100);
+    }
+
+    /** One onChildChanged: the same listing alternately retitled. */
+    @Benchmark
+    public int update() {
+        int i = size / 2;
+        edit ^= 1;
+        index.put("item" + i, edit == 0 ? titles[i] : "vintage lamp", descriptions[i], Datasets.NOW - i);
+        return index.size();
+    }
+
+    /** The first full load, indexed child by child. */
+    @Benchmark
+    public SearchIndex buildIndex() {
+        return build();
+    }
+
+    private SearchIndex build() {
+        SearchIndex idx = new SearchIndex();
+        for (int i = 0; i < size; i++) idx.put("item" + i, titles[i], descriptions[i], Datasets.NOW - i);
+        return idx;
+    }
+
+    private static String words(Random rnd, int count) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) sb.append(' ');
+            sb.append(WORDS[rnd.nextInt(WORDS.length)]);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,211 @@
+package edu.uga.cs.project5.loadtest;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.ToNumberPolicy;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * REST client for the Realtime Database emulator. Every call adds the payload
+ * bytes it sent and received to the caller's {@link Traffic}; HTTP headers are
+ * not counted (the SDK's websocket framing differs anyway).
+ *
+ * Requests authenticate as "owner", which the emulator treats as an admin, so
+ * the harness works whatever rules are loaded.
+ */
+final class EmulatorClient {
+
+    /** Payload bytes of one flow run. */
+    static final class Traffic {
+        long sent;
+        long received;
+    }
+
+    /** A value with the ETag it was read at, for compare-and-set writes. */
+    static final class Versioned {
+        final Object value;
+        final String etag;
+
+        Versioned(Object value, String etag) {
+            this.value = value;
+            this.etag = etag;
+        }
+    }
+
+    /** The server value placeholders, as the SDK's ServerValue sends them. */
+    static final Map<String, Object> TIMESTAMP = Map.of(".sv", "timestamp");
+
+    static Map<String, Object> increment(long delta) {
+        return Map.of(".sv", Map.of("increment", delta));
+    }
+
+    // Longs stay Longs (as in DataSnapshot.getValue()); nulls in a PATCH delete
+    private static final Gson GSON = new GsonBuilder()
+            .setObjectToNumberStrategy(ToNumberPolicy.LONG_OR_DOUBLE)
+            .serializeNulls()
+            .create();
+
+    private final HttpClient http;
+    private final String base;
+    private final String namespace;
+
+    EmulatorClient(String host, String namespace) {
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        this.base = "http://" + host;
+        this.namespace = namespace;
+    }
+
+    Object get(String path, Traffic t) throws IOException {
+        return GSON.fromJson(send(request(path, null).GET().build(), t, 200).body(), Object.class);
+    }
+
+    /**
+     * An ordered query, e.g. {@code query("category-items/c1", t, "orderBy", "\"createdAt\"",
+     * "limitToLast", "20")}. Values are raw REST parameter values (strings quoted).
+     * Children come back in query order.
+     */
+    @SuppressWarnings("unchecked")
+    Map<String, Object> query(String path, Traffic t, String... params) throws IOException {
+        Object v = GSON.fromJson(send(request(path, params).GET().build(), t, 200).body(), Object.class);
+        if (!(v instanceof Map)) return new LinkedHashMap<>();
+        return sortedByChild((Map<String, Object>) v, params);
+    }
+
+    /** Reads several nodes at once, like one listener per node on a shared connection. */
+    List<Object> getAll(List<String> paths, Traffic t) throws IOException {
+        List<CompletableFuture<HttpResponse<String>>> calls = new ArrayList<>();
+        for (String p : paths) {
+            calls.add(http.sendAsync(request(p, null).GET().build(), HttpResponse.BodyHandlers.ofString()));
+        }
+        List<Object> out = new ArrayList<>();
+        for (CompletableFuture<HttpResponse<String>> c : calls) {
+            HttpResponse<String> r;
+            try {
+                r = c.join();
+            } catch (CompletionException e) {
+                throw new IOException(e.getCause());
+            }
+            check(r, 200);
+            t.received += bytes(r.body());
+            out.add(GSON.fromJson(r.body(), Object.class));
+        }
+        return out;
+    }
+
+    Versioned getVersioned(String path, Traffic t) throws IOException {
+        HttpResponse<String> r = send(request(path, null).header("X-Firebase-ETag", "true").GET().build(), t, 200);
+        return new Versioned(GSON.fromJson(r.body(), Object.class), etag(r));
+    }
+
+    /**
+     * Writes value only if the node is still at etag. Returns null on success, or
+     * the node's current value and ETag if someone else wrote it first.
+     */
+    Versioned putIfMatch(String path, Object value, String etag, Traffic t) throws IOException {
+        String body = GSON.toJson(value);
+        t.sent += bytes(body);
+        HttpResponse<String> r = send(request(path, null)
+                .header("if-match", etag)
+                .PUT(HttpRequest.BodyPublishers.ofString(body)).build(), t, 200, 412);
+        if (r.statusCode() == 200) return null;
+        return new Versioned(GSON.fromJson(r.body(), Object.class), etag(r));
+    }
+
+    void put(String path, Object value, Traffic t) throws IOException {
+        String body = GSON.toJson(value);
+        t.sent += bytes(body);
+        send(request(path, null).PUT(HttpRequest.BodyPublishers.ofString(body)).build(), t, 200);
+    }
+
+    /** Multi-path update; keys are paths relative to path, like updateChildren. */
+    void patch(String path, Map<String, Object> updates, Traffic t) throws IOException {
+        String body = GSON.toJson(updates);
+        t.sent += bytes(body);
+        send(request(path, null).method("PATCH", HttpRequest.BodyPublishers.ofString(body)).build(), t, 200);
+    }
+
+    private HttpRequest.Builder request(String path, String[] params) {
+        StringBuilder url = new StringBuilder(base).append('/').append(path).append(".json?ns=").append(namespace);
+        if (params != null) {
+            for (int i = 0; i + 1 < params.length; i += 2) {
+                url.append('&').append(params[i]).append('=')
+                        .append(URLEncoder.encode(params[i + 1], StandardCharsets.UTF_8));
+            }
+        }
+        return HttpRequest.newBuilder(URI.create(url.toString()))
+                .timeout(Duration.ofSeconds(30))
+                .header("Authorization", "Bearer owner");
+    }
+
+    private HttpResponse<String> send(HttpRequest req, Traffic t, int... ok) throws IOException {
+        HttpResponse<String> r;
+        try {
+            r = http.send(req, HttpResponse.BodyHandlers.ofString());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted", e);
+        }
+        check(r, ok);
+        t.received += bytes(r.body());
+        return r;
+    }
+
+    private static void check(HttpResponse<String> r, int... ok) throws IOException {
+        for (int code : ok) {
+            if (r.statusCode() == code) return;
+        }
+        throw new IOException(r.request().method() + " " + r.request().uri().getPath()
+                + " -> " + r.statusCode() + ": " + r.body());
+    }
+
+    private static String etag(HttpResponse<String> r) throws IOException {
+        return r.headers().firstValue("ETag")
+                .orElseThrow(() -> new IOException("no ETag from " + r.request().uri().getPath()));
+    }
+
+    private static long bytes(String s) {
+        return s == null ? 0 : s.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    // REST returns filtered children as a JSON object, which loses the order
+    private static Map<String, Object> sortedByChild(Map<String, Object> children, String[] params) {
+        String child = null;
+        for (int i = 0; i + 1 < params.length; i += 2) {
+            if ("orderBy".equals(params[i])) child = params[i + 1].replace("\"", "");
+        }
+        if (child == null || child.startsWith("$")) return children;
+        String field = child;
+        List<Map.Entry<String, Object>> entries = new ArrayList<>(children.entrySet());
+        entries.sort((a, b) -> {
+            int c = Double.compare(number(a.getValue(), field), number(b.getValue(), field));
+            return c != 0 ? c : a.getKey().compareTo(b.getKey());
+        });
+        Map<String, Object> out = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> e : entries) out.put(e.getKey(), e.getValue());
+        return out;
+    }
+
+    // missing values sort first, as in the database
+    private static double number(Object node, String field) {
+        if (!(node instanceof Map)) return Double.NEGATIVE_INFINITY;
+        Object v = ((Map<?, ?>) node).get(field);
+        return v instanceof Number ? ((Number) v).doubleValue() : Double.NEGATIVE_INFINITY;
+    }
+}
@@ -0,0 +1,55 @@
+package edu.uga.cs.project5.loadtest;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Outcomes, latencies and payload bytes of one flow across every simulated user.
+ */
+final class FlowStats {
+
+    final String name;
+    private long[] latencies = new long[1024]; // nanos, successful and rejected runs
+    private int count = 0;
+    private long failed = 0;
+    private long rejected = 0;
+    private long sent = 0;
+    private long received = 0;
+
+    FlowStats(String name) {
+        this.name = name;
+    }
+
+    synchronized void record(Flows.Outcome outcome, long nanos, EmulatorClient.Traffic t) {
+        if (outcome == Flows.Outcome.FAILED) {
+            failed++;
+            return;
+        }
+        if (outcome == Flows.Outcome.REJECTED) rejected++;
+        if (count == latencies.length) latencies = Arrays.copyOf(latencies, count * 2);
+        latencies[count++] = nanos;
+        sent += t.sent;
+        received += t.received;
+    }
+
+    static String header() {
+        return String.format(Locale.ROOT, "%-13s %8s %7s %7s %9s %9s %9s %11s %11s",
+                "flow", "runs", "reject", "fail", "runs/s", "p50 ms", "p99 ms", "KB out/run", "KB in/run");
+    }
+
+    synchronized String row(double seconds) {
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+        return String.format(Locale.ROOT, "%-13s %8d %7d %7d %9.1f %9.1f %9.1f %11.2f %11.2f",
+                name, count, rejected, failed, count / seconds,
+                percentile(sorted, 0.50) / 1e6, percentile(sorted, 0.99) / 1e6,
+                count == 0 ? 0 : sent / 1024.0 / count, count == 0 ? 0 : received / 1024.0 / count);
+    }
+
+    // nearest-rank
+    private static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) return 0;
+        int rank = (int) Math.ceil(p * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+}
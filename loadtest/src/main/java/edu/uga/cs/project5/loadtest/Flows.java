@@ -0,0 +1,252 @@
+package edu.uga.cs.project5.loadtest;
+
+import edu.uga.cs.project5.Item;
+import edu.uga.cs.project5.SnapshotMappers;
+import edu.uga.cs.project5.Transaction;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The app's reads and writes for each user flow, path for path. Listeners are
+ * replayed as the read they start with; each method is one run of the flow by
+ * one user and reports how it ended.
+ */
+final class Flows {
+
+    enum Outcome {
+        OK,
+        /** Ran, but the app would have refused it (item already sold, nothing to complete). */
+        REJECTED,
+        FAILED
+    }
+
+    static final String BROWSE = "browse";
+    static final String POST = "post";
+    static final String BUY = "buy";
+    static final String TRANSACTIONS = "transactions";
+    static final String COMPLETE = "complete";
+
+    private static final int PAGE_SIZE = 25;        // CategoryItemsViewModel.PAGE_SIZE
+    private static final int MAX_CLAIM_RETRIES = 25; // runTransaction gives up after as many
+
+    private final EmulatorClient db;
+    private final Seeder.Marketplace market;
+
+    Flows(EmulatorClient db, Seeder.Marketplace market) {
+        this.db = db;
+        this.market = market;
+    }
+
+    Outcome run(String flow, String uid, EmulatorClient.Traffic t) throws IOException {
+        switch (flow) {
+            case BROWSE: return browse(t);
+            case POST: return post(uid, t);
+            case BUY: return buy(uid, t);
+            case TRANSACTIONS: return transactions(uid, t);
+            case COMPLETE: return complete(uid, t);
+            default: throw new IllegalArgumentException("unknown flow " + flow);
+        }
+    }
+
+    /**
+     * CategoryListFragment's /categories listener, then a category's head page as
+     * PagedFeed loads it, and a third of the time the next page on scrolling.
+     */
+    Outcome browse(EmulatorClient.Traffic t) throws IOException {
+        db.get("categories", t);
+        String catId = randomCategory();
+        Map<String, Object> page = headPage(catId, t);
+        if (page.size() == PAGE_SIZE && ThreadLocalRandom.current().nextInt(3) == 0) {
+            Map.Entry<String, Object> oldest = page.entrySet().iterator().next();
+            Long cursor = SnapshotMappers.asLong(((Map<?, ?>) oldest.getValue()).get("createdAt"));
+            // REST has endAt but not endBefore, so one extra entry (the cursor) comes back
+            db.query("category-items/" + catId, t,
+                    "orderBy", "\"createdAt\"",
+                    "endAt", String.valueOf(cursor != null ? cursor : 0L),
+                    "limitToLast", String.valueOf(PAGE_SIZE + 1));
+        }
+        return Outcome.OK;
+    }
+
+    /** AddItemFragment.submitItem, with ProfileCache warm (no /users read). */
+    Outcome post(String uid, EmulatorClient.Traffic t) throws IOException {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        String catId = randomCategory();
+        String itemId = PushIds.next();
+        String title = word(rnd) + " " + word(rnd);
+        String description = word(rnd) + " " + word(rnd) + " " + word(rnd);
+        boolean isFree = rnd.nextInt(10) == 0;
+        long priceCents = isFree ? 0 : 100L * (1 + rnd.nextInt(200));
+        String displayName = "User " + uid.substring(4);
+
+        Map<String, Object> item = new HashMap<>();
+        item.put("createdByName", displayName);
+        item.put("title", title);
+        item.put("description", description);
+        item.put("isFree", isFree);
+        if (!isFree) item.put("priceCents", priceCents);
+        item.put("authorId", uid);
+        item.put("createdAt", EmulatorClient.TIMESTAMP);
+        item.put("available", true);
+        item.put("categoryId", catId);
+
+        // ItemSummary.toMap
+        Map<String, Object> summary = new HashMap<>();
+        summary.put("title", title);
+        summary.put("description", description);
+        summary.put("isFree", isFree);
+        if (!isFree) summary.put("priceCents", priceCents);
+        summary.put("createdAt", EmulatorClient.TIMESTAMP);
+        summary.put("createdByName", displayName);
+        summary.put("authorId", uid);
+
+        Map<String, Object> updates = new HashMap<>();
+        updates.put("/items/" + itemId, item);
+        updates.put("/category-items/" + catId + "/" + itemId, summary);
+        updates.put("/user-items/" + uid + "/" + itemId, true);
+        updates.put("/categories/" + catId + "/itemCount", EmulatorClient.increment(1));
+        db.patch("", updates, t);
+        return Outcome.OK;
+    }
+
+    /**
+     * ItemsListFragment.startTransaction from a category's head page: Purchases.buy's
+     * claim on /items/{id} (replayed as ETag compare-and-set, retried on conflict
+     * like runTransaction) and then its fan-out update.
+     */
+    @SuppressWarnings("unchecked")
+    Outcome buy(String uid, EmulatorClient.Traffic t) throws IOException {
+        Map<String, Object> page = headPage(randomCategory(), t);
+        List<String> candidates = new ArrayList<>();
+        for (Map.Entry<String, Object> e : page.entrySet()) {
+            Object author = e.getValue() instanceof Map ? ((Map<?, ?>) e.getValue()).get("authorId") : null;
+            if (!uid.equals(author)) candidates.add(e.getKey());
+        }
+        if (candidates.isEmpty()) return Outcome.REJECTED;
+        String itemId = candidates.get(ThreadLocalRandom.current().nextInt(candidates.size()));
+        String txId = PushIds.next();
+
+        EmulatorClient.Versioned current = db.getVersioned("items/" + itemId, t);
+        Map<String, Object> claimed = null;
+        for (int attempt = 0; attempt < MAX_CLAIM_RETRIES; attempt++) {
+            if (!(current.value instanceof Map)) return Outcome.REJECTED; // item gone
+            Map<String, Object> node = new HashMap<>((Map<String, Object>) current.value);
+            if (uid.equals(node.get("authorId")) || Boolean.FALSE.equals(node.get("available"))) {
+                return Outcome.REJECTED;
+            }
+            node.put("available", false);
+            node.put("buyerId", uid);
+            node.put("transactionId", txId);
+            node.put("pendingTransactionId", txId);
+            current = db.putIfMatch("items/" + itemId, node, current.etag, t);
+            if (current == null) {
+                claimed = node;
+                break;
+            }
+        }
+        if (claimed == null) return Outcome.FAILED;
+
+        Item item = SnapshotMappers.item(itemId, claimed);
+        Map<String, Object> tx = new HashMap<>();
+        tx.put("itemId", item.id);
+        tx.put("buyerId", uid);
+        tx.put("sellerId", item.authorId);
+        tx.put("status", "pending");
+        if (item.priceCents != null) tx.put("amountCents", item.priceCents);
+        tx.put("createdAt", EmulatorClient.TIMESTAMP);
+        tx.put("itemTitle", item.title);
+
+        Map<String, Object> updates = new HashMap<>();
+        updates.put("/transactions/" + txId, tx);
+        updates.put("/user-transactions/" + uid + "/" + txId, true);
+        if (item.authorId != null) {
+            updates.put("/user-transactions/" + item.authorId + "/" + txId, true);
+            updates.put("/user-items/" + item.authorId + "/" + item.id, true);
+        }
+        if (item.categoryId != null) {
+            updates.put("/category-items/" + item.categoryId + "/" + item.id, null);
+            updates.put("/categories/" + item.categoryId + "/itemCount", EmulatorClient.increment(-1));
+        }
+        try {
+            db.patch("", updates, t);
+        } catch (IOException e) {
+            release(itemId, txId, t);
+            throw e;
+        }
+        return Outcome.OK;
+    }
+
+    // Purchases.release: puts the item back on sale unless something else happened to it since
+    @SuppressWarnings("unchecked")
+    private void release(String itemId, String txId, EmulatorClient.Traffic t) throws IOException {
+        EmulatorClient.Versioned current = db.getVersioned("items/" + itemId, t);
+        for (int attempt = 0; attempt < MAX_CLAIM_RETRIES && current != null; attempt++) {
+            if (!(current.value instanceof Map)) return;
+            Map<String, Object> node = new HashMap<>((Map<String, Object>) current.value);
+            if (!txId.equals(node.get("transactionId"))) return;
+            node.put("available", true);
+            node.remove("buyerId");
+            node.remove("transactionId");
+            node.remove("pendingTransactionId");
+            current = db.putIfMatch("items/" + itemId, node, current.etag, t);
+        }
+    }
+
+    /** Opening the transaction tabs: TransactionFeed's index listener and one node listener per entry. */
+    Outcome transactions(String uid, EmulatorClient.Traffic t) throws IOException {
+        loadTransactions(uid, t);
+        return Outcome.OK;
+    }
+
+    /** PendingTransactionsFragment.completeTransaction on one of the seller's pending sales. */
+    Outcome complete(String uid, EmulatorClient.Traffic t) throws IOException {
+        List<Transaction> pending = new ArrayList<>();
+        for (Transaction tx : loadTransactions(uid, t)) {
+            if ("pending".equalsIgnoreCase(tx.status) && uid.equals(tx.sellerId)) pending.add(tx);
+        }
+        if (pending.isEmpty()) return Outcome.REJECTED;
+        Transaction tx = pending.get(ThreadLocalRandom.current().nextInt(pending.size()));
+
+        Map<String, Object> updates = new HashMap<>();
+        updates.put("/transactions/" + tx.id + "/status", "completed");
+        updates.put("/transactions/" + tx.id + "/completedAt", EmulatorClient.TIMESTAMP);
+        updates.put("/transactions/" + tx.id + "/completedBy", uid);
+        if (tx.itemId != null) updates.put("/items/" + tx.itemId + "/pendingTransactionId", null);
+        db.patch("", updates, t);
+        return Outcome.OK;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Transaction> loadTransactions(String uid, EmulatorClient.Traffic t) throws IOException {
+        Object index = db.get("user-transactions/" + uid, t);
+        if (!(index instanceof Map)) return new ArrayList<>();
+        List<String> ids = new ArrayList<>(((Map<String, ?>) index).keySet());
+        List<String> paths = new ArrayList<>();
+        for (String id : ids) paths.add("transactions/" + id);
+        List<Object> nodes = db.getAll(paths, t);
+        List<Transaction> out = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            Transaction tx = SnapshotMappers.transaction(ids.get(i), nodes.get(i));
+            if (tx != null) out.add(tx);
+        }
+        return out;
+    }
+
+    private Map<String, Object> headPage(String categoryId, EmulatorClient.Traffic t) throws IOException {
+        return db.query("category-items/" + categoryId, t,
+                "orderBy", "\"createdAt\"", "limitToLast", String.valueOf(PAGE_SIZE));
+    }
+
+    private String randomCategory() {
+        return market.categories.get(ThreadLocalRandom.current().nextInt(market.categories.size()));
+    }
+
+    private static String word(ThreadLocalRandom rnd) {
+        return Seeder.WORDS[rnd.nextInt(Seeder.WORDS.length)];
+    }
+}
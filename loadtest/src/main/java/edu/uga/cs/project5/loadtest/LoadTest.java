@@ -0,0 +1,143 @@
+package edu.uga.cs.project5.loadtest;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Load test for the marketplace flows against the Realtime Database emulator.
+ * Seeds a synthetic marketplace, then runs N simulated users, each repeatedly
+ * picking a flow from the mix and running it back to back (plus think time).
+ * Prints runs/s, p50/p99 latency and payload KB per run for every flow.
+ *
+ * Start the emulator (from loadtest/):
+ *   firebase emulators:start --only database --project demo-project5
+ * then:
+ *   ./gradlew :loadtest:run --args="--users 50 --duration 60"
+ *
+ * Options (defaults in brackets):
+ *   --host [127.0.0.1:9000]  --ns [demo-project5-default-rtdb]
+ *   --users [20]  --duration [60] seconds  --warmup [5] seconds, not counted
+ *   --think-ms [0]  --mix [browse=60,buy=15,post=10,transactions=10,complete=5]
+ *   --categories [15]  --items [5000]  --accounts [200]  --sold [1000]
+ *   --seed [42]  --skip-seed (reuse what the last run seeded)
+ */
+public final class LoadTest {
+
+    private LoadTest() { }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opts = parse(args);
+        String host = opts.getOrDefault("host", "127.0.0.1:9000");
+        String ns = opts.getOrDefault("ns", "demo-project5-default-rtdb");
+        int users = intOpt(opts, "users", 20);
+        int duration = intOpt(opts, "duration", 60);
+        int warmup = intOpt(opts, "warmup", 5);
+        int thinkMs = intOpt(opts, "think-ms", 0);
+        Map<String, Integer> mix = mix(opts.getOrDefault("mix",
+                "browse=60,buy=15,post=10,transactions=10,complete=5"));
+        int accounts = intOpt(opts, "accounts", 200);
+        if (accounts < 2) throw new IllegalArgumentException("--accounts must be at least 2 (buyers and sellers)");
+
+        EmulatorClient db = new EmulatorClient(host, ns);
+        Seeder.Marketplace market = opts.containsKey("skip-seed")
+                ? Seeder.existing(db)
+                : new Seeder(db, intOpt(opts, "seed", 42)).seed(intOpt(opts, "categories", 15),
+                        intOpt(opts, "items", 5000), accounts, intOpt(opts, "sold", 1000));
+        Flows flows = new Flows(db, market);
+
+        Map<String, FlowStats> stats = new LinkedHashMap<>();
+        for (String flow : mix.keySet()) stats.put(flow, new FlowStats(flow));
+        List<String> names = new ArrayList<>(mix.keySet());
+        int[] cumulative = new int[names.size()];
+        int total = 0;
+        for (int i = 0; i < names.size(); i++) cumulative[i] = total += mix.get(names.get(i));
+        int weightSum = total;
+
+        System.out.printf("Running %d users for %ds (+%ds warm-up) against %s/%s%n",
+                users, duration, warmup, host, ns);
+        long start = System.nanoTime();
+        long measureFrom = start + TimeUnit.SECONDS.toNanos(warmup);
+        long end = measureFrom + TimeUnit.SECONDS.toNanos(duration);
+        AtomicLong firstError = new AtomicLong();
+
+        ExecutorService pool = Executors.newFixedThreadPool(users);
+        for (int u = 0; u < users; u++) {
+            String uid = market.users.get(u % market.users.size());
+            pool.execute(() -> {
+                ThreadLocalRandom rnd = ThreadLocalRandom.current();
+                while (System.nanoTime() < end) {
+                    int pick = rnd.nextInt(weightSum);
+                    int f = 0;
+                    while (cumulative[f] <= pick) f++;
+                    String flow = names.get(f);
+
+                    EmulatorClient.Traffic t = new EmulatorClient.Traffic();
+                    long t0 = System.nanoTime();
+                    Flows.Outcome outcome;
+                    try {
+                        outcome = flows.run(flow, uid, t);
+                    } catch (IOException | RuntimeException e) {
+                        outcome = Flows.Outcome.FAILED;
+                        if (firstError.compareAndSet(0, 1)) System.err.println(flow + ": " + e);
+                    }
+                    long t1 = System.nanoTime();
+                    if (t0 >= measureFrom && t1 <= end) stats.get(flow).record(outcome, t1 - t0, t);
+                    if (thinkMs > 0) {
+                        try {
+                            Thread.sleep(thinkMs);
+                        } catch (InterruptedException e) {
+                            return;
+                        }
+                    }
+                }
+            });
+        }
+        pool.shutdown();
+        pool.awaitTermination(duration + warmup + 120L, TimeUnit.SECONDS);
+
+        System.out.println();
+        System.out.println(FlowStats.header());
+        for (FlowStats s : stats.values()) System.out.println(s.row(duration));
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> out = new LinkedHashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--")) throw new IllegalArgumentException("unexpected " + args[i]);
+            String key = args[i].substring(2);
+            boolean flag = i + 1 >= args.length || args[i + 1].startsWith("--");
+            out.put(key, flag ? "true" : args[++i]);
+        }
+        return out;
+    }
+
+    private static int intOpt(Map<String, String> opts, String key, int def) {
+        String v = opts.get(key);
+        return v != null ? Integer.parseInt(v) : def;
+    }
+
+    private static Map<String, Integer> mix(String spec) {
+        Map<String, Integer> out = new LinkedHashMap<>();
+        for (String part : spec.split(",")) {
+            String[] kv = part.trim().split("=");
+            if (kv.length != 2) throw new IllegalArgumentException("bad --mix entry " + part);
+            int w = Integer.parseInt(kv[1]);
+            if (w > 0) out.put(kv[0], w);
+        }
+        for (String flow : out.keySet()) {
+            if (!List.of(Flows.BROWSE, Flows.POST, Flows.BUY, Flows.TRANSACTIONS, Flows.COMPLETE).contains(flow)) {
+                throw new IllegalArgumentException("unknown flow " + flow);
+            }
+        }
+        if (out.isEmpty()) throw new IllegalArgumentException("--mix has no flows");
+        return out;
+    }
+}
@@ -0,0 +1,31 @@
+package edu.uga.cs.project5.loadtest;
+
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Keys in the format push() generates client-side: 8 characters of timestamp
+ * then 12 random ones, so keys sort by creation time like the app's do.
+ */
+final class PushIds {
+
+    private static final String CHARS = "-0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ_abcdefghijklmnopqrstuvwxyz";
+
+    private PushIds() { }
+
+    static String next() {
+        return at(System.currentTimeMillis(), ThreadLocalRandom.current());
+    }
+
+    /** A key as if pushed at the given time, for seeded (past) data. */
+    static String at(long millis, Random rnd) {
+        char[] id = new char[20];
+        long t = millis;
+        for (int i = 7; i >= 0; i--) {
+            id[i] = CHARS.charAt((int) (t % 64));
+            t /= 64;
+        }
+        for (int i = 8; i < 20; i++) id[i] = CHARS.charAt(rnd.nextInt(64));
+        return new String(id);
+    }
+}
@@ -0,0 +1,197 @@
+package edu.uga.cs.project5.loadtest;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Writes a synthetic marketplace in the app's schema: /users, /categories (with
+ * itemCount), /items with their /category-items summaries and /user-items
+ * index entries, and sold items with their /transactions and
+ * /user-transactions entries, as Purchases.buy leaves them.
+ */
+final class Seeder {
+
+    /** The ids the simulated users pick from. */
+    static final class Marketplace {
+        final List<String> categories;
+        final List<String> users;
+
+        Marketplace(List<String> categories, List<String> users) {
+            this.categories = categories;
+            this.users = users;
+        }
+    }
+
+    private static final int BATCH = 500; // nodes per multi-path write
+    private static final String[] CATEGORY_NAMES = {
+            "Books", "Furniture", "Electronics", "Clothing", "Kitchen", "Bikes", "Music",
+            "Sports", "Games", "Decor", "Tools", "Appliances", "Textbooks", "Shoes", "Art"
+    };
+    static final String[] WORDS = {
+            "bike", "bicycle", "book", "calculus", "chair", "desk", "lamp", "laptop", "charger",
+            "textbook", "physics", "phone", "case", "monitor", "keyboard", "mouse", "headphones",
+            "jacket", "shoes", "table", "couch", "mirror", "microwave", "fridge", "mini", "blue",
+            "red", "black", "used", "new", "good", "condition", "cheap", "vintage", "dorm", "guitar"
+    };
+
+    private final EmulatorClient db;
+    private final Random rnd;
+
+    Seeder(EmulatorClient db, long seed) {
+        this.db = db;
+        this.rnd = new Random(seed);
+    }
+
+    /** Replaces everything in the namespace. */
+    Marketplace seed(int categories, int items, int accounts, int sold) throws IOException {
+        EmulatorClient.Traffic t = new EmulatorClient.Traffic();
+        long now = System.currentTimeMillis();
+        db.put("", null, t);
+
+        List<String> users = new ArrayList<>();
+        Map<String, Object> updates = new HashMap<>();
+        for (int i = 0; i < accounts; i++) {
+            String uid = "user" + i;
+            users.add(uid);
+            Map<String, Object> profile = new HashMap<>();
+            profile.put("displayName", "User " + i);
+            profile.put("email", uid + "@example.com");
+            profile.put("createdAt", now - 400L * 86_400_000L);
+            updates.put("users/" + uid, profile);
+            flushIfFull(updates, t);
+        }
+
+        List<String> cats = new ArrayList<>();
+        long[] listed = new long[categories];
+        for (int c = 0; c < categories; c++) {
+            cats.add(PushIds.at(now - (categories - c) * 86_400_000L, rnd));
+        }
+
+        // which items end up sold; the rest stay listed
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < items; i++) order.add(i);
+        Collections.shuffle(order, rnd);
+        boolean[] isSold = new boolean[items];
+        for (int i = 0; i < Math.min(sold, items); i++) isSold[order.get(i)] = true;
+
+        for (int i = 0; i < items; i++) {
+            int c = rnd.nextInt(categories);
+            String cat = cats.get(c);
+            String author = users.get(rnd.nextInt(users.size()));
+            long created = now - (long) rnd.nextInt(90 * 86_400) * 1000L;
+            String id = PushIds.at(created, rnd);
+            boolean free = rnd.nextInt(10) == 0;
+            long price = free ? 0 : 100L * (1 + rnd.nextInt(200));
+            String title = words(2 + rnd.nextInt(3));
+            String description = words(5 + rnd.nextInt(10));
+            String authorName = "User " + author.substring(4);
+
+            Map<String, Object> item = new HashMap<>();
+            item.put("title", title);
+            item.put("description", description);
+            item.put("isFree", free);
+            if (!free) item.put("priceCents", price);
+            item.put("authorId", author);
+            item.put("createdByName", authorName);
+            item.put("createdAt", created);
+            item.put("categoryId", cat);
+            updates.put("user-items/" + author + "/" + id, true);
+
+            if (isSold[i]) {
+                String buyer = users.get(rnd.nextInt(users.size()));
+                if (buyer.equals(author)) buyer = users.get((users.indexOf(author) + 1) % users.size());
+                boolean pending = rnd.nextBoolean();
+                String txId = PushIds.at(created + 3_600_000L, rnd);
+                item.put("available", false);
+                item.put("buyerId", buyer);
+                item.put("transactionId", txId);
+                if (pending) item.put("pendingTransactionId", txId);
+
+                Map<String, Object> tx = new HashMap<>();
+                tx.put("itemId", id);
+                tx.put("buyerId", buyer);
+                tx.put("sellerId", author);
+                tx.put("status", pending ? "pending" : "completed");
+                if (!free) tx.put("amountCents", price);
+                tx.put("createdAt", created + 3_600_000L);
+                tx.put("itemTitle", title);
+                if (!pending) {
+                    tx.put("completedAt", created + 7_200_000L);
+                    tx.put("completedBy", author);
+                }
+                updates.put("transactions/" + txId, tx);
+                updates.put("user-transactions/" + buyer + "/" + txId, true);
+                updates.put("user-transactions/" + author + "/" + txId, true);
+            } else {
+                item.put("available", true);
+                Map<String, Object> summary = new HashMap<>();
+                summary.put("title", title);
+                summary.put("description", description);
+                summary.put("isFree", free);
+                if (!free) summary.put("priceCents", price);
+                summary.put("createdAt", created);
+                summary.put("createdByName", authorName);
+                summary.put("authorId", author);
+                updates.put("category-items/" + cat + "/" + id, summary);
+                listed[c]++;
+            }
+            updates.put("items/" + id, item);
+            flushIfFull(updates, t);
+        }
+
+        for (int c = 0; c < categories; c++) {
+            String creator = users.get(rnd.nextInt(users.size()));
+            Map<String, Object> category = new HashMap<>();
+            category.put("name", categories <= CATEGORY_NAMES.length
+                    ? CATEGORY_NAMES[c] : CATEGORY_NAMES[c % CATEGORY_NAMES.length] + " " + (c + 1));
+            category.put("createdBy", creator);
+            category.put("createdByName", "User " + creator.substring(4));
+            category.put("createdAt", now - (categories - c) * 86_400_000L);
+            category.put("itemCount", listed[c]);
+            category.put("itemCountExact", true);
+            updates.put("categories/" + cats.get(c), category);
+            flushIfFull(updates, t);
+        }
+        if (!updates.isEmpty()) db.patch("", updates, t);
+        System.out.printf("Seeded %d categories, %d items (%d sold), %d users: %.1f MB%n",
+                categories, items, Math.min(sold, items), accounts, t.sent / 1048576.0);
+        return new Marketplace(cats, users);
+    }
+
+    /** Picks up what an earlier run seeded, without writing anything. */
+    static Marketplace existing(EmulatorClient db) throws IOException {
+        EmulatorClient.Traffic t = new EmulatorClient.Traffic();
+        List<String> cats = keys(db.query("categories", t, "shallow", "true"));
+        List<String> users = keys(db.query("users", t, "shallow", "true"));
+        if (cats.isEmpty() || users.isEmpty()) {
+            throw new IOException("Nothing seeded yet; run without --skip-seed first");
+        }
+        return new Marketplace(cats, users);
+    }
+
+    private void flushIfFull(Map<String, Object> updates, EmulatorClient.Traffic t) throws IOException {
+        if (updates.size() < BATCH) return;
+        db.patch("", updates, t);
+        updates.clear();
+    }
+
+    private String words(int count) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) sb.append(' ');
+            sb.append(WORDS[rnd.nextInt(WORDS.length)]);
+        }
+        return sb.toString();
+    }
+
+    private static List<String> keys(Map<String, Object> shallow) {
+        List<String> out = new ArrayList<>(shallow.keySet());
+        Collections.sort(out);
+        return out;
+    }
+}